@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Writes query rows to the response as a JSON array while they are fetched, so memory use
+// does not grow with the row count; a writer that emits fields through the generator also
+// avoids a response bean per row. The cursor needs a transaction of its own, as the body is
+// written after the resource method returns.
+public final class JsonArrayStream {
+
+    public interface RowWriter<T> {
+        void write(JsonGenerator json, T row) throws IOException;
+    }
+
+    private JsonArrayStream() {
+    }
+
+    public static <T> StreamingOutput of(ObjectMapper mapper, Supplier<Stream<T>> rows, RowWriter<T> writer) {
+        return output -> QuarkusTransaction.requiringNew().run(() -> {
+            try (Stream<T> stream = rows.get();
+                 JsonGenerator json = mapper.getFactory().createGenerator(output)) {
+                json.writeStartArray();
+                for (T row : (Iterable<T>) stream::iterator) {
+                    writer.write(json, row);
+                }
+                json.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.fulfilment.application.monolith.api;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Runs a NamePageRequest against a table with a name and an id column. Rows are ordered by
+// name in the "C" collation, so that the (name COLLATE "C", id) index serves the cursor and
+// the prefix LIKE alike; rows without a name follow in id order. filter is an extra SQL
+// condition on alias t, with its parameters.
+public final class NamePageQuery {
+
+    private NamePageQuery() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> fetch(
+            EntityManager em, Class<T> entity, String table, NamePageRequest request,
+            String filter, Map<String, Object> parameters) {
+        int wanted = request.limit() + 1;
+        List<T> rows = new ArrayList<>(wanted);
+
+        // A cursor without a name is already past the named rows
+        boolean named = request.afterId() == null || request.afterName() != null;
+        if (named) {
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table).append(" t WHERE t.name IS NOT NULL");
+            if (request.afterId() != null) {
+                sql.append(" AND (t.name COLLATE \"C\", t.id) > (:afterName, :afterId)");
+            }
+            if (request.namePrefix() != null) {
+                sql.append(" AND t.name COLLATE \"C\" LIKE :prefix ESCAPE '\\'");
+            }
+            if (filter != null) {
+                sql.append(" AND ").append(filter);
+            }
+            sql.append(" ORDER BY t.name COLLATE \"C\", t.id");
+
+            Query query = query(em, sql, entity, wanted, parameters);
+            if (request.afterId() != null) {
+                query.setParameter("afterName", request.afterName()).setParameter("afterId", request.afterId());
+            }
+            if (request.namePrefix() != null) {
+                query.setParameter("prefix", likePrefix(request.namePrefix()));
+            }
+            rows.addAll(query.getResultList());
+        }
+
+        if (rows.size() < wanted && request.namePrefix() == null) {
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table).append(" t WHERE t.name IS NULL");
+            if (!named) {
+                sql.append(" AND t.id > :afterId");
+            }
+            if (filter != null) {
+                sql.append(" AND ").append(filter);
+            }
+            sql.append(" ORDER BY t.id");
+
+            Query query = query(em, sql, entity, wanted - rows.size(), parameters);
+            if (!named) {
+                query.setParameter("afterId", request.afterId());
+            }
+            rows.addAll(query.getResultList());
+        }
+        return rows;
+    }
+
+    private static Query query(
+            EntityManager em, StringBuilder sql, Class<?> entity, int limit, Map<String, Object> parameters) {
+        Query query = em.createNativeQuery(sql.toString(), entity)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
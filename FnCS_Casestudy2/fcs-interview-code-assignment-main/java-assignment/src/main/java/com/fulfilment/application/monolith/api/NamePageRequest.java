@@ -0,0 +1,61 @@
+package com.fulfilment.application.monolith.api;
+
+import com.fulfilment.application.monolith.api.exception.InvalidInputException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Keyset page over (name, id) for the store and product listings. after is the opaque cursor
+// of the previous page, namePrefix an optional filter on the start of the name.
+public record NamePageRequest(String afterName, Long afterId, int limit, String namePrefix) {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static NamePageRequest of(String after, Integer limit, String name) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        String prefix = name == null || name.isEmpty() ? null : name;
+        if (after == null || after.isBlank()) {
+            return new NamePageRequest(null, null, size, prefix);
+        }
+
+        // id, then the name when the row had one
+        String cursor;
+        try {
+            cursor = new String(Base64.getUrlDecoder().decode(after.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("after is not a valid cursor.");
+        }
+        int separator = cursor.indexOf(':');
+        try {
+            long id = Long.parseLong(separator < 0 ? cursor : cursor.substring(0, separator));
+            return new NamePageRequest(separator < 0 ? null : cursor.substring(separator + 1), id, size, prefix);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("after is not a valid cursor.");
+        }
+    }
+
+    // Expects up to limit + 1 rows; the extra one only tells that another page follows
+    public <T> NamePage<T> page(List<T> rows, Function<T, String> name, Function<T, Long> id) {
+        if (rows.size() <= limit) {
+            return new NamePage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new NamePage<>(items, cursorOf(name.apply(last), id.apply(last)));
+    }
+
+    static String cursorOf(String name, long id) {
+        String cursor = name == null ? Long.toString(id) : id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // nextAfter is the cursor for the following page, null on the last one
+    public record NamePage<T>(List<T> items, String nextAfter) {
+    }
+}
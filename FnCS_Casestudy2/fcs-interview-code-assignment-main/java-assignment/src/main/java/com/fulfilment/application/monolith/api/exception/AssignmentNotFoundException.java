@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.api.exception;
+
+public class AssignmentNotFoundException extends BusinessException {
+    public AssignmentNotFoundException(Long storeId, Long productId, String warehouseBuCode) {
+        super("Assignment not found: store " + storeId + ", product " + productId
+                + ", warehouse " + warehouseBuCode);
+    }
+}
@@ -16,7 +16,7 @@ public class BusinessExceptionMapper
     @Override
     public Response toResponse(BusinessException ex) {
 
-        int status = mapStatus(ex);
+        int status = statusOf(ex);
 
         ObjectNode json = OBJECT_MAPPER.createObjectNode();
         json.put("error", ex.getMessage());
@@ -28,14 +28,15 @@ public class BusinessExceptionMapper
                 .build();
     }
 
-    private int mapStatus(BusinessException ex) {
+    public static int statusOf(BusinessException ex) {
         if (ex instanceof InvalidInputException
                 || ex instanceof WarehouseValidationException) {
             return 422;
         }
         if (ex instanceof StoreNotFoundException
                 || ex instanceof ProductNotFoundException
-                || ex instanceof WarehouseNotFoundException) {
+                || ex instanceof WarehouseNotFoundException
+                || ex instanceof AssignmentNotFoundException) {
             return 404;
         }
         return 409;
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import jakarta.persistence.LockModeType;
+
+// How concurrent assignments are kept from racing past the fulfilment limits.
+// Every limit is scoped to a store or to a warehouse, so locking both rows
+// serializes exactly the assignments that can conflict.
+public enum AssignmentLocking {
+
+    // PESSIMISTIC_WRITE on the Store row, then on the warehouse row. On PostgreSQL Hibernate
+    // loads a row with SELECT ... FOR NO KEY UPDATE, and locks one already in the persistence
+    // context with SELECT id ... FOR UPDATE. The two conflict with each other, so conflicting
+    // assignments queue either way; FOR NO KEY UPDATE still lets foreign key checks through.
+    ROWS(LockModeType.PESSIMISTIC_WRITE),
+    // No locking; concurrent assignments for the same store or warehouse can exceed the limits
+    NONE(LockModeType.NONE);
+
+    private final LockModeType lockMode;
+
+    AssignmentLocking(LockModeType lockMode) {
+        this.lockMode = lockMode;
+    }
+
+    LockModeType lockMode() {
+        return lockMode;
+    }
+}
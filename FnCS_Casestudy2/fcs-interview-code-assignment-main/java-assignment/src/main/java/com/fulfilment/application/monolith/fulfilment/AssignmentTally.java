@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+// In-memory view of the assignments relevant to the fulfilment limits, keyed by
+// primitive ids so that neither lookups nor updates box.
+// Recording the same (store, product, warehouse) twice is a no-op.
+class AssignmentTally {
+
+    private static final SmallLongMultiset EMPTY = new SmallLongMultiset();
+
+    private final LongObjectHashMap<LongObjectHashMap<SmallLongMultiset>> warehousesByStoreProduct;
+    // warehouse -> number of the store's products assigned there
+    private final LongObjectHashMap<SmallLongMultiset> warehousesByStore;
+    // product -> number of stores taking it from the warehouse
+    private final LongObjectHashMap<SmallLongMultiset> productsByWarehouse;
+    private long size;
+
+    AssignmentTally() {
+        this(0, 0);
+    }
+
+    AssignmentTally(int expectedStores, int expectedWarehouses) {
+        warehousesByStoreProduct = new LongObjectHashMap<>(expectedStores);
+        warehousesByStore = new LongObjectHashMap<>(expectedStores);
+        productsByWarehouse = new LongObjectHashMap<>(expectedWarehouses);
+    }
+
+    // Number of distinct (store, product, warehouse) assignments
+    long size() {
+        return size;
+    }
+
+    boolean contains(long storeId, long productId, long warehouseId) {
+        return warehousesFor(storeId, productId).contains(warehouseId);
+    }
+
+    void record(long storeId, long productId, long warehouseId) {
+        SmallLongMultiset warehouses =
+                warehousesByStoreProduct
+                        .computeIfAbsent(storeId, k -> new LongObjectHashMap<>())
+                        .computeIfAbsent(productId, k -> new SmallLongMultiset());
+        // The leaf holds each warehouse once; a repeated record must not raise its count,
+        // or a single remove would leave the triple behind
+        if (warehouses.contains(warehouseId)) {
+            return;
+        }
+        warehouses.add(warehouseId);
+        size++;
+        warehousesByStore.computeIfAbsent(storeId, k -> new SmallLongMultiset()).add(warehouseId);
+        productsByWarehouse.computeIfAbsent(warehouseId, k -> new SmallLongMultiset()).add(productId);
+    }
+
+    void remove(long storeId, long productId, long warehouseId) {
+        LongObjectHashMap<SmallLongMultiset> byProduct = warehousesByStoreProduct.get(storeId);
+        SmallLongMultiset warehouses = byProduct == null ? null : byProduct.get(productId);
+        if (warehouses == null || !warehouses.remove(warehouseId)) {
+            return;
+        }
+        size--;
+        if (warehouses.isEmpty()) {
+            byProduct.remove(productId);
+            if (byProduct.size() == 0) {
+                warehousesByStoreProduct.remove(storeId);
+            }
+        }
+        removeFrom(warehousesByStore, storeId, warehouseId);
+        removeFrom(productsByWarehouse, warehouseId, productId);
+    }
+
+    AssignmentVerdict evaluate(long storeId, long productId, long warehouseId) {
+        SmallLongMultiset storeProductWarehouses = warehousesFor(storeId, productId);
+        SmallLongMultiset storeWarehouses = orEmpty(warehousesByStore.get(storeId));
+        SmallLongMultiset warehouseProducts = orEmpty(productsByWarehouse.get(warehouseId));
+
+        return AssignmentVerdict.of(
+                storeProductWarehouses.contains(warehouseId),
+                storeProductWarehouses.size(),
+                storeWarehouses.contains(warehouseId),
+                storeWarehouses.size(),
+                warehouseProducts.contains(productId),
+                warehouseProducts.size());
+    }
+
+    private SmallLongMultiset warehousesFor(long storeId, long productId) {
+        LongObjectHashMap<SmallLongMultiset> byProduct = warehousesByStoreProduct.get(storeId);
+        return orEmpty(byProduct == null ? null : byProduct.get(productId));
+    }
+
+    private static void removeFrom(LongObjectHashMap<SmallLongMultiset> sets, long key, long value) {
+        SmallLongMultiset set = sets.get(key);
+        if (set != null && set.remove(value) && set.isEmpty()) {
+            sets.remove(key);
+        }
+    }
+
+    private static SmallLongMultiset orEmpty(SmallLongMultiset set) {
+        return set == null ? EMPTY : set;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.AssignmentAlreadyExistsException;
+import com.fulfilment.application.monolith.api.exception.MaxProductsPerWarehouseExceededException;
+import com.fulfilment.application.monolith.api.exception.MaxWarehousesPerStoreExceededException;
+import com.fulfilment.application.monolith.api.exception.MaxWarehousesPerStoreProductExceededException;
+
+public enum AssignmentVerdict {
+
+    ALLOWED,
+    DUPLICATE,
+    MAX_WAREHOUSES_PER_STORE_PRODUCT,
+    MAX_WAREHOUSES_PER_STORE,
+    MAX_PRODUCTS_PER_WAREHOUSE;
+
+    static final int MAX_WAREHOUSES_PER_STORE_PRODUCT_LIMIT = 2;
+    static final int MAX_WAREHOUSES_PER_STORE_LIMIT = 3;
+    static final int MAX_PRODUCTS_PER_WAREHOUSE_LIMIT = 5;
+
+    // Checks are evaluated in the same order the service has always applied them,
+    // so the first violated rule decides the verdict.
+    static AssignmentVerdict of(
+            boolean duplicate,
+            long warehousesForStoreProduct,
+            boolean warehouseAlreadyForStore,
+            long warehousesForStore,
+            boolean productAlreadyForWarehouse,
+            long productsForWarehouse) {
+
+        if (duplicate) {
+            return DUPLICATE;
+        }
+        if (warehousesForStoreProduct >= MAX_WAREHOUSES_PER_STORE_PRODUCT_LIMIT) {
+            return MAX_WAREHOUSES_PER_STORE_PRODUCT;
+        }
+        if (!warehouseAlreadyForStore && warehousesForStore >= MAX_WAREHOUSES_PER_STORE_LIMIT) {
+            return MAX_WAREHOUSES_PER_STORE;
+        }
+        if (!productAlreadyForWarehouse && productsForWarehouse >= MAX_PRODUCTS_PER_WAREHOUSE_LIMIT) {
+            return MAX_PRODUCTS_PER_WAREHOUSE;
+        }
+        return ALLOWED;
+    }
+
+    public void enforce() {
+        switch (this) {
+            case DUPLICATE -> throw new AssignmentAlreadyExistsException();
+            case MAX_WAREHOUSES_PER_STORE_PRODUCT -> throw new MaxWarehousesPerStoreProductExceededException();
+            case MAX_WAREHOUSES_PER_STORE -> throw new MaxWarehousesPerStoreExceededException();
+            case MAX_PRODUCTS_PER_WAREHOUSE -> throw new MaxProductsPerWarehouseExceededException();
+            default -> {
+                // allowed
+            }
+        }
+    }
+}
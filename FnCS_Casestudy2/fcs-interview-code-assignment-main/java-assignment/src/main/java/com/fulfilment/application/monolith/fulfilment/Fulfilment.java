@@ -10,7 +10,15 @@ import java.time.LocalDateTime;
         uniqueConstraints =
         @UniqueConstraint(
                 name = "uq_store_product_warehouse",
-                columnNames = {"storeId", "productId", "warehouseId"}))
+                columnNames = {"storeId", "productId", "warehouseId"}),
+        // Keyset pages seek on (filter column, id); the trailing columns make every
+        // page an index-only scan. These indexes serve the pages only: the limits are
+        // checked against the usage counter tables (FulfilmentUsageRepository).
+        indexes = {
+                @Index(name = "ix_fulfilment_store_page", columnList = "storeId, id, productId, warehouseId, createdAt"),
+                @Index(name = "ix_fulfilment_product_page", columnList = "productId, id, storeId, warehouseId, createdAt"),
+                @Index(name = "ix_fulfilment_warehouse_page", columnList = "warehouseId, id, productId, storeId, createdAt")
+        })
 public class Fulfilment {
 
     @Id
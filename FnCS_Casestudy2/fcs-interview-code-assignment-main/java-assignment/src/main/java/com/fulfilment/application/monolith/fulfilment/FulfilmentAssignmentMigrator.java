@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.AssignmentMigrator;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class FulfilmentAssignmentMigrator implements AssignmentMigrator {
+
+    @Inject
+    FulfilmentRepository repo;
+    @Inject
+    FulfilmentIndex index;
+
+    @Override
+    public void migrateToActive(Long archivedWarehouseId, Long activeWarehouseId) {
+        index.moveAfterCommit(repo.moveToActiveWarehouse(archivedWarehouseId, activeWarehouseId));
+    }
+}
@@ -0,0 +1,211 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.*;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@ApplicationScoped
+public class FulfilmentBulkService {
+
+    // Bound for IN lists, well below the bind parameter limit of the driver
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    // Must match quarkus.hibernate-orm.jdbc.statement-batch-size
+    static final int INSERT_BATCH_SIZE = 100;
+
+    @Inject
+    FulfilmentRepository repo;
+    @Inject
+    WarehouseRepository warehouseRepository;
+    @Inject
+    EntityManager em;
+    @Inject
+    FulfilmentUsageRepository usage;
+    @Inject
+    FulfilmentIndex index;
+
+    @ConfigProperty(name = "fulfilment.assign.locking", defaultValue = "rows")
+    AssignmentLocking locking;
+
+    public BulkAssignmentResponse assignAll(List<AssignmentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidInputException("At least one assignment is required.");
+        }
+
+        BulkAssignmentResult[] results = new BulkAssignmentResult[requests.size()];
+
+        // Sorted, so that every chunk locks its rows in the same global order
+        Set<Long> storeIds = new TreeSet<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<String> buCodes = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AssignmentRequest request = requests.get(i);
+            try {
+                if (request == null) {
+                    throw new InvalidInputException("Assignment was not set.");
+                }
+                FulfilmentService.validateInputs(
+                        request.storeId(), request.productId(), request.warehouseBusinessUnitCode());
+            } catch (BusinessException e) {
+                results[i] = BulkAssignmentResult.failed(i, request, e);
+                continue;
+            }
+            storeIds.add(request.storeId());
+            productIds.add(request.productId());
+            buCodes.add(request.warehouseBusinessUnitCode().trim());
+        }
+
+        // Same lock order as single assignments: all stores, then all warehouses
+        Set<Long> existingStores = findExistingIds("Store", storeIds, locking.lockMode());
+        Set<Long> existingProducts = findExistingIds("Product", productIds, LockModeType.NONE);
+        Map<String, Long> warehouseIds = new HashMap<>();
+        for (List<String> chunk : chunks(buCodes)) {
+            warehouseIds.putAll(warehouseRepository.findActiveIdsByBusinessUnitCodes(chunk));
+        }
+        if (locking != AssignmentLocking.NONE) {
+            for (List<Long> chunk : chunks(new TreeSet<>(warehouseIds.values()))) {
+                warehouseRepository.lockByIds(chunk);
+            }
+        }
+
+        AssignmentTally tally = loadTally(existingStores, new HashSet<>(warehouseIds.values()));
+
+        List<Fulfilment> created = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            AssignmentRequest request = requests.get(i);
+            String buCode = request.warehouseBusinessUnitCode().trim();
+            try {
+                if (!existingStores.contains(request.storeId())) {
+                    throw new StoreNotFoundException(request.storeId());
+                }
+                if (!existingProducts.contains(request.productId())) {
+                    throw new ProductNotFoundException(request.productId());
+                }
+                Long warehouseId = warehouseIds.get(buCode);
+                if (warehouseId == null) {
+                    throw new WarehouseNotFoundException(buCode);
+                }
+
+                tally.evaluate(request.storeId(), request.productId(), warehouseId).enforce();
+                tally.record(request.storeId(), request.productId(), warehouseId);
+
+                Fulfilment assignment =
+                        new Fulfilment(request.storeId(), request.productId(), warehouseId, now);
+                repo.persist(assignment);
+                created.add(assignment);
+                results[i] = BulkAssignmentResult.created(i, request, buCode, now);
+
+                if (created.size() % INSERT_BATCH_SIZE == 0) {
+                    flushBatch();
+                }
+            } catch (BusinessException e) {
+                results[i] = BulkAssignmentResult.failed(i, request, e);
+            }
+        }
+        flushBatch();
+        usage.increment(created);
+        index.recordAfterCommit(created);
+
+        return BulkAssignmentResponse.of(Arrays.asList(results));
+    }
+
+    private void flushBatch() {
+        em.flush();
+        em.clear();
+    }
+
+    private Set<Long> findExistingIds(String entity, Set<Long> ids, LockModeType lockMode) {
+        Set<Long> existing = new HashSet<>();
+        for (List<Long> chunk : chunks(ids)) {
+            existing.addAll(
+                    em.createQuery(
+                                    "select e.id from " + entity + " e where e.id in :ids order by e.id",
+                                    Long.class)
+                            .setParameter("ids", chunk)
+                            .setLockMode(lockMode)
+                            .getResultList());
+        }
+        return existing;
+    }
+
+    private AssignmentTally loadTally(Set<Long> storeIds, Set<Long> warehouseIds) {
+        AssignmentTally tally = new AssignmentTally();
+        for (List<Long> chunk : chunks(storeIds)) {
+            recordAll(tally, repo.findTriplesByStoresOrWarehouses(chunk, List.of()));
+        }
+        for (List<Long> chunk : chunks(warehouseIds)) {
+            recordAll(tally, repo.findTriplesByStoresOrWarehouses(List.of(), chunk));
+        }
+        return tally;
+    }
+
+    private static void recordAll(AssignmentTally tally, List<Object[]> triples) {
+        for (Object[] triple : triples) {
+            tally.record((Long) triple[0], (Long) triple[1], (Long) triple[2]);
+        }
+    }
+
+    static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> all = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    public record AssignmentRequest(
+            Long storeId,
+            Long productId,
+            String warehouseBusinessUnitCode) {
+    }
+
+    public record BulkAssignmentResult(
+            int index,
+            Long storeId,
+            Long productId,
+            String warehouseBusinessUnitCode,
+            int status,
+            String error,
+            LocalDateTime createdAt) {
+
+        static BulkAssignmentResult created(
+                int index, AssignmentRequest request, String buCode, LocalDateTime createdAt) {
+            return new BulkAssignmentResult(
+                    index, request.storeId(), request.productId(), buCode, 201, null, createdAt);
+        }
+
+        static BulkAssignmentResult failed(int index, AssignmentRequest request, BusinessException e) {
+            return new BulkAssignmentResult(
+                    index,
+                    request == null ? null : request.storeId(),
+                    request == null ? null : request.productId(),
+                    request == null ? null : request.warehouseBusinessUnitCode(),
+                    BusinessExceptionMapper.statusOf(e),
+                    e.getMessage(),
+                    null);
+        }
+    }
+
+    public record BulkAssignmentResponse(
+            int succeeded,
+            int failed,
+            List<BulkAssignmentResult> results) {
+
+        static BulkAssignmentResponse of(List<BulkAssignmentResult> results) {
+            int succeeded = (int) results.stream().filter(r -> r.status() == 201).count();
+            return new BulkAssignmentResponse(succeeded, results.size() - succeeded, results);
+        }
+    }
+}
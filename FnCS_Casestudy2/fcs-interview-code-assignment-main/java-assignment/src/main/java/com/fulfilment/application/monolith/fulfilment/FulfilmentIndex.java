@@ -0,0 +1,219 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.stores.AfterCommitExecutor;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Application-wide copy of the committed assignments, used to reject limit violations
+// without a database round trip. It is loaded at startup and updated after commit, so
+// it never sees uncommitted work: an ALLOWED verdict must still be confirmed by the
+// database, while any rejection can be trusted.
+@ApplicationScoped
+public class FulfilmentIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(FulfilmentIndex.class.getName());
+
+    @ConfigProperty(name = "fulfilment.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    FulfilmentRepository repo;
+
+    @Inject
+    AfterCommitExecutor afterCommitExecutor;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private AssignmentTally tally = new AssignmentTally();
+    // Non-null while a rebuild is loading, so concurrent commits can be replayed on the new tally
+    private List<long[]> replayLog;
+    private volatile boolean ready;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Fulfilment index could not be loaded, falling back to database checks", e);
+        }
+    }
+
+    @Transactional
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replayLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        AssignmentTally fresh = new AssignmentTally();
+        try (Stream<Object[]> rows = repo.streamAllTriples()) {
+            rows.forEach(row -> fresh.record((Long) row[0], (Long) row[1], (Long) row[2]));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replayLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (long[] change : replayLog) {
+                apply(fresh, change);
+            }
+            replayLog = null;
+            tally = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.infof("Fulfilment index loaded with %d assignments", fresh.size());
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // Empty when the index is disabled or not loaded; callers then rely on the database alone
+    public Optional<AssignmentVerdict> evaluate(long storeId, long productId, long warehouseId) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(tally.evaluate(storeId, productId, warehouseId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void recordAfterCommit(Fulfilment assignment) {
+        recordAfterCommit(List.of(assignment));
+    }
+
+    public void recordAfterCommit(List<Fulfilment> assignments) {
+        if (!enabled || assignments.isEmpty()) {
+            return;
+        }
+        List<long[]> changes = new ArrayList<>(assignments.size());
+        for (Fulfilment assignment : assignments) {
+            changes.add(new long[]{1, assignment.storeId, assignment.productId, assignment.warehouseId});
+        }
+        afterCommitExecutor.runAfterCommit(() -> applyAll(changes));
+    }
+
+    // triples = removed (storeId, productId, warehouseId)
+    public void removeAfterCommit(List<long[]> triples) {
+        if (!enabled || triples.isEmpty()) {
+            return;
+        }
+        List<long[]> changes = new ArrayList<>(triples.size());
+        for (long[] triple : triples) {
+            changes.add(new long[]{-1, triple[0], triple[1], triple[2]});
+        }
+        afterCommitExecutor.runAfterCommit(() -> applyAll(changes));
+    }
+
+    // moves = (storeId, productId, fromWarehouseId, toWarehouseId)
+    public void moveAfterCommit(List<long[]> moves) {
+        if (!enabled || moves.isEmpty()) {
+            return;
+        }
+        List<long[]> changes = new ArrayList<>(moves.size() * 2);
+        for (long[] move : moves) {
+            changes.add(new long[]{-1, move[0], move[1], move[2]});
+            changes.add(new long[]{1, move[0], move[1], move[3]});
+        }
+        afterCommitExecutor.runAfterCommit(() -> applyAll(changes));
+    }
+
+    @Transactional
+    public ConsistencyReport checkConsistency() {
+        long database = 0;
+        long missing = 0;
+        try (Stream<Object[]> rows = repo.streamAllTriples()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                database++;
+                if (!contains((Long) row[0], (Long) row[1], (Long) row[2])) {
+                    missing++;
+                }
+            }
+        }
+        return ConsistencyReport.of(isReady(), database, size(), missing);
+    }
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return tally.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean contains(long storeId, long productId, long warehouseId) {
+        lock.readLock().lock();
+        try {
+            return tally.contains(storeId, productId, warehouseId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void applyAll(List<long[]> changes) {
+        lock.writeLock().lock();
+        try {
+            for (long[] change : changes) {
+                apply(tally, change);
+                if (replayLog != null) {
+                    replayLog.add(change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // change = {+1 | -1, storeId, productId, warehouseId}
+    private static void apply(AssignmentTally target, long[] change) {
+        if (change[0] > 0) {
+            target.record(change[1], change[2], change[3]);
+        } else {
+            target.remove(change[1], change[2], change[3]);
+        }
+    }
+
+    // Taken without blocking writers, so assignments committed while the check runs
+    // can show up as transient differences; re-run before acting on a mismatch.
+    public record ConsistencyReport(
+            boolean ready,
+            long databaseAssignments,
+            long indexedAssignments,
+            long missingFromIndex,
+            long unexpectedInIndex,
+            boolean consistent) {
+
+        static ConsistencyReport of(boolean ready, long database, long indexed, long missing) {
+            long unexpected = indexed - (database - missing);
+            return new ConsistencyReport(
+                    ready, database, indexed, missing, unexpected, missing == 0 && unexpected == 0);
+        }
+    }
+}
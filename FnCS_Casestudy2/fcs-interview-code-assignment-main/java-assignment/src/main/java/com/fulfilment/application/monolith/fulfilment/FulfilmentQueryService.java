@@ -0,0 +1,139 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.InvalidInputException;
+import com.fulfilment.application.monolith.api.exception.ProductNotFoundException;
+import com.fulfilment.application.monolith.api.exception.StoreNotFoundException;
+import com.fulfilment.application.monolith.api.exception.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentRepository.AssignmentFilter;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@ApplicationScoped
+public class FulfilmentQueryService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    @Inject
+    FulfilmentRepository repo;
+    @Inject
+    WarehouseRepository warehouseRepository;
+    @Inject
+    EntityManager em;
+
+    public AssignmentPage byStore(Long storeId, PageRequest request) {
+        if (storeId == null || storeId <= 0) {
+            throw new InvalidInputException("storeId is invalid.");
+        }
+        if (Store.findById(storeId) == null) {
+            throw new StoreNotFoundException(storeId);
+        }
+        return page(AssignmentFilter.STORE, storeId, request);
+    }
+
+    public AssignmentPage byProduct(Long productId, PageRequest request) {
+        if (productId == null || productId <= 0) {
+            throw new InvalidInputException("productId is invalid.");
+        }
+        if (em.find(Product.class, productId) == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        return page(AssignmentFilter.PRODUCT, productId, request);
+    }
+
+    public AssignmentPage byWarehouse(String warehouseBuCode, PageRequest request) {
+        if (warehouseBuCode == null || warehouseBuCode.isBlank()) {
+            throw new InvalidInputException("warehouseBuCode is invalid.");
+        }
+        DbWarehouse warehouse = warehouseRepository.findActiveDbByBusinessUnitCode(warehouseBuCode);
+        if (warehouse == null) {
+            throw new WarehouseNotFoundException(warehouseBuCode);
+        }
+        return page(AssignmentFilter.WAREHOUSE, warehouse.id, request);
+    }
+
+    private AssignmentPage page(AssignmentFilter filter, Long value, PageRequest request) {
+        // One extra row tells whether another page follows
+        List<AssignmentRow> rows =
+                repo.findPage(filter, value, request.after(), request.from(), request.to(), request.limit() + 1);
+        boolean more = rows.size() > request.limit();
+        if (more) {
+            rows = rows.subList(0, request.limit());
+        }
+
+        Map<Long, String> buCodes =
+                warehouseRepository.findBusinessUnitCodesByIds(
+                        rows.stream().map(AssignmentRow::warehouseId).collect(Collectors.toSet()));
+        List<AssignmentView> items =
+                rows.stream().map(row -> row.toView(buCodes.get(row.warehouseId()))).toList();
+
+        return new AssignmentPage(items, more ? rows.get(rows.size() - 1).id() : null);
+    }
+
+    public record PageRequest(Long after, int limit, LocalDateTime from, LocalDateTime to) {
+
+        public static PageRequest of(Long after, Integer limit, String from, String to) {
+            if (after != null && after < 0) {
+                throw new InvalidInputException("after is invalid.");
+            }
+            int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+            if (size < 1 || size > MAX_PAGE_SIZE) {
+                throw new InvalidInputException("limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            LocalDateTime fromTime = parseTime("from", from);
+            LocalDateTime toTime = parseTime("to", to);
+            if (fromTime != null && toTime != null && !fromTime.isBefore(toTime)) {
+                throw new InvalidInputException("from must be before to.");
+            }
+            return new PageRequest(after, size, fromTime, toTime);
+        }
+
+        private static LocalDateTime parseTime(String name, String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(value.trim());
+            } catch (DateTimeParseException e) {
+                throw new InvalidInputException(name + " must be an ISO-8601 local date-time.");
+            }
+        }
+    }
+
+    public record AssignmentRow(
+            Long id,
+            Long storeId,
+            Long productId,
+            Long warehouseId,
+            LocalDateTime createdAt) {
+
+        AssignmentView toView(String warehouseBusinessUnitCode) {
+            return new AssignmentView(id, storeId, productId, warehouseBusinessUnitCode, createdAt);
+        }
+    }
+
+    public record AssignmentView(
+            Long id,
+            Long storeId,
+            Long productId,
+            String warehouseBusinessUnitCode,
+            LocalDateTime createdAt) {
+    }
+
+    // nextAfter is the cursor for the following page, null on the last one
+    public record AssignmentPage(
+            List<AssignmentView> items,
+            Long nextAfter) {
+    }
+}
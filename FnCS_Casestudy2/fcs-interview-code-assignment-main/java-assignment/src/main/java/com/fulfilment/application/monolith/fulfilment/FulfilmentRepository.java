@@ -2,61 +2,221 @@ package com.fulfilment.application.monolith.fulfilment;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class FulfilmentRepository implements PanacheRepository<Fulfilment> {
 
-    public boolean existsAssignment(Long storeId, Long productId, Long warehouseId) {
-        return count("storeId = ?1 and productId = ?2 and warehouseId = ?3", storeId, productId, warehouseId) > 0;
+    private static final int TRIPLE_FETCH_SIZE = 10_000;
+
+    // Duplicate check and all three limits. The per-store and per-warehouse limits read
+    // the usage counter tables, so the cost no longer grows with the warehouse's stores.
+    private static final String EVALUATE_ASSIGNMENT_QUERY =
+            "select "
+                    + "(select count(*) from fulfilment where storeId = :s and productId = :p and warehouseId = :w), "
+                    + "(select count(*) from fulfilment where storeId = :s and productId = :p), "
+                    + "(select count(*) from store_warehouse_usage where storeId = :s and warehouseId = :w and refcount > 0), "
+                    + "(select count(*) from store_warehouse_usage where storeId = :s and refcount > 0), "
+                    + "(select count(*) from warehouse_product_usage where warehouseId = :w and productId = :p and refcount > 0), "
+                    + "(select count(*) from warehouse_product_usage where warehouseId = :w and refcount > 0)";
+
+    private static final String ALL_EXIST_QUERY =
+            "select exists (select 1 from store where id = :s) "
+                    + "and exists (select 1 from product where id = :p) "
+                    + "and exists (select 1 from warehouse where id = :w and archivedAt is null)";
+
+    // One unlocked statement: the store, the product and the active warehouse row all exist
+    public boolean allExist(Long storeId, Long productId, Long warehouseId) {
+        return (Boolean) getEntityManager()
+                .createNativeQuery(ALL_EXIST_QUERY)
+                .setParameter("s", storeId)
+                .setParameter("p", productId)
+                .setParameter("w", warehouseId)
+                .getSingleResult();
+    }
+
+    public AssignmentVerdict evaluateAssignment(Long storeId, Long productId, Long warehouseId) {
+        Object[] row =
+                (Object[])
+                        getEntityManager()
+                                .createNativeQuery(EVALUATE_ASSIGNMENT_QUERY)
+                                .setParameter("s", storeId)
+                                .setParameter("p", productId)
+                                .setParameter("w", warehouseId)
+                                .getSingleResult();
+
+        return AssignmentVerdict.of(
+                asLong(row[0]) > 0,
+                asLong(row[1]),
+                asLong(row[2]) > 0,
+                asLong(row[3]),
+                asLong(row[4]) > 0,
+                asLong(row[5]));
     }
 
-    public long countDistinctWarehousesForStoreProduct(Long storeId, Long productId) {
-        return (Long)
+    // Every assignment that touches one of the given stores or warehouses,
+    // as (storeId, productId, warehouseId) triples.
+    public List<Object[]> findTriplesByStoresOrWarehouses(
+            Collection<Long> storeIds, Collection<Long> warehouseIds) {
+        return getEntityManager()
+                .createQuery(
+                        "select f.storeId, f.productId, f.warehouseId from Fulfilment f "
+                                + "where f.storeId in :s or f.warehouseId in :w",
+                        Object[].class)
+                .setParameter("s", storeIds.isEmpty() ? List.of(-1L) : storeIds)
+                .setParameter("w", warehouseIds.isEmpty() ? List.of(-1L) : warehouseIds)
+                .getResultList();
+    }
+
+    // All assignments as (storeId, productId, warehouseId) triples, fetched through a
+    // server-side cursor. Must be consumed inside a transaction and closed.
+    public Stream<Object[]> streamAllTriples() {
+        return getEntityManager()
+                .createQuery("select f.storeId, f.productId, f.warehouseId from Fulfilment f", Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TRIPLE_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Keyset page of the assignments whose column equals value, in id order. Only columns
+    // of the matching page index are selected, so the scan never touches the table.
+    List<FulfilmentQueryService.AssignmentRow> findPage(
+            AssignmentFilter filter, Long value, Long after, LocalDateTime from, LocalDateTime to, int limit) {
+        StringBuilder query =
+                new StringBuilder("select new ")
+                        .append(FulfilmentQueryService.AssignmentRow.class.getName())
+                        .append("(f.id, f.storeId, f.productId, f.warehouseId, f.createdAt) ")
+                        .append("from Fulfilment f where f.")
+                        .append(filter.column)
+                        .append(" = :value");
+        if (after != null) {
+            query.append(" and f.id > :after");
+        }
+        if (from != null) {
+            query.append(" and f.createdAt >= :from");
+        }
+        if (to != null) {
+            query.append(" and f.createdAt < :to");
+        }
+        query.append(" order by f.id");
+
+        var page =
                 getEntityManager()
-                        .createQuery(
-                                "select count(distinct f.warehouseId) from Fulfilment f where f.storeId = :s and f.productId = :p")
-                        .setParameter("s", storeId)
-                        .setParameter("p", productId)
-                        .getSingleResult();
+                        .createQuery(query.toString(), FulfilmentQueryService.AssignmentRow.class)
+                        .setParameter("value", value)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .setMaxResults(limit);
+        if (after != null) {
+            page.setParameter("after", after);
+        }
+        if (from != null) {
+            page.setParameter("from", from);
+        }
+        if (to != null) {
+            page.setParameter("to", to);
+        }
+        return page.getResultList();
     }
 
-    public long countDistinctWarehousesForStore(Long storeId) {
-        return (Long)
+    // Deletes the matching assignments and takes them off the usage counters in the same
+    // statement: counter rows that drop to zero are deleted, the others decremented, so
+    // every counter row is touched once. Returns the removed (storeId, productId, warehouseId).
+    private static final String DELETE_RETURNING_QUERY =
+            "with removed as (delete from fulfilment where %s returning storeId, productId, warehouseId), "
+                    + "sw as (select storeId, warehouseId, count(*) as c from removed group by storeId, warehouseId), "
+                    + "wp as (select warehouseId, productId, count(*) as c from removed group by warehouseId, productId), "
+                    + "sw_drop as (delete from store_warehouse_usage u using sw "
+                    + "where u.storeId = sw.storeId and u.warehouseId = sw.warehouseId and u.refcount <= sw.c), "
+                    + "sw_dec as (update store_warehouse_usage u set refcount = u.refcount - sw.c from sw "
+                    + "where u.storeId = sw.storeId and u.warehouseId = sw.warehouseId and u.refcount > sw.c), "
+                    + "wp_drop as (delete from warehouse_product_usage u using wp "
+                    + "where u.warehouseId = wp.warehouseId and u.productId = wp.productId and u.refcount <= wp.c), "
+                    + "wp_dec as (update warehouse_product_usage u set refcount = u.refcount - wp.c from wp "
+                    + "where u.warehouseId = wp.warehouseId and u.productId = wp.productId and u.refcount > wp.c) "
+                    + "select storeId, productId, warehouseId from removed";
+
+    List<long[]> deleteOne(Long storeId, Long productId, Long warehouseId) {
+        return deleteReturning(
                 getEntityManager()
-                        .createQuery(
-                                "select count(distinct f.warehouseId) from Fulfilment f where f.storeId = :s")
+                        .createNativeQuery(String.format(
+                                DELETE_RETURNING_QUERY,
+                                "storeId = :s and productId = :p and warehouseId = :w"))
                         .setParameter("s", storeId)
-                        .getSingleResult();
+                        .setParameter("p", productId)
+                        .setParameter("w", warehouseId));
     }
 
-    public long countDistinctProductsForWarehouse(Long warehouseId) {
-        return (Long)
+    List<long[]> deleteMatching(AssignmentFilter filter, Long value) {
+        return deleteReturning(
                 getEntityManager()
-                        .createQuery(
-                                "select count(distinct f.productId) from Fulfilment f where f.warehouseId = :w")
-                        .setParameter("w", warehouseId)
-                        .getSingleResult();
+                        .createNativeQuery(String.format(DELETE_RETURNING_QUERY, filter.column + " = :value"))
+                        .setParameter("value", value));
     }
 
-    public boolean isWarehouseAlreadyUsedByStore(Long storeId, Long warehouseId) {
-        return (Long)
+    // Re-points the assignments and usage counters of the archived row at the active row
+    // that replaced it, one set-based update per table in a single statement. Older
+    // versions of the business unit keep whatever still refers to them. The active row is
+    // new, so no counter key collides.
+    private static final String MOVE_TO_ACTIVE_QUERY =
+            "with sw as (update store_warehouse_usage set warehouseId = :to where warehouseId = :from), "
+                    + "wp as (update warehouse_product_usage set warehouseId = :to where warehouseId = :from) "
+                    + "update fulfilment set warehouseId = :to where warehouseId = :from "
+                    + "returning storeId, productId";
+
+    // Returns the moved (storeId, productId, fromWarehouseId, toWarehouseId)
+    @SuppressWarnings("unchecked")
+    List<long[]> moveToActiveWarehouse(long fromWarehouseId, long toWarehouseId) {
+        // The archived and created warehouse rows must be visible to the statement
+        getEntityManager().flush();
+        List<Object[]> rows =
                 getEntityManager()
-                        .createQuery(
-                                "select count(f) from Fulfilment f where f.storeId = :s and f.warehouseId = :w")
-                        .setParameter("s", storeId)
-                        .setParameter("w", warehouseId)
-                        .getSingleResult()
-                > 0;
+                        .createNativeQuery(MOVE_TO_ACTIVE_QUERY)
+                        .setParameter("from", fromWarehouseId)
+                        .setParameter("to", toWarehouseId)
+                        .getResultList();
+        return rows.stream()
+                .map(row -> new long[]{asLong(row[0]), asLong(row[1]), fromWarehouseId, toWarehouseId})
+                .toList();
     }
 
-    public boolean isProductAlreadyUsedByWarehouse(Long warehouseId, Long productId) {
-        return (Long)
-                getEntityManager()
-                        .createQuery(
-                                "select count(f) from Fulfilment f where f.warehouseId = :w and f.productId = :p")
-                        .setParameter("w", warehouseId)
-                        .setParameter("p", productId)
-                        .getSingleResult()
-                > 0;
+    // Distinct store and warehouse ids of the matching assignments, for lock ordering
+    List<Object[]> findStoreWarehousePairs(AssignmentFilter filter, Long value) {
+        return getEntityManager()
+                .createQuery(
+                        "select distinct f.storeId, f.warehouseId from Fulfilment f where f."
+                                + filter.column + " = :value",
+                        Object[].class)
+                .setParameter("value", value)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<long[]> deleteReturning(Query query) {
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new long[]{asLong(row[0]), asLong(row[1]), asLong(row[2])})
+                .toList();
+    }
+
+    enum AssignmentFilter {
+        STORE("storeId"),
+        PRODUCT("productId"),
+        WAREHOUSE("warehouseId");
+
+        private final String column;
+
+        AssignmentFilter(String column) {
+            this.column = column;
+        }
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
     }
-}
\ No newline at end of file
+}
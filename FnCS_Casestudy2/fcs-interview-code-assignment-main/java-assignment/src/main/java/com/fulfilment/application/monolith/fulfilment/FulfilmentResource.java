@@ -1,11 +1,18 @@
 package com.fulfilment.application.monolith.fulfilment;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.api.exception.InvalidInputException;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 @Path("fulfilment")
 @ApplicationScoped
 @Produces("application/json")
@@ -15,6 +22,21 @@ public class FulfilmentResource {
     @Inject
     FulfilmentService service;
 
+    @Inject
+    FulfilmentBulkService bulkService;
+
+    @Inject
+    FulfilmentQueryService queryService;
+
+    @Inject
+    FulfilmentIndex index;
+
+    @Inject
+    FulfilmentUsageRepository usage;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @POST
     @Path("stores/{storeId}/products/{productId}/warehouses/{warehouseBuCode}")
     @Transactional
@@ -26,4 +48,125 @@ public class FulfilmentResource {
         FulfilmentService.FulfilmentResponse resp = service.assign(storeId, productId, warehouseBuCode);
         return Response.status(201).entity(resp).build();
     }
+
+    @DELETE
+    @Path("stores/{storeId}/products/{productId}/warehouses/{warehouseBuCode}")
+    @Transactional
+    public Response unassign(
+            @PathParam("storeId") Long storeId,
+            @PathParam("productId") Long productId,
+            @PathParam("warehouseBuCode") String warehouseBuCode) {
+
+        service.unassign(storeId, productId, warehouseBuCode);
+        return Response.status(204).build();
+    }
+
+    @DELETE
+    @Path("stores/{storeId}")
+    @Transactional
+    public FulfilmentService.RemovalResponse unassignAllForStore(@PathParam("storeId") Long storeId) {
+        return service.unassignAllForStore(storeId);
+    }
+
+    @DELETE
+    @Path("products/{productId}")
+    @Transactional
+    public FulfilmentService.RemovalResponse unassignAllForProduct(@PathParam("productId") Long productId) {
+        return service.unassignAllForProduct(productId);
+    }
+
+    @DELETE
+    @Path("warehouses/{warehouseBuCode}")
+    @Transactional
+    public FulfilmentService.RemovalResponse unassignAllForWarehouse(
+            @PathParam("warehouseBuCode") String warehouseBuCode) {
+        return service.unassignAllForWarehouse(warehouseBuCode);
+    }
+
+    @POST
+    @Path("bulk")
+    @Transactional
+    public FulfilmentBulkService.BulkAssignmentResponse assignAll(
+            List<FulfilmentBulkService.AssignmentRequest> requests) {
+        return bulkService.assignAll(requests);
+    }
+
+    // One assignment per line, the same items as the JSON array. Not a streaming upload: the
+    // body is read whole before the method runs, and assignAll needs every item up front to
+    // lock all stores and warehouses in one global order.
+    @POST
+    @Path("bulk")
+    @Consumes("application/x-ndjson")
+    @Transactional
+    public FulfilmentBulkService.BulkAssignmentResponse assignAllFromNdjson(InputStream body) {
+        List<FulfilmentBulkService.AssignmentRequest> requests;
+        try (MappingIterator<FulfilmentBulkService.AssignmentRequest> lines =
+                     objectMapper.readerFor(FulfilmentBulkService.AssignmentRequest.class).readValues(body)) {
+            requests = lines.readAll();
+        } catch (IOException e) {
+            throw new InvalidInputException("Malformed NDJSON body: " + e.getMessage());
+        }
+        return bulkService.assignAll(requests);
+    }
+
+    @GET
+    @Path("stores/{storeId}")
+    public FulfilmentQueryService.AssignmentPage listByStore(
+            @PathParam("storeId") Long storeId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to) {
+        return queryService.byStore(storeId, FulfilmentQueryService.PageRequest.of(after, limit, from, to));
+    }
+
+    @GET
+    @Path("products/{productId}")
+    public FulfilmentQueryService.AssignmentPage listByProduct(
+            @PathParam("productId") Long productId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to) {
+        return queryService.byProduct(productId, FulfilmentQueryService.PageRequest.of(after, limit, from, to));
+    }
+
+    @GET
+    @Path("warehouses/{warehouseBuCode}")
+    public FulfilmentQueryService.AssignmentPage listByWarehouse(
+            @PathParam("warehouseBuCode") String warehouseBuCode,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to) {
+        return queryService.byWarehouse(
+                warehouseBuCode, FulfilmentQueryService.PageRequest.of(after, limit, from, to));
+    }
+
+    @GET
+    @Path("index/consistency")
+    public FulfilmentIndex.ConsistencyReport checkIndexConsistency() {
+        return index.checkConsistency();
+    }
+
+    @POST
+    @Path("index/rebuild")
+    public FulfilmentIndex.ConsistencyReport rebuildIndex() {
+        index.rebuild();
+        return index.checkConsistency();
+    }
+
+    @GET
+    @Path("usage/drift")
+    public FulfilmentUsageRepository.UsageDrift checkUsageDrift() {
+        return usage.checkDrift();
+    }
+
+    @POST
+    @Path("usage/rebuild")
+    @Transactional
+    public FulfilmentUsageRepository.UsageDrift rebuildUsage() {
+        usage.rebuild();
+        return usage.checkDrift();
+    }
 }
@@ -1,6 +1,7 @@
 package com.fulfilment.application.monolith.fulfilment;
 
 import com.fulfilment.application.monolith.api.exception.*;
+import com.fulfilment.application.monolith.fulfilment.FulfilmentRepository.AssignmentFilter;
 import com.fulfilment.application.monolith.products.Product;
 import com.fulfilment.application.monolith.stores.Store;
 import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
@@ -8,8 +9,13 @@ import com.fulfilment.application.monolith.warehouses.adapters.database.Warehous
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 @ApplicationScoped
 public class FulfilmentService {
@@ -20,13 +26,36 @@ public class FulfilmentService {
     WarehouseRepository warehouseRepository;
     @Inject
     EntityManager em;
+    @Inject
+    FulfilmentUsageRepository usage;
+    @Inject
+    FulfilmentIndex index;
+
+    @ConfigProperty(name = "fulfilment.assign.locking", defaultValue = "rows")
+    AssignmentLocking locking;
 
     public FulfilmentResponse assign(
             Long storeId, Long productId, String warehouseBuCode) {
 
         validateInputs(storeId, productId, warehouseBuCode);
 
-        Store store = Store.findById(storeId);
+        // Violations the index already knows are rejected before any lock is taken, for a
+        // warehouse whose id is cached. The id may be stale and the store or product unknown,
+        // so a rejection is confirmed with one unlocked read; otherwise the locked path below
+        // reports what is wrong.
+        if (index.isReady()) {
+            Long cachedId = warehouseRepository.cachedActiveId(warehouseBuCode);
+            if (cachedId != null) {
+                AssignmentVerdict verdict =
+                        index.evaluate(storeId, productId, cachedId).orElse(AssignmentVerdict.ALLOWED);
+                if (verdict != AssignmentVerdict.ALLOWED && repo.allExist(storeId, productId, cachedId)) {
+                    verdict.enforce();
+                }
+            }
+        }
+
+        // Always store first, then warehouse, so that concurrent assignments cannot deadlock
+        Store store = Store.findById(storeId, locking.lockMode());
         if (store == null) {
             throw new StoreNotFoundException(storeId);
         }
@@ -37,50 +66,26 @@ public class FulfilmentService {
         }
 
         DbWarehouse warehouse =
-                warehouseRepository.findActiveDbByBusinessUnitCode(warehouseBuCode);
+                warehouseRepository.findActiveDbByBusinessUnitCode(warehouseBuCode, locking.lockMode());
         if (warehouse == null) {
             throw new WarehouseNotFoundException(warehouseBuCode);
         }
 
         Long warehouseId = warehouse.id;
 
-        // Duplicate assignment
-        if (repo.existsAssignment(storeId, productId, warehouseId)) {
-            throw new AssignmentAlreadyExistsException();
-        }
-
-        // Constraint 1: max 2 warehouses per store-product
-        long whCountForStoreProduct =
-                repo.countDistinctWarehousesForStoreProduct(storeId, productId);
-        if (whCountForStoreProduct >= 2) {
-            throw new MaxWarehousesPerStoreProductExceededException();
-        }
-
-        // Constraint 2: max 3 warehouses per store
-        boolean warehouseAlreadyForStore =
-                repo.isWarehouseAlreadyUsedByStore(storeId, warehouseId);
-        if (!warehouseAlreadyForStore) {
-            long distinctWhForStore =
-                    repo.countDistinctWarehousesForStore(storeId);
-            if (distinctWhForStore >= 3) {
-                throw new MaxWarehousesPerStoreExceededException();
-            }
-        }
-
-        // Constraint 3: max 5 product types per warehouse
-        boolean productAlreadyForWarehouse =
-                repo.isProductAlreadyUsedByWarehouse(warehouseId, productId);
-        if (!productAlreadyForWarehouse) {
-            long distinctProductsForWarehouse =
-                    repo.countDistinctProductsForWarehouse(warehouseId);
-            if (distinctProductsForWarehouse >= 5) {
-                throw new MaxProductsPerWarehouseExceededException();
-            }
-        }
+        // Duplicate assignment, max 2 warehouses per store-product,
+        // max 3 warehouses per store, max 5 product types per warehouse.
+        // The index is asked again, as assignments may have committed while this one waited on
+        // the locks; it only holds committed assignments, so anything it allows is confirmed
+        // against the database.
+        index.evaluate(storeId, productId, warehouseId).ifPresent(AssignmentVerdict::enforce);
+        repo.evaluateAssignment(storeId, productId, warehouseId).enforce();
 
         Fulfilment assignment =
                 new Fulfilment(storeId, productId, warehouseId, LocalDateTime.now());
         repo.persist(assignment);
+        usage.increment(assignment);
+        index.recordAfterCommit(assignment);
 
         return new FulfilmentResponse(
                 storeId,
@@ -89,7 +94,88 @@ public class FulfilmentService {
                 assignment.createdAt);
     }
 
-    private void validateInputs(
+    public void unassign(Long storeId, Long productId, String warehouseBuCode) {
+        validateInputs(storeId, productId, warehouseBuCode);
+
+        // Same lock order as assign
+        Store store = Store.findById(storeId, locking.lockMode());
+        if (store == null) {
+            throw new StoreNotFoundException(storeId);
+        }
+        DbWarehouse warehouse =
+                warehouseRepository.findActiveDbByBusinessUnitCode(warehouseBuCode, locking.lockMode());
+        if (warehouse == null) {
+            throw new WarehouseNotFoundException(warehouseBuCode);
+        }
+
+        List<long[]> removed = repo.deleteOne(storeId, productId, warehouse.id);
+        if (removed.isEmpty()) {
+            throw new AssignmentNotFoundException(storeId, productId, warehouseBuCode.trim());
+        }
+        index.removeAfterCommit(removed);
+    }
+
+    public RemovalResponse unassignAllForStore(Long storeId) {
+        if (storeId == null || storeId <= 0) {
+            throw new InvalidInputException("storeId is invalid.");
+        }
+        if (Store.findById(storeId) == null) {
+            throw new StoreNotFoundException(storeId);
+        }
+        return unassignAll(AssignmentFilter.STORE, storeId);
+    }
+
+    public RemovalResponse unassignAllForProduct(Long productId) {
+        if (productId == null || productId <= 0) {
+            throw new InvalidInputException("productId is invalid.");
+        }
+        if (em.find(Product.class, productId) == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        return unassignAll(AssignmentFilter.PRODUCT, productId);
+    }
+
+    public RemovalResponse unassignAllForWarehouse(String warehouseBuCode) {
+        if (warehouseBuCode == null || warehouseBuCode.isBlank()) {
+            throw new InvalidInputException("warehouseBuCode is invalid.");
+        }
+        DbWarehouse warehouse = warehouseRepository.findActiveDbByBusinessUnitCode(warehouseBuCode);
+        if (warehouse == null) {
+            throw new WarehouseNotFoundException(warehouseBuCode);
+        }
+        return unassignAll(AssignmentFilter.WAREHOUSE, warehouse.id);
+    }
+
+    // One set-based delete; the counters are decremented by the same statement
+    private RemovalResponse unassignAll(AssignmentFilter filter, Long value) {
+        if (locking != AssignmentLocking.NONE) {
+            lockInOrder(repo.findStoreWarehousePairs(filter, value));
+        }
+        List<long[]> removed = repo.deleteMatching(filter, value);
+        index.removeAfterCommit(removed);
+        return new RemovalResponse(removed.size());
+    }
+
+    // All stores, then all warehouses, each in id order, like assign and the bulk endpoint
+    private void lockInOrder(List<Object[]> storeWarehousePairs) {
+        Set<Long> storeIds = new TreeSet<>();
+        Set<Long> warehouseIds = new TreeSet<>();
+        for (Object[] pair : storeWarehousePairs) {
+            storeIds.add((Long) pair[0]);
+            warehouseIds.add((Long) pair[1]);
+        }
+        for (List<Long> chunk : FulfilmentBulkService.chunks(storeIds)) {
+            em.createQuery("select s.id from Store s where s.id in :ids order by s.id", Long.class)
+                    .setParameter("ids", chunk)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+        }
+        for (List<Long> chunk : FulfilmentBulkService.chunks(warehouseIds)) {
+            warehouseRepository.lockByIds(chunk);
+        }
+    }
+
+    static void validateInputs(
             Long storeId, Long productId, String warehouseBuCode) {
 
         if (storeId == null || storeId <= 0) {
@@ -103,6 +189,9 @@ public class FulfilmentService {
         }
     }
 
+    public record RemovalResponse(int removed) {
+    }
+
     public record FulfilmentResponse(
             Long storeId,
             Long productId,
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+// Periodically compares the usage counters with the fulfilment table, e.g. after rows
+// were changed by hand in SQL, and optionally rebuilds them when they drifted.
+@ApplicationScoped
+public class FulfilmentUsageDriftCheck {
+
+    private static final Logger LOGGER = Logger.getLogger(FulfilmentUsageDriftCheck.class.getName());
+
+    @Inject
+    FulfilmentUsageRepository usage;
+
+    @ConfigProperty(name = "fulfilment.usage.drift-check.repair", defaultValue = "false")
+    boolean repair;
+
+    @Scheduled(
+            identity = "fulfilment-usage-drift-check",
+            every = "{fulfilment.usage.drift-check.every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void check() {
+        FulfilmentUsageRepository.UsageDrift drift = usage.checkDrift();
+        if (drift.consistent()) {
+            return;
+        }
+        LOGGER.warnf(
+                "Fulfilment usage counters drifted: %d store/warehouse rows, %d warehouse/product rows",
+                drift.storeWarehouseRows(), drift.warehouseProductRows());
+        if (repair) {
+            usage.rebuild();
+            LOGGER.info("Fulfilment usage counters rebuilt");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps store_warehouse_usage and warehouse_product_usage in step with the fulfilment
+// table. Callers run these in the same transaction as the fulfilment change, after
+// taking the store and warehouse locks, so the counters never commit out of step.
+@ApplicationScoped
+public class FulfilmentUsageRepository {
+
+    private static final String UPSERT_STORE_WAREHOUSE =
+            "insert into store_warehouse_usage(storeId, warehouseId, refcount) values (?, ?, ?) "
+                    + "on conflict (storeId, warehouseId) "
+                    + "do update set refcount = store_warehouse_usage.refcount + excluded.refcount";
+
+    private static final String UPSERT_WAREHOUSE_PRODUCT =
+            "insert into warehouse_product_usage(warehouseId, productId, refcount) values (?, ?, ?) "
+                    + "on conflict (warehouseId, productId) "
+                    + "do update set refcount = warehouse_product_usage.refcount + excluded.refcount";
+
+    // Both upserts of a single assignment in one round trip
+    private static final String UPSERT_BOTH =
+            "with sw as ("
+                    + "insert into store_warehouse_usage(storeId, warehouseId, refcount) values (:s, :w, 1) "
+                    + "on conflict (storeId, warehouseId) "
+                    + "do update set refcount = store_warehouse_usage.refcount + 1) "
+                    + "insert into warehouse_product_usage(warehouseId, productId, refcount) values (:w, :p, 1) "
+                    + "on conflict (warehouseId, productId) "
+                    + "do update set refcount = warehouse_product_usage.refcount + 1";
+
+    @Inject
+    EntityManager em;
+
+    public void increment(Fulfilment assignment) {
+        em.createNativeQuery(UPSERT_BOTH)
+                .setParameter("s", assignment.storeId)
+                .setParameter("w", assignment.warehouseId)
+                .setParameter("p", assignment.productId)
+                .executeUpdate();
+    }
+
+    // Deltas are summed per counter row first, so a batch touches each row once
+    public void increment(Collection<Fulfilment> assignments) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+        Map<Pair, Integer> storeWarehouse = new LinkedHashMap<>();
+        Map<Pair, Integer> warehouseProduct = new LinkedHashMap<>();
+        for (Fulfilment a : assignments) {
+            storeWarehouse.merge(new Pair(a.storeId, a.warehouseId), 1, Integer::sum);
+            warehouseProduct.merge(new Pair(a.warehouseId, a.productId), 1, Integer::sum);
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            upsertAll(connection.prepareStatement(UPSERT_STORE_WAREHOUSE), storeWarehouse);
+            upsertAll(connection.prepareStatement(UPSERT_WAREHOUSE_PRODUCT), warehouseProduct);
+        });
+    }
+
+    // Recomputes both tables from fulfilment. The exclusive table locks wait for in-flight
+    // assignments that already touched a counter and hold back the ones that have not,
+    // so no increment is lost or counted twice.
+    public void rebuild() {
+        em.createNativeQuery(
+                        "lock table store_warehouse_usage, warehouse_product_usage in exclusive mode")
+                .executeUpdate();
+        em.createNativeQuery("delete from store_warehouse_usage").executeUpdate();
+        em.createNativeQuery("delete from warehouse_product_usage").executeUpdate();
+        em.createNativeQuery(
+                        "insert into store_warehouse_usage(storeId, warehouseId, refcount) "
+                                + "select storeId, warehouseId, count(*) from fulfilment "
+                                + "group by storeId, warehouseId")
+                .executeUpdate();
+        em.createNativeQuery(
+                        "insert into warehouse_product_usage(warehouseId, productId, refcount) "
+                                + "select warehouseId, productId, count(*) from fulfilment "
+                                + "group by warehouseId, productId")
+                .executeUpdate();
+    }
+
+    // Counter rows that disagree with fulfilment, per table
+    public UsageDrift checkDrift() {
+        long storeWarehouse =
+                countDrift("store_warehouse_usage", "storeId", "warehouseId");
+        long warehouseProduct =
+                countDrift("warehouse_product_usage", "warehouseId", "productId");
+        return new UsageDrift(storeWarehouse, warehouseProduct, storeWarehouse == 0 && warehouseProduct == 0);
+    }
+
+    private long countDrift(String table, String first, String second) {
+        Object count =
+                em.createNativeQuery(
+                                "select count(*) from (select " + first + ", " + second + ", count(*) as c "
+                                        + "from fulfilment group by " + first + ", " + second + ") actual "
+                                        + "full outer join " + table + " u "
+                                        + "on u." + first + " = actual." + first
+                                        + " and u." + second + " = actual." + second + " "
+                                        + "where coalesce(actual.c, 0) <> coalesce(u.refcount, 0)")
+                        .getSingleResult();
+        return ((Number) count).longValue();
+    }
+
+    private static void upsertAll(PreparedStatement statement, Map<Pair, Integer> deltas)
+            throws SQLException {
+        try (statement) {
+            for (Map.Entry<Pair, Integer> delta : deltas.entrySet()) {
+                statement.setLong(1, delta.getKey().first());
+                statement.setLong(2, delta.getKey().second());
+                statement.setInt(3, delta.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private record Pair(long first, long second) {
+    }
+
+    public record UsageDrift(
+            long storeWarehouseRows,
+            long warehouseProductRows,
+            boolean consistent) {
+    }
+}
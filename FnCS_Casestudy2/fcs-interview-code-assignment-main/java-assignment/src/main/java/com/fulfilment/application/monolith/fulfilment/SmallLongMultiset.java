@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import java.util.Arrays;
+
+// Counted set of longs backed by plain arrays. The fulfilment limits keep these at
+// 5 distinct elements or fewer, where a linear scan beats hashing and stays compact.
+// The count tracks how many assignments reference an element, so it can be dropped
+// exactly when the last one goes away.
+final class SmallLongMultiset {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private long[] elements = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // Number of distinct elements
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    // Returns true when the element was not present before
+    boolean add(long value) {
+        int index = indexOf(value);
+        if (index >= 0) {
+            counts[index]++;
+            return false;
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+            counts = Arrays.copyOf(counts, size << 1);
+        }
+        elements[size] = value;
+        counts[size] = 1;
+        size++;
+        return true;
+    }
+
+    // Returns true when the last reference to the element was removed
+    boolean remove(long value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        if (--counts[index] > 0) {
+            return false;
+        }
+        size--;
+        elements[index] = elements[size];
+        counts[index] = counts[size];
+        return true;
+    }
+
+    private int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
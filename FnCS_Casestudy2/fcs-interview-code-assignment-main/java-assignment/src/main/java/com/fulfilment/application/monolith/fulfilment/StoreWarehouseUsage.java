@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Number of assignments linking a store to a warehouse; a store uses as many
+// warehouses as it has rows here. Maintained by FulfilmentUsageRepository.
+@Entity
+@Table(name = "store_warehouse_usage")
+@IdClass(StoreWarehouseUsage.Key.class)
+public class StoreWarehouseUsage {
+
+    @Id
+    public Long storeId;
+
+    @Id
+    public Long warehouseId;
+
+    @Column(nullable = false)
+    public int refcount;
+
+    public static class Key implements Serializable {
+        public Long storeId;
+        public Long warehouseId;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k
+                    && Objects.equals(storeId, k.storeId)
+                    && Objects.equals(warehouseId, k.warehouseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storeId, warehouseId);
+        }
+    }
+}
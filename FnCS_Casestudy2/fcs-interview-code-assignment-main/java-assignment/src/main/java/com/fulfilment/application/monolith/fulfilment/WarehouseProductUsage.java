@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Number of stores taking a product from a warehouse; a warehouse carries as many
+// products as it has rows here. Maintained by FulfilmentUsageRepository.
+@Entity
+@Table(name = "warehouse_product_usage")
+@IdClass(WarehouseProductUsage.Key.class)
+public class WarehouseProductUsage {
+
+    @Id
+    public Long warehouseId;
+
+    @Id
+    public Long productId;
+
+    @Column(nullable = false)
+    public int refcount;
+
+    public static class Key implements Serializable {
+        public Long warehouseId;
+        public Long productId;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k
+                    && Objects.equals(warehouseId, k.warehouseId)
+                    && Objects.equals(productId, k.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(warehouseId, productId);
+        }
+    }
+}
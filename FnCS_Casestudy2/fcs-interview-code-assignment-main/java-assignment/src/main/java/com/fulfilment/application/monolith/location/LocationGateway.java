@@ -2,25 +2,51 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Resolves locations from an immutable snapshot keyed by identifier. The snapshot is
+// loaded from locations.csv on the classpath, or from the file set in locations.file,
+// which is polled for changes; a reload swaps the whole snapshot, so readers never
+// block and never see a half-loaded set.
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-    private static final List<Location> locations = new ArrayList<>();
+    private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
 
-    static {
-        locations.add(new Location("ZWOLLE-001", 1, 40));
-        locations.add(new Location("ZWOLLE-002", 2, 50));
-        locations.add(new Location("AMSTERDAM-001", 5, 100));
-        locations.add(new Location("AMSTERDAM-002", 3, 75));
-        locations.add(new Location("TILBURG-001", 1, 40));
-        locations.add(new Location("HELMOND-001", 1, 45));
-        locations.add(new Location("EINDHOVEN-001", 2, 70));
-        locations.add(new Location("VETSBY-001", 1, 90));
+    static final String CLASSPATH_LOCATIONS = "locations.csv";
+
+    @ConfigProperty(name = "locations.file")
+    Optional<String> file;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public LocationGateway() {
+        snapshot.set(new Snapshot(loadClasspath(), null));
+    }
+
+    @PostConstruct
+    void init() {
+        if (file != null && file.isPresent()) {
+            reload();
+        }
     }
 
     @Override
@@ -28,13 +54,98 @@ public class LocationGateway implements LocationResolver {
         if (identifier == null || identifier.isBlank()) {
             return null;
         }
+        // trim() returns the same instance when there is nothing to strip
+        return snapshot.get().locations.get(identifier.trim());
+    }
 
-        String normalized = identifier.trim();
-        for (Location location : locations) {
-            if (location != null && normalized.equals(location.identification)) {
-                return location;
+    public int size() {
+        return snapshot.get().locations.size();
+    }
+
+    // Re-reads the configured file; returns false and keeps the current snapshot if it is unreadable
+    public boolean reload() {
+        if (file == null || file.isEmpty()) {
+            return false;
+        }
+        Path path = Path.of(file.get());
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            Map<String, Location> locations;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                locations = parse(reader, path.toString());
             }
+            snapshot.set(new Snapshot(locations, modified));
+            LOGGER.infof("Loaded %d locations from %s", locations.size(), path);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warnf(e, "Could not load locations from %s, keeping %d known locations", path, size());
+            return false;
         }
-        return null;
+    }
+
+    @Scheduled(
+            identity = "location-file-poll",
+            every = "{locations.reload.every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reloadIfChanged() {
+        if (file == null || file.isEmpty()) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(Path.of(file.get()));
+            if (!modified.equals(snapshot.get().modified)) {
+                reload();
+            }
+        } catch (IOException e) {
+            LOGGER.warnf("Location file %s is not readable: %s", file.get(), e.getMessage());
+        }
+    }
+
+    private static Map<String, Location> loadClasspath() {
+        InputStream in = LocationGateway.class.getClassLoader().getResourceAsStream(CLASSPATH_LOCATIONS);
+        if (in == null) {
+            throw new IllegalStateException(CLASSPATH_LOCATIONS + " not found on the classpath");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return parse(reader, CLASSPATH_LOCATIONS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // identification,maxNumberOfWarehouses,maxCapacity per line; blank lines and # comments are skipped
+    static Map<String, Location> parse(BufferedReader reader, String source) throws IOException {
+        Map<String, Location> locations = new HashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": expected 3 fields");
+            }
+            String identification = fields[0].trim();
+            try {
+                Location location =
+                        new Location(
+                                identification,
+                                Integer.parseInt(fields[1].trim()),
+                                Integer.parseInt(fields[2].trim()));
+                if (locations.put(identification, location) != null) {
+                    throw new IllegalArgumentException(
+                            source + ":" + lineNumber + ": duplicate location " + identification);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return Map.copyOf(locations);
+    }
+
+    private record Snapshot(Map<String, Location> locations, FileTime modified) {
     }
 }
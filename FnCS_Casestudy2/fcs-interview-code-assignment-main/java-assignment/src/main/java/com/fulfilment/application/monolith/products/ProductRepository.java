@@ -1,8 +1,50 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.api.NamePageQuery;
+import com.fulfilment.application.monolith.api.NamePageRequest;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ProductRepository implements PanacheRepository<Product> {
+
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+
+    // All products as (id, name, description, price, stock) rows in name order, fetched through
+    // a server-side cursor; must be consumed inside a transaction and closed.
+    public Stream<Object[]> streamAllRows() {
+        return getEntityManager()
+                .createQuery(
+                        "select p.id, p.name, p.description, p.price, p.stock from Product p order by p.name",
+                        Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Pages stay in (name, id) order whatever the filter. For a wide price range the planner
+    // walks ix_product_page and checks the price in the index; a narrow one it reads from
+    // ix_product_price and sorts, so the cost follows the rows in range, not the rows skipped.
+    public List<Product> findPage(NamePageRequest request, BigDecimal minPrice, BigDecimal maxPrice) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (minPrice != null) {
+            conditions.add("t.price >= :minPrice");
+            parameters.put("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            conditions.add("t.price <= :maxPrice");
+            parameters.put("maxPrice", maxPrice);
+        }
+        String filter = conditions.isEmpty() ? null : String.join(" AND ", conditions);
+        return NamePageQuery.fetch(getEntityManager(), Product.class, "product", request, filter, parameters);
+    }
 }
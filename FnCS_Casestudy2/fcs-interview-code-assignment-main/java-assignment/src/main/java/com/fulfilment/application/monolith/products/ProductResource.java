@@ -1,15 +1,24 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.api.JsonArrayStream;
+import com.fulfilment.application.monolith.api.NamePageRequest;
+import com.fulfilment.application.monolith.api.exception.InvalidInputException;
 import com.fulfilment.application.monolith.api.exception.ProductIdProvidedOnCreateException;
 import com.fulfilment.application.monolith.api.exception.ProductNameMissingException;
 import com.fulfilment.application.monolith.api.exception.ProductNotFoundException;
+import com.fulfilment.application.monolith.stock.StockDeltaBuffer;
+import com.fulfilment.application.monolith.stock.StockTarget;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Path("product")
@@ -21,19 +30,63 @@ public class ProductResource {
     @Inject
     ProductRepository productRepository;
 
+    @Inject
+    StockDeltaBuffer stockDeltas;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @GET
     public List<Product> get() {
-        return productRepository.listAll(Sort.by("name"));
+        return stockDeltas.readConsistent(() -> productRepository.listAll(Sort.by("name")).stream()
+                .map(this::withPendingStock)
+                .toList());
+    }
+
+    // The full list, written while it is read; a snapshot as of the flush of buffered deltas
+    @GET
+    @Path("export")
+    public StreamingOutput export() {
+        stockDeltas.flush();
+        return JsonArrayStream.of(objectMapper, productRepository::streamAllRows, (json, row) -> {
+            json.writeStartObject();
+            json.writeNumberField("id", (Long) row[0]);
+            json.writeStringField("name", (String) row[1]);
+            json.writeStringField("description", (String) row[2]);
+            json.writeFieldName("price");
+            if (row[3] == null) {
+                json.writeNull();
+            } else {
+                json.writeNumber((BigDecimal) row[3]);
+            }
+            json.writeNumberField("stock", (Integer) row[4]);
+            json.writeEndObject();
+        });
+    }
+
+    // Keyset pages in name order, for catalogs too large for the full list
+    @GET
+    @Path("page")
+    public NamePageRequest.NamePage<Product> getPage(
+            @QueryParam("after") String after,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("name") String name,
+            @QueryParam("minPrice") BigDecimal minPrice,
+            @QueryParam("maxPrice") BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new InvalidInputException("minPrice must not be above maxPrice.");
+        }
+        NamePageRequest request = NamePageRequest.of(after, limit, name);
+        return stockDeltas.readConsistent(() -> request.page(
+                productRepository.findPage(request, minPrice, maxPrice).stream().map(this::withPendingStock).toList(),
+                product -> product.name,
+                product -> product.id));
     }
 
     @GET
     @Path("{id}")
     public Product getSingle(Long id) {
-        Product entity = productRepository.findById(id);
-        if (entity == null) {
-            throw new ProductNotFoundException(id);
-        }
-        return entity;
+        return stockDeltas.readConsistent(() -> withPendingStock(find(id)));
     }
 
     @POST
@@ -55,6 +108,9 @@ public class ProductResource {
             throw new ProductNameMissingException();
         }
 
+        // Buffered deltas belong before this absolute value
+        stockDeltas.flushPendingOf(StockTarget.PRODUCT, id);
+
         Product entity = productRepository.findById(id);
         if (entity == null) {
             throw new ProductNotFoundException(id);
@@ -81,4 +137,47 @@ public class ProductResource {
         productRepository.delete(entity);
         return Response.noContent().build();
     }
+
+    // Scanner traffic: small relative changes, buffered when stock.write-behind.enabled is set
+    @POST
+    @Path("{id}/stock-movements")
+    public Product moveStock(Long id, StockDeltaBuffer.StockMovement movement) {
+        int quantity = StockDeltaBuffer.quantityOf(movement);
+
+        if (!stockDeltas.isEnabled()) {
+            return QuarkusTransaction.requiringNew().call(() -> {
+                if (productRepository.update("stock = stock + ?1 where id = ?2", quantity, id) == 0) {
+                    throw new ProductNotFoundException(id);
+                }
+                return find(id);
+            });
+        }
+
+        return stockDeltas.readConsistent(() -> {
+            Product entity = find(id);
+            stockDeltas.add(StockTarget.PRODUCT, id, quantity);
+            return withPendingStock(entity);
+        });
+    }
+
+    private Product find(Long id) {
+        Product entity = productRepository.findById(id);
+        if (entity == null) {
+            throw new ProductNotFoundException(id);
+        }
+        return entity;
+    }
+
+    private Product withPendingStock(Product entity) {
+        long pending = stockDeltas.pendingDelta(StockTarget.PRODUCT, entity.id);
+        if (pending == 0) {
+            return entity;
+        }
+        Product view = new Product(entity.name);
+        view.id = entity.id;
+        view.description = entity.description;
+        view.price = entity.price;
+        view.stock = entity.stock + (int) pending;
+        return view;
+    }
 }
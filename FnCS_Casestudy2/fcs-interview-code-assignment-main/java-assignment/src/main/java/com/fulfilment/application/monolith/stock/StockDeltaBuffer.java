@@ -0,0 +1,472 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.api.exception.InvalidInputException;
+import com.fulfilment.application.monolith.stores.LegacyStoreOutboxRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Optional write-behind for stock deltas (stock.write-behind.enabled). Deltas are journalled,
+// summed per id in lock-striped maps and written by the scheduled flush as one UPDATE per
+// table. Readers combine the row with its pending delta inside readConsistent.
+@ApplicationScoped
+public class StockDeltaBuffer {
+
+    private static final Logger LOGGER = Logger.getLogger(StockDeltaBuffer.class.getName());
+
+    private static final int STRIPES = 64;
+    private static final String CHECKPOINT_QUERY =
+            "SELECT segment FROM stock_journal_checkpoint WHERE id = 1";
+    private static final String CHECKPOINT_UPSERT =
+            "INSERT INTO stock_journal_checkpoint(id, segment) VALUES (1, ?) "
+                    + "ON CONFLICT (id) DO UPDATE SET segment = "
+                    + "GREATEST(stock_journal_checkpoint.segment, EXCLUDED.segment)";
+    private static final String QUARANTINE_INSERT =
+            "INSERT INTO stock_delta_quarantine(target, targetId, delta, error, quarantinedAt) "
+                    + "VALUES (?, ?, ?, ?, now())";
+
+    @ConfigProperty(name = "stock.write-behind.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "stock.write-behind.journal-dir", defaultValue = "stock-journal")
+    String journalDir;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    LegacyStoreOutboxRepository legacyOutbox;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // Readers hold the read lock while they combine a row with its pending delta; the flush
+    // holds the write lock from draining the stripes until its commit is visible
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private volatile StockDeltaJournal journal;
+
+    public StockDeltaBuffer() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // Replays what a previous run journalled but did not flush, also when write-behind has
+    // since been switched off
+    void onStart(@Observes StartupEvent event) throws IOException {
+        Path dir = Path.of(journalDir);
+        List<StockDeltaJournal.Segment> segments = StockDeltaJournal.segments(dir);
+        if (!enabled && segments.isEmpty()) {
+            return;
+        }
+        long last = recover(dir, segments);
+        if (enabled) {
+            journal = new StockDeltaJournal(dir, last + 1);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        StockDeltaJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.errorf(e, "Could not flush stock deltas on shutdown, they are replayed on the next start");
+        }
+        journal = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOGGER.warnf("Could not close the stock journal: %s", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    // Returns once the delta is on disk; the database sees it with the next flush
+    public void add(StockTarget target, long id, long delta) {
+        StockDeltaJournal current = journal;
+        if (current == null) {
+            throw new IllegalStateException("Stock write-behind is not enabled");
+        }
+        Stripe stripe = stripeOf(id);
+        long position;
+        stripe.lock.lock();
+        try {
+            position = current.append(target, id, delta);
+            stripe.deltas.get(target).merge(id, delta, StockDeltaBuffer::sum);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal the stock delta", e);
+        } finally {
+            stripe.lock.unlock();
+        }
+        try {
+            current.sync(position);
+        } catch (IOException e) {
+            if (withdraw(current, stripe, target, id, delta, position, e)) {
+                throw new UncheckedIOException("Could not journal the stock delta", e);
+            }
+        }
+    }
+
+    // Takes back a delta whose sync failed, so that a caller who gets an error never sees it
+    // applied. A drain rotates the journal, which forces every record, under all stripe
+    // locks: if the record is still not synced, the delta is still pending here. Returns
+    // false when a rotation made it durable after all, and it stays accepted.
+    private boolean withdraw(
+            StockDeltaJournal current, Stripe stripe, StockTarget target, long id, long delta,
+            long position, IOException failure) {
+        stripe.lock.lock();
+        try {
+            if (current.isSynced(position)) {
+                return false;
+            }
+            stripe.deltas.get(target).merge(id, -delta, StockDeltaBuffer::sum);
+            // The record may still reach the disk; the compensating one cancels it on replay
+            try {
+                current.append(target, id, -delta);
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Only exact when called inside readConsistent, together with the read of the row
+    public long pendingDelta(StockTarget target, long id) {
+        if (journal == null) {
+            return 0;
+        }
+        Stripe stripe = stripeOf(id);
+        stripe.lock.lock();
+        try {
+            Long delta = stripe.deltas.get(target).get(id);
+            return delta == null ? 0 : delta;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Runs the read with no flush in between, so that a row plus its pending delta is never
+    // counted twice or missed
+    public <T> T readConsistent(Supplier<T> read) {
+        if (journal == null) {
+            return read.get();
+        }
+        flushLock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(
+            identity = "stock-write-behind-flush",
+            every = "{stock.write-behind.flush-every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.errorf(e, "Stock flush failed, the deltas stay pending");
+        }
+    }
+
+    // Before an absolute write of one row: only a pending delta of that row could land on top
+    // of the new value, so writes to other rows never wait on, or fail with, a flush
+    public void flushPendingOf(StockTarget target, long id) {
+        if (pendingDelta(target, id) != 0) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        StockDeltaJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        Map<StockTarget, Map<Long, Long>> drained;
+        long segment;
+        flushLock.writeLock().lock();
+        try {
+            Drained d = drain(current);
+            if (d == null) {
+                return;
+            }
+            drained = d.deltas();
+            segment = d.segment();
+            try {
+                QuarkusTransaction.requiringNew().run(() -> apply(drained, segment));
+            } catch (RuntimeException e) {
+                // The records stay in the closed segment, the next flush checkpoints past it
+                restore(drained);
+                throw e;
+            }
+            evictFromEntityCache(drained);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        try {
+            current.deleteThrough(segment);
+        } catch (IOException e) {
+            LOGGER.warnf("Could not delete flushed stock journal segments: %s", e.getMessage());
+        }
+    }
+
+    long recover(Path dir, List<StockDeltaJournal.Segment> segments) throws IOException {
+        long checkpoint = QuarkusTransaction.requiringNew().call(() -> {
+            List<?> rows = em.createNativeQuery(CHECKPOINT_QUERY).getResultList();
+            return rows.isEmpty() ? 0L : ((Number) rows.get(0)).longValue();
+        });
+
+        Map<StockTarget, Map<Long, Long>> replay = emptyDeltas();
+        long last = checkpoint;
+        int records = 0;
+        for (StockDeltaJournal.Segment s : segments) {
+            last = Math.max(last, s.number());
+            if (s.number() > checkpoint) {
+                records += StockDeltaJournal.read(s.path(), (target, id, delta) ->
+                        replay.get(target).merge(id, delta, StockDeltaBuffer::sum));
+            }
+        }
+        if (records > 0) {
+            long through = last;
+            QuarkusTransaction.requiringNew().run(() -> apply(replay, through));
+            evictFromEntityCache(replay);
+            LOGGER.infof("Replayed %d journalled stock deltas up to segment %d", records, last);
+        }
+        for (StockDeltaJournal.Segment s : segments) {
+            Files.deleteIfExists(s.path());
+        }
+        return last;
+    }
+
+    private Drained drain(StockDeltaJournal current) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            boolean empty = true;
+            for (Stripe stripe : stripes) {
+                empty &= stripe.isEmpty();
+            }
+            if (empty) {
+                return null;
+            }
+            // Appends wait on the stripe locks, so every record of the closed segment is drained
+            long segment;
+            try {
+                segment = current.rotate();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not rotate the stock journal", e);
+            }
+
+            EnumMap<StockTarget, Map<Long, Long>> all = emptyDeltas();
+            for (Stripe stripe : stripes) {
+                stripe.deltas.forEach((target, byId) -> all.get(target).putAll(byId));
+                stripe.deltas = emptyDeltas();
+            }
+            return new Drained(all, segment);
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private void restore(Map<StockTarget, Map<Long, Long>> drained) {
+        drained.forEach((target, byId) -> byId.forEach((id, delta) -> {
+            Stripe stripe = stripeOf(id);
+            stripe.lock.lock();
+            try {
+                stripe.deltas.get(target).merge(id, delta, StockDeltaBuffer::sum);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }));
+    }
+
+    // One UPDATE per table for all ids, the checkpoint and one legacy update per store, in
+    // the caller's transaction. A table whose UPDATE fails is retried row by row, and the
+    // rows that still fail are quarantined, so that the checkpoint advances past them.
+    private void apply(Map<StockTarget, Map<Long, Long>> deltas, long segment) {
+        Set<Long> quarantinedStores = new HashSet<>();
+        em.unwrap(Session.class).doWork(connection -> {
+            for (StockTarget target : StockTarget.values()) {
+                Map<Long, Long> byId = deltas.get(target);
+                if (byId.isEmpty()) {
+                    continue;
+                }
+                try {
+                    inSavepoint(connection, () -> applyBatch(connection, target, byId));
+                } catch (SQLException e) {
+                    LOGGER.warnf("Stock update of %d %s rows failed, applying them one by one: %s",
+                            byId.size(), target, e.getMessage());
+                    Set<Long> quarantined = applyRows(connection, target, byId);
+                    if (target == StockTarget.STORE) {
+                        quarantinedStores.addAll(quarantined);
+                    }
+                }
+            }
+            try (PreparedStatement checkpoint = connection.prepareStatement(CHECKPOINT_UPSERT)) {
+                checkpoint.setLong(1, segment);
+                checkpoint.executeUpdate();
+            }
+        });
+        Set<Long> updatedStores = new HashSet<>(deltas.get(StockTarget.STORE).keySet());
+        updatedStores.removeAll(quarantinedStores);
+        legacyOutbox.enqueueUpdates(updatedStores);
+    }
+
+    private static void applyBatch(Connection connection, StockTarget target, Map<Long, Long> byId)
+            throws SQLException {
+        Long[] ids = new Long[byId.size()];
+        Long[] values = new Long[byId.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> entry : byId.entrySet()) {
+            ids[i] = entry.getKey();
+            values[i++] = entry.getValue();
+        }
+        try (PreparedStatement update = connection.prepareStatement(target.batchUpdate())) {
+            update.setArray(1, connection.createArrayOf("bigint", ids));
+            update.setArray(2, connection.createArrayOf("bigint", values));
+            update.executeUpdate();
+        }
+    }
+
+    private static Set<Long> applyRows(Connection connection, StockTarget target, Map<Long, Long> byId)
+            throws SQLException {
+        Set<Long> quarantined = new HashSet<>();
+        try (PreparedStatement update = connection.prepareStatement(target.rowUpdate());
+             PreparedStatement quarantine = connection.prepareStatement(QUARANTINE_INSERT)) {
+            for (Map.Entry<Long, Long> entry : byId.entrySet()) {
+                try {
+                    inSavepoint(connection, () -> {
+                        update.setLong(1, entry.getValue());
+                        update.setLong(2, entry.getKey());
+                        update.executeUpdate();
+                    });
+                } catch (SQLException e) {
+                    LOGGER.errorf("Quarantined stock delta %d of %s %d: %s",
+                            entry.getValue(), target, entry.getKey(), e.getMessage());
+                    String error = String.valueOf(e.getMessage());
+                    quarantine.setString(1, target.name());
+                    quarantine.setLong(2, entry.getKey());
+                    quarantine.setLong(3, entry.getValue());
+                    quarantine.setString(4, error.length() > 1000 ? error.substring(0, 1000) : error);
+                    quarantine.executeUpdate();
+                    quarantined.add(entry.getKey());
+                }
+            }
+        }
+        return quarantined;
+    }
+
+    // A failed statement aborts the whole Postgres transaction unless it ran under a
+    // savepoint. Plain SQL, as the pool refuses Connection.rollback(Savepoint) on an enlisted
+    // connection.
+    private static void inSavepoint(Connection connection, SqlWork work) throws SQLException {
+        try (Statement savepoint = connection.createStatement()) {
+            savepoint.execute("SAVEPOINT stock_delta");
+            try {
+                work.run();
+            } catch (SQLException e) {
+                savepoint.execute("ROLLBACK TO SAVEPOINT stock_delta");
+                throw e;
+            }
+            savepoint.execute("RELEASE SAVEPOINT stock_delta");
+        }
+    }
+
+    // The UPDATEs bypass the entity cache
+    private void evictFromEntityCache(Map<StockTarget, Map<Long, Long>> deltas) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        deltas.forEach((target, byId) -> byId.keySet().forEach(id -> cache.evict(target.entity, id)));
+    }
+
+    private Stripe stripeOf(long id) {
+        return stripes[(Long.hashCode(id) * 0x9E3779B9) >>> (Integer.SIZE - 6)];
+    }
+
+    private static EnumMap<StockTarget, Map<Long, Long>> emptyDeltas() {
+        EnumMap<StockTarget, Map<Long, Long>> deltas = new EnumMap<>(StockTarget.class);
+        for (StockTarget target : StockTarget.values()) {
+            deltas.put(target, new HashMap<>());
+        }
+        return deltas;
+    }
+
+    // Deltas that cancel out leave no entry behind
+    private static Long sum(Long a, Long b) {
+        long total = a + b;
+        return total == 0 ? null : total;
+    }
+
+    public static int quantityOf(StockMovement movement) {
+        if (movement == null || movement.quantity() == null) {
+            throw new InvalidInputException("Stock movement quantity was not set on request.");
+        }
+        if (movement.quantity() == 0) {
+            throw new InvalidInputException("Stock movement quantity must not be 0.");
+        }
+        return movement.quantity();
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        EnumMap<StockTarget, Map<Long, Long>> deltas = emptyDeltas();
+
+        boolean isEmpty() {
+            for (Map<Long, Long> byId : deltas.values()) {
+                if (!byId.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    private record Drained(Map<StockTarget, Map<Long, Long>> deltas, long segment) {
+    }
+
+    public record StockMovement(Integer quantity) {
+    }
+}
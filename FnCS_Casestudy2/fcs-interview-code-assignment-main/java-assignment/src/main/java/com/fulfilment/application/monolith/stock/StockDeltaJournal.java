@@ -0,0 +1,172 @@
+package com.fulfilment.application.monolith.stock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only log of the accepted stock deltas, in numbered segments. The buffer closes the
+// current segment whenever it drains, and deletes it once its deltas are committed.
+final class StockDeltaJournal implements Closeable {
+
+    // target ordinal, id, delta, crc of the preceding bytes
+    static final int RECORD_SIZE = 1 + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final String PREFIX = "stock-deltas-";
+    private static final String SUFFIX = ".log";
+    private static final StockTarget[] TARGETS = StockTarget.values();
+
+    private final Path dir;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long segment;
+    // Bytes appended over all segments, so that positions stay comparable across a rotation
+    private volatile long written;
+    private long synced;
+
+    StockDeltaJournal(Path dir, long segment) throws IOException {
+        this.dir = dir;
+        this.segment = segment;
+        Files.createDirectories(dir);
+        this.channel = open(segment);
+    }
+
+    // Returns the position to hand to sync once the caller has released its own locks
+    long append(StockTarget target, long id, long delta) throws IOException {
+        synchronized (appendLock) {
+            record.clear();
+            record.put((byte) target.ordinal()).putLong(id).putLong(delta);
+            crc.reset();
+            crc.update(record.array(), 0, RECORD_SIZE - Integer.BYTES);
+            record.putInt((int) crc.getValue());
+            record.flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            written += RECORD_SIZE;
+            return written;
+        }
+    }
+
+    // Group commit: one force covers every record appended before it started
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long upTo = written;
+            channel.force(false);
+            synced = upTo;
+        }
+    }
+
+    // Whether a sync or a rotation has already forced the record ending at position
+    boolean isSynced(long position) {
+        synchronized (syncLock) {
+            return synced >= position;
+        }
+    }
+
+    // Closes the current segment and continues in the next one; returns the closed segment
+    long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                channel.force(false);
+                channel.close();
+                synced = written;
+                long closed = segment++;
+                channel = open(segment);
+                return closed;
+            }
+        }
+    }
+
+    void deleteThrough(long last) throws IOException {
+        for (Segment s : segments(dir)) {
+            if (s.number() <= last) {
+                Files.deleteIfExists(s.path());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(
+                dir.resolve(PREFIX + number + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    static List<Segment> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    try {
+                        long number = Long.parseLong(
+                                name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                        segments.add(new Segment(number, file));
+                    } catch (NumberFormatException e) {
+                        // not one of ours
+                    }
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(Segment::number));
+        return segments;
+    }
+
+    // Stops at the first torn or corrupt record: it was never acknowledged, as the writer
+    // only returns once the record is forced to disk
+    static int read(Path file, DeltaConsumer consumer) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 check = new CRC32();
+        int records = 0;
+        while (bytes.remaining() >= RECORD_SIZE) {
+            int start = bytes.position();
+            int ordinal = bytes.get();
+            long id = bytes.getLong();
+            long delta = bytes.getLong();
+            int expected = bytes.getInt();
+            check.reset();
+            check.update(bytes.array(), start, RECORD_SIZE - Integer.BYTES);
+            if ((int) check.getValue() != expected || ordinal < 0 || ordinal >= TARGETS.length) {
+                break;
+            }
+            consumer.accept(TARGETS[ordinal], id, delta);
+            records++;
+        }
+        return records;
+    }
+
+    record Segment(long number, Path path) {
+    }
+
+    interface DeltaConsumer {
+        void accept(StockTarget target, long id, long delta);
+    }
+}
@@ -0,0 +1,36 @@
+package com.fulfilment.application.monolith.stock;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// Buffered deltas the database refused (a column overflow, a check constraint). The flush moves
+// them here instead of failing, so one bad row never holds the other deltas or the journal
+// checkpoint back; an operator decides whether to apply them by hand.
+@Entity
+@Table(name = "stock_delta_quarantine")
+public class StockDeltaQuarantine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    public String target;
+
+    public long targetId;
+
+    public long delta;
+
+    @Column(length = 1000)
+    public String error;
+
+    public LocalDateTime quarantinedAt;
+
+    public StockDeltaQuarantine() {
+    }
+}
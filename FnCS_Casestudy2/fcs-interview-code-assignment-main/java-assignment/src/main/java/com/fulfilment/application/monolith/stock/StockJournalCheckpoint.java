@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.stock;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Last journal segment whose deltas are in the database. Written in the same transaction as
+// the deltas, so that recovery never applies a segment twice (see StockDeltaBuffer.recover).
+@Entity
+@Table(name = "stock_journal_checkpoint")
+public class StockJournalCheckpoint {
+
+    @Id
+    public int id;
+
+    public long segment;
+
+    public StockJournalCheckpoint() {
+    }
+}
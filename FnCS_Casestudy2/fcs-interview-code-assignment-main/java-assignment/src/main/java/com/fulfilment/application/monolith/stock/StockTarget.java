@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+
+// Stock columns that accept buffered deltas
+public enum StockTarget {
+    STORE(Store.class, "store", "quantityProductsInStock"),
+    PRODUCT(Product.class, "product", "stock");
+
+    final Class<?> entity;
+    final String table;
+    final String column;
+
+    StockTarget(Class<?> entity, String table, String column) {
+        this.entity = entity;
+        this.table = table;
+        this.column = column;
+    }
+
+    String batchUpdate() {
+        return "UPDATE " + table + " t SET " + column + " = t." + column + " + d.delta "
+                + "FROM unnest(?, ?) AS d(id, delta) WHERE t.id = d.id";
+    }
+
+    String rowUpdate() {
+        return "UPDATE " + table + " SET " + column + " = " + column + " + ? WHERE id = ?";
+    }
+}
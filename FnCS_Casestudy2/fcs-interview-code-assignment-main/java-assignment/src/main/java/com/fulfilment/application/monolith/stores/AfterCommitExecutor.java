@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Objects;
 
+// Actions run on the thread that completes the transaction, in commit order: callers keep
+// in-memory state (the fulfilment index, caches) in step with the database.
 @ApplicationScoped
 public class AfterCommitExecutor {
 
@@ -23,6 +25,15 @@ public class AfterCommitExecutor {
     }
 
     public void runAfterCommit(Runnable action) {
+        register(action, true);
+    }
+
+    // Runs the action once the transaction has ended, whether it committed or rolled back
+    public void runAfterCompletion(Runnable action) {
+        register(action, false);
+    }
+
+    private void register(Runnable action, boolean onlyOnCommit) {
         if (action == null) {
             return;
         }
@@ -31,7 +42,8 @@ public class AfterCommitExecutor {
             int status = txSyncRegistry.getTransactionStatus();
             if (status == Status.STATUS_ACTIVE) {
                 try {
-                    txSyncRegistry.registerInterposedSynchronization(new CommitSynchronization(action));
+                    txSyncRegistry.registerInterposedSynchronization(
+                            new CommitSynchronization(action, onlyOnCommit));
                     return;
                 } catch (Exception e) {
                     LOG.warn("Failed to register interposed synchronization, executing action immediately", e);
@@ -56,9 +68,11 @@ public class AfterCommitExecutor {
 
     private static class CommitSynchronization implements Synchronization {
         private final Runnable action;
+        private final boolean onlyOnCommit;
 
-        CommitSynchronization(Runnable action) {
+        CommitSynchronization(Runnable action, boolean onlyOnCommit) {
             this.action = action;
+            this.onlyOnCommit = onlyOnCommit;
         }
 
         @Override
@@ -68,7 +82,7 @@ public class AfterCommitExecutor {
 
         @Override
         public void afterCompletion(int completionStatus) {
-            if (completionStatus == Status.STATUS_COMMITTED) {
+            if (completionStatus == Status.STATUS_COMMITTED || !onlyOnCommit) {
                 try {
                     action.run();
                 } catch (Exception e) {
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Appends every change to the local journal; one force covers the whole batch
+final class FileLegacyStoreTransport implements LegacyStoreTransport {
+
+    private final LegacyStoreJournal journal;
+
+    FileLegacyStoreTransport(LegacyStoreJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public List<Rejection> send(List<LegacyStoreChange> changes) throws IOException {
+        long position = 0;
+        for (LegacyStoreChange change : changes) {
+            position = journal.append(content(change).getBytes(StandardCharsets.UTF_8));
+        }
+        journal.sync(position);
+        return List.of();
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    static String content(LegacyStoreChange change) {
+        return "Store data [ name ="
+                + change.name()
+                + " ] [ items on stock ="
+                + change.quantityProductsInStock()
+                + "]";
+    }
+}
@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+// POSTs the changes as JSON arrays of at most batchSize to {url}/stores/changes. The chunks of
+// a call go out together, at most maxConnections requests at a time over the client's
+// keep-alive connections; the answer lists the rejected changes by index within the chunk.
+final class HttpLegacyStoreTransport implements LegacyStoreTransport {
+
+    static final String PATH = "/stores/changes";
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final int batchSize;
+    private final Duration timeout;
+    private final ObjectMapper mapper;
+    // Shared by all callers, so that the requests in flight never outnumber the connections
+    private final Semaphore connections;
+
+    HttpLegacyStoreTransport(URI url, int batchSize, int maxConnections, Duration timeout, ObjectMapper mapper) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.endpoint = url.resolve(PATH);
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.mapper = mapper;
+        this.connections = new Semaphore(maxConnections);
+    }
+
+    @Override
+    public List<Rejection> send(List<LegacyStoreChange> changes) throws IOException {
+        List<CompletableFuture<List<Rejection>>> chunks = new ArrayList<>();
+        for (int from = 0; from < changes.size(); from += batchSize) {
+            List<LegacyStoreChange> chunk = changes.subList(from, Math.min(from + batchSize, changes.size()));
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(chunk)))
+                    .build();
+            try {
+                connections.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a legacy connection");
+            }
+            int offset = from;
+            CompletableFuture<HttpResponse<byte[]>> sent;
+            try {
+                sent = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                // Nothing went out, so no completion will give the permit back
+                connections.release();
+                throw e;
+            }
+            chunks.add(sent.handle((response, error) -> {
+                connections.release();
+                return rejections(chunk.size(), offset, response, error);
+            }));
+        }
+
+        List<Rejection> rejected = new ArrayList<>();
+        for (CompletableFuture<List<Rejection>> chunk : chunks) {
+            rejected.addAll(chunk.join());
+        }
+        return rejected;
+    }
+
+    @Override
+    public void close() {
+        // HttpClient has no close before Java 21; idle connections time out on their own
+    }
+
+    private List<Rejection> rejections(int size, int offset, HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            return all(size, offset, error.getClass().getSimpleName() + ": " + error.getMessage());
+        }
+        if (response.statusCode() / 100 != 2) {
+            return all(size, offset, "Legacy system answered HTTP " + response.statusCode());
+        }
+        try {
+            BatchResponse answer = mapper.readValue(response.body(), BatchResponse.class);
+            if (answer.rejected() == null) {
+                return List.of();
+            }
+            return answer.rejected().stream()
+                    .map(r -> new Rejection(offset + r.index(), r.reason()))
+                    .toList();
+        } catch (IOException e) {
+            return all(size, offset, "Unreadable answer from the legacy system: " + e.getMessage());
+        }
+    }
+
+    private static List<Rejection> all(int size, int offset, String reason) {
+        List<Rejection> rejected = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rejected.add(new Rejection(offset + i, reason));
+        }
+        return rejected;
+    }
+
+    record BatchResponse(List<Rejection> rejected) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Embedded stand-in for the HTTP legacy endpoint (legacy.stand-in.enabled), to run and
+// benchmark the http transport against a slow or flaky backend. Every request waits for
+// latency; failure-rate of the requests get a 503, reject-rate of the changes are rejected.
+// Start the JVM with -Dsun.net.httpserver.nodelay=true when measuring: without it every
+// answer waits for a delayed ACK (~40ms), hiding the configured latency.
+@ApplicationScoped
+public class LegacyStandInServer {
+
+    private static final Logger LOGGER = Logger.getLogger(LegacyStandInServer.class.getName());
+    private static final TypeReference<List<LegacyStoreChange>> CHANGES = new TypeReference<>() {
+    };
+
+    @ConfigProperty(name = "legacy.stand-in.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "legacy.stand-in.port", defaultValue = "8089")
+    int port;
+
+    @ConfigProperty(name = "legacy.stand-in.threads", defaultValue = "16")
+    int threads;
+
+    @ConfigProperty(name = "legacy.stand-in.latency", defaultValue = "0s")
+    Duration latency;
+
+    @ConfigProperty(name = "legacy.stand-in.failure-rate", defaultValue = "0")
+    double failureRate;
+
+    @ConfigProperty(name = "legacy.stand-in.reject-rate", defaultValue = "0")
+    double rejectRate;
+
+    @Inject
+    ObjectMapper mapper;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService workers;
+
+    void onStart(@Observes StartupEvent event) throws IOException {
+        if (enabled) {
+            start();
+            LOGGER.infof("Legacy stand-in listening on port %d", port());
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        stop();
+    }
+
+    synchronized void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        workers = Executors.newFixedThreadPool(threads);
+        server.setExecutor(workers);
+        server.createContext(HttpLegacyStoreTransport.PATH, this::handle);
+        server.start();
+    }
+
+    synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            workers.shutdownNow();
+            server = null;
+        }
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long accepted() {
+        return accepted.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            List<LegacyStoreChange> changes = mapper.readValue(exchange.getRequestBody(), CHANGES);
+            if (!latency.isZero()) {
+                try {
+                    Thread.sleep(latency.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < failureRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            List<LegacyStoreTransport.Rejection> rejected = new ArrayList<>();
+            for (int i = 0; i < changes.size(); i++) {
+                if (random.nextDouble() < rejectRate) {
+                    rejected.add(new LegacyStoreTransport.Rejection(i, "Rejected by the legacy stand-in"));
+                }
+            }
+            accepted.addAndGet(changes.size() - rejected.size());
+
+            byte[] body = mapper.writeValueAsBytes(new HttpLegacyStoreTransport.BatchResponse(rejected));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.stores;
+
+// One store change as handed to a LegacyStoreTransport
+public record LegacyStoreChange(
+        Long storeId, LegacyStoreOutbox.Operation operation, String name, int quantityProductsInStock) {
+
+    static LegacyStoreChange of(LegacyStoreOutbox.Operation operation, Store store) {
+        return new LegacyStoreChange(store.id, operation, store.name, store.quantityProductsInStock);
+    }
+
+    Store toStore() {
+        Store store = new Store(name);
+        store.id = storeId;
+        store.quantityProductsInStock = quantityProductsInStock;
+        return store;
+    }
+}
@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only journal of the records sent to the legacy system, in memory-mapped segments of
+// a fixed size. A record is its length, the CRC32 of its payload and the payload; the zero
+// fill of a fresh segment marks the end. Every run starts a new segment.
+final class LegacyStoreJournal implements Closeable {
+
+    private static final String PREFIX = "legacy-stores-";
+    private static final String SUFFIX = ".journal";
+    private static final int HEADER = Integer.BYTES + Integer.BYTES;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int retainSegments;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // Bytes appended over all segments, so that positions stay comparable across a roll
+    private long written;
+    private long synced;
+
+    // A segment is mapped whole, and a mapping is limited to Integer.MAX_VALUE bytes
+    LegacyStoreJournal(Path dir, long segmentBytes, int retainSegments) throws IOException {
+        if (segmentBytes <= HEADER || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Journal segment size must be between " + (HEADER + 1) + " and "
+                            + Integer.MAX_VALUE + " bytes, got " + segmentBytes);
+        }
+        this.dir = dir;
+        this.segmentBytes = (int) segmentBytes;
+        this.retainSegments = retainSegments;
+        Files.createDirectories(dir);
+        List<Path> existing = segments(dir);
+        this.segment = existing.isEmpty() ? 1 : numberOf(existing.get(existing.size() - 1)) + 1;
+        open();
+        // Every run starts a segment, so restarts alone would otherwise pile them up
+        dropOldSegments();
+    }
+
+    // Returns the position to hand to sync
+    long append(byte[] payload) throws IOException {
+        int size = HEADER + payload.length;
+        if (size > segmentBytes) {
+            throw new IOException("Record of " + payload.length + " bytes does not fit a journal segment");
+        }
+        synchronized (appendLock) {
+            if (buffer.remaining() < size) {
+                roll();
+            }
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            written += size;
+            return written;
+        }
+    }
+
+    // Group commit: one force covers every record appended before it started
+    void sync(long position) {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long upTo;
+            MappedByteBuffer current;
+            synchronized (appendLock) {
+                upTo = written;
+                current = buffer;
+            }
+            // A roll has already forced the records of the segments before this one
+            current.force();
+            synced = upTo;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                buffer.force();
+                channel.close();
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        buffer.force();
+        channel.close();
+        segment++;
+        open();
+        dropOldSegments();
+    }
+
+    private void dropOldSegments() throws IOException {
+        List<Path> segments = segments(dir);
+        for (int i = 0; i < segments.size() - retainSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(dir.resolve(PREFIX + segment + SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(LegacyStoreJournal::numberOf))
+                    .toList();
+        }
+    }
+
+    // Hands over the payloads that pass their CRC, up to the end of the segment or the first
+    // record that does not; returns how many that were
+    static int read(Path segment, Consumer<byte[]> payloads) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+        CRC32 check = new CRC32();
+        int records = 0;
+        while (bytes.remaining() >= HEADER) {
+            int length = bytes.getInt();
+            int expected = bytes.getInt();
+            if (length <= 0 || length > bytes.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            bytes.get(payload);
+            check.reset();
+            check.update(payload);
+            if ((int) check.getValue() != expected) {
+                break;
+            }
+            payloads.accept(payload);
+            records++;
+        }
+        return records;
+    }
+
+    static List<byte[]> readAll(Path dir) throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        for (Path segment : segments(dir)) {
+            read(segment, payloads::add);
+        }
+        return payloads;
+    }
+
+    private static long numberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -1,42 +1,124 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fulfilment.application.monolith.api.exception.LegacyStoreWriteException;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
-import java.nio.file.Files;
+import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
 
+// file: the local memory-mapped journal (legacy.journal.*); http: a legacy HTTP endpoint
+// (legacy.http.*), for example LegacyStandInServer
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
+    private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class.getName());
+
+    public enum Transport {
+        FILE,
+        HTTP
+    }
+
+    @ConfigProperty(name = "legacy.transport", defaultValue = "file")
+    Transport transportType;
+
+    @ConfigProperty(name = "legacy.journal.dir", defaultValue = "legacy-journal")
+    String journalDir;
+
+    @ConfigProperty(name = "legacy.journal.segment-size", defaultValue = "64M")
+    MemorySize segmentSize;
+
+    @ConfigProperty(name = "legacy.journal.retain-segments", defaultValue = "8")
+    int retainSegments;
+
+    @ConfigProperty(name = "legacy.http.url", defaultValue = "http://localhost:8089")
+    URI httpUrl;
+
+    @ConfigProperty(name = "legacy.http.batch-size", defaultValue = "50")
+    int httpBatchSize;
+
+    @ConfigProperty(name = "legacy.http.max-connections", defaultValue = "8")
+    int httpMaxConnections;
+
+    @ConfigProperty(name = "legacy.http.timeout", defaultValue = "10s")
+    Duration httpTimeout;
+
+    @Inject
+    ObjectMapper mapper;
+
+    private volatile LegacyStoreTransport transport;
+
+    public LegacyStoreManagerGateway() {
+    }
+
+    LegacyStoreManagerGateway(LegacyStoreTransport transport) {
+        this.transport = transport;
+    }
+
     public void createStoreOnLegacySystem(Store store) {
-        writeToFile(store);
+        send(LegacyStoreChange.of(LegacyStoreOutbox.Operation.CREATE, store));
     }
 
     public void updateStoreOnLegacySystem(Store store) {
-        writeToFile(store);
+        send(LegacyStoreChange.of(LegacyStoreOutbox.Operation.UPDATE, store));
     }
 
-    private void writeToFile(Store store) {
+    // Sends the changes in one go; returns the ones the legacy system turned down
+    public List<LegacyStoreTransport.Rejection> deliver(List<LegacyStoreChange> changes) {
         try {
-            Path tempFile = Files.createTempFile(store.name, ".txt");
-
-            String content =
-                    "Store data [ name ="
-                            + store.name
-                            + " ] [ items on stock ="
-                            + store.quantityProductsInStock
-                            + "]";
-
-            Files.write(tempFile, content.getBytes());
+            return transport().send(changes);
+        } catch (Exception e) {
+            String names = changes.stream().map(LegacyStoreChange::name).collect(Collectors.joining(", "));
+            throw new LegacyStoreWriteException(names, e);
+        }
+    }
 
-            // optional verification
-            Files.readAllBytes(tempFile);
+    private void send(LegacyStoreChange change) {
+        List<LegacyStoreTransport.Rejection> rejected = deliver(List.of(change));
+        if (!rejected.isEmpty()) {
+            throw new LegacyStoreWriteException(change.name(), new IllegalStateException(rejected.get(0).reason()));
+        }
+    }
 
-            Files.delete(tempFile);
+    private LegacyStoreTransport transport() throws IOException {
+        LegacyStoreTransport current = transport;
+        if (current == null) {
+            synchronized (this) {
+                current = transport;
+                if (current == null) {
+                    current = switch (transportType) {
+                        case FILE -> new FileLegacyStoreTransport(new LegacyStoreJournal(
+                                Path.of(journalDir), segmentSize.asLongValue(), retainSegments));
+                        case HTTP -> new HttpLegacyStoreTransport(
+                                httpUrl, httpBatchSize, httpMaxConnections, httpTimeout, mapper);
+                    };
+                    transport = current;
+                }
+            }
+        }
+        return current;
+    }
 
-        } catch (Exception e) {
-            throw new LegacyStoreWriteException(store.name, e);
+    @PreDestroy
+    void close() {
+        LegacyStoreTransport current = transport;
+        if (current == null) {
+            return;
+        }
+        transport = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOGGER.warnf("Could not close the legacy store transport: %s", e.getMessage());
         }
     }
 }
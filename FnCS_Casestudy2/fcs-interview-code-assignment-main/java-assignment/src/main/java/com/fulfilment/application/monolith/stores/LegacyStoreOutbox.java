@@ -0,0 +1,81 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// A store change still to be sent to the legacy system, written in the transaction of the
+// change itself and delivered by LegacyStoreSyncDispatcher. The row keeps the snapshot that
+// was committed, so that delivery never depends on the current state of the store.
+@Entity
+@Table(
+        name = "legacy_store_outbox",
+        indexes = @Index(name = "ix_legacy_store_outbox_store", columnList = "storeId, id"))
+public class LegacyStoreOutbox {
+
+    // The legacy system has no delete; DELETE is sent as a final update
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    // SUPERSEDED: an update that a newer snapshot of the same store made redundant
+    public enum Status {
+        PENDING,
+        DELIVERED,
+        FAILED,
+        SUPERSEDED
+    }
+
+    // Identity, so that rows can also be written by plain INSERT statements
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    @Column(nullable = false)
+    public Long storeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    public Operation operation;
+
+    @Column(length = 40)
+    public String name;
+
+    public int quantityProductsInStock;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    public Status status;
+
+    public int attempts;
+
+    @Column(nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    public String lastError;
+
+    @Column(nullable = false)
+    public LocalDateTime createdAt;
+
+    public LocalDateTime deliveredAt;
+
+    public LegacyStoreOutbox() {
+    }
+
+    LegacyStoreOutbox(Operation operation, Store store, LocalDateTime now, LocalDateTime due) {
+        this.storeId = store.id;
+        this.operation = operation;
+        this.name = store.name;
+        this.quantityProductsInStock = store.quantityProductsInStock;
+        this.status = Status.PENDING;
+        this.nextAttemptAt = due;
+        this.createdAt = now;
+    }
+
+    LegacyStoreChange toChange() {
+        return new LegacyStoreChange(storeId, operation, name, quantityProductsInStock);
+    }
+}
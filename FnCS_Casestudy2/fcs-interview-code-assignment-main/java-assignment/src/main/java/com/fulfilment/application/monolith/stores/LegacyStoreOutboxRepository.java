@@ -0,0 +1,172 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.stores.LegacyStoreOutbox.Operation;
+import com.fulfilment.application.monolith.stores.LegacyStoreOutbox.Status;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// All methods run in the caller's transaction
+@ApplicationScoped
+public class LegacyStoreOutboxRepository {
+
+    // Only the oldest pending row of a store is due, so that the legacy system sees each
+    // store's changes in commit order. Pushing nextAttemptAt out leases the claimed rows;
+    // a dispatcher that dies mid-batch leaves them to be claimed again once it expires.
+    private static final String CLAIM_QUERY =
+            "UPDATE legacy_store_outbox SET attempts = attempts + 1, nextAttemptAt = :leaseUntil "
+                    + "WHERE id IN (SELECT o.id FROM legacy_store_outbox o "
+                    + "WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now "
+                    + "AND NOT EXISTS (SELECT 1 FROM legacy_store_outbox e "
+                    + "WHERE e.storeId = o.storeId AND e.status = 'PENDING' AND e.id < o.id) "
+                    + "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED) "
+                    + "RETURNING id, storeId, operation, name, quantityProductsInStock, attempts";
+
+    // A due update is redundant once a newer update or the delete of the same store is due
+    // as well: only the newest snapshot is sent. Creates are always sent, and first.
+    private static final String SUPERSEDE_QUERY =
+            "UPDATE legacy_store_outbox o SET status = 'SUPERSEDED' "
+                    + "WHERE o.status = 'PENDING' AND o.operation = 'UPDATE' AND o.nextAttemptAt <= :now "
+                    + "AND EXISTS (SELECT 1 FROM legacy_store_outbox n "
+                    + "WHERE n.storeId = o.storeId AND n.status = 'PENDING' AND n.id > o.id "
+                    + "AND n.operation IN ('UPDATE', 'DELETE') AND n.nextAttemptAt <= :now)";
+
+    private static final String ENQUEUE_UPDATES_QUERY =
+            "INSERT INTO legacy_store_outbox"
+                    + "(storeId, operation, name, quantityProductsInStock, status, attempts, nextAttemptAt, createdAt) "
+                    + "SELECT id, 'UPDATE', name, quantityProductsInStock, 'PENDING', 0, :due, :now "
+                    + "FROM store WHERE id IN (:ids)";
+
+    // Rows wait this long before they are sent, so that rapid changes of a store coalesce
+    @ConfigProperty(name = "legacy.outbox.coalesce-window", defaultValue = "1s")
+    Duration coalesceWindow;
+
+    @Inject
+    EntityManager em;
+
+    public void enqueue(Operation operation, Store store) {
+        LocalDateTime now = LocalDateTime.now();
+        em.persist(new LegacyStoreOutbox(operation, store, now, now.plus(coalesceWindow)));
+    }
+
+    // Snapshots the stores as the current transaction sees them
+    public void enqueueUpdates(Collection<Long> storeIds) {
+        if (storeIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        em.createNativeQuery(ENQUEUE_UPDATES_QUERY)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(LegacyStoreOutbox.class)
+                .setParameter("now", now)
+                .setParameter("due", now.plus(coalesceWindow))
+                .setParameterList("ids", storeIds)
+                .executeUpdate();
+    }
+
+    // Returns the number of updates that will not be sent
+    int supersede(LocalDateTime now) {
+        return em.createNativeQuery(SUPERSEDE_QUERY)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(LegacyStoreOutbox.class)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    // Returns detached rows in id order, attempts already counting this delivery
+    List<LegacyStoreOutbox> claim(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(CLAIM_QUERY, Object[].class)
+                .setParameter("now", now)
+                .setParameter("leaseUntil", leaseUntil)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> {
+                    LegacyStoreOutbox claimed = new LegacyStoreOutbox();
+                    claimed.id = ((Number) row[0]).longValue();
+                    claimed.storeId = ((Number) row[1]).longValue();
+                    claimed.operation = Operation.valueOf((String) row[2]);
+                    claimed.name = (String) row[3];
+                    claimed.quantityProductsInStock = ((Number) row[4]).intValue();
+                    claimed.attempts = ((Number) row[5]).intValue();
+                    claimed.status = Status.PENDING;
+                    return claimed;
+                })
+                .sorted(Comparator.comparing(claimed -> claimed.id))
+                .toList();
+    }
+
+    void markDelivered(Collection<Long> ids, LocalDateTime at) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        em.createQuery("update LegacyStoreOutbox o set o.status = :status, o.deliveredAt = :at, "
+                        + "o.lastError = null where o.id in :ids")
+                .setParameter("status", Status.DELIVERED)
+                .setParameter("at", at)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    void retryLater(Long id, String error, LocalDateTime nextAttemptAt) {
+        em.createQuery("update LegacyStoreOutbox o set o.lastError = :error, o.nextAttemptAt = :next "
+                        + "where o.id = :id")
+                .setParameter("error", error)
+                .setParameter("next", nextAttemptAt)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    void markFailed(Long id, String error) {
+        em.createQuery("update LegacyStoreOutbox o set o.status = :status, o.lastError = :error "
+                        + "where o.id = :id")
+                .setParameter("status", Status.FAILED)
+                .setParameter("error", error)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    int purgeDelivered(LocalDateTime before) {
+        return em.createQuery("delete from LegacyStoreOutbox o where o.status = :status "
+                        + "and o.deliveredAt < :before")
+                .setParameter("status", Status.DELIVERED)
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+
+    public List<DeliveryView> findByStore(Long storeId, int limit) {
+        return em.createQuery("from LegacyStoreOutbox o where o.storeId = :storeId order by o.id desc",
+                        LegacyStoreOutbox.class)
+                .setParameter("storeId", storeId)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(DeliveryView::of)
+                .toList();
+    }
+
+    public record DeliveryView(
+            Long id,
+            Operation operation,
+            Status status,
+            int attempts,
+            LocalDateTime nextAttemptAt,
+            String lastError,
+            LocalDateTime createdAt,
+            LocalDateTime deliveredAt) {
+
+        static DeliveryView of(LegacyStoreOutbox row) {
+            return new DeliveryView(row.id, row.operation, row.status, row.attempts,
+                    row.status == Status.PENDING ? row.nextAttemptAt : null,
+                    row.lastError, row.createdAt, row.deliveredAt);
+        }
+    }
+}
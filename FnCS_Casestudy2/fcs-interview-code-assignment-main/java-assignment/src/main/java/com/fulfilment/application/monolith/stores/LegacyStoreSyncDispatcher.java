@@ -0,0 +1,175 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Drains legacy_store_outbox in the background. Of the due updates of a store only the newest
+// is sent (legacy.outbox.coalesce-window sets how long a row waits for newer ones). A failed
+// delivery is retried with exponential backoff and marked FAILED after legacy.outbox.max-attempts.
+@ApplicationScoped
+public class LegacyStoreSyncDispatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(LegacyStoreSyncDispatcher.class.getName());
+
+    @ConfigProperty(name = "legacy.outbox.batch-size", defaultValue = "100")
+    int batchSize;
+
+    @ConfigProperty(name = "legacy.outbox.max-attempts", defaultValue = "10")
+    int maxAttempts;
+
+    @ConfigProperty(name = "legacy.outbox.backoff", defaultValue = "1s")
+    Duration backoff;
+
+    @ConfigProperty(name = "legacy.outbox.max-backoff", defaultValue = "5m")
+    Duration maxBackoff;
+
+    @ConfigProperty(name = "legacy.outbox.lease", defaultValue = "1m")
+    Duration lease;
+
+    @ConfigProperty(name = "legacy.outbox.retention", defaultValue = "168h")
+    Duration retention;
+
+    @Inject
+    LegacyStoreOutboxRepository outbox;
+
+    @Inject
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Counter delivered;
+    private Counter retried;
+    private Counter failed;
+    private Counter suppressed;
+
+    @PostConstruct
+    void init() {
+        delivered = deliveries("delivered");
+        retried = deliveries("retried");
+        failed = deliveries("failed");
+        suppressed = Counter.builder("legacy.outbox.suppressed")
+                .description("Legacy store updates not sent because a newer snapshot superseded them")
+                .register(registry);
+    }
+
+    @Scheduled(
+            identity = "legacy-store-outbox",
+            every = "{legacy.outbox.dispatch-every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledDispatch() {
+        try {
+            dispatchPending();
+        } catch (RuntimeException e) {
+            LOGGER.errorf(e, "Legacy store outbox dispatch failed");
+        }
+    }
+
+    @Scheduled(
+            identity = "legacy-store-outbox-purge",
+            every = "{legacy.outbox.purge-every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purgeDelivered() {
+        int purged = QuarkusTransaction.requiringNew()
+                .call(() -> outbox.purgeDelivered(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            LOGGER.infof("Purged %d delivered legacy store outbox rows", purged);
+        }
+    }
+
+    // Claims until nothing is due: a store's next row only becomes due once the previous one
+    // is delivered. Returns the number of rows delivered.
+    public int dispatchPending() {
+        int total = 0;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<LegacyStoreOutbox> batch = QuarkusTransaction.requiringNew().call(() -> {
+                suppressed.increment(outbox.supersede(now));
+                return outbox.claim(batchSize, now, now.plus(lease));
+            });
+            if (batch.isEmpty()) {
+                return total;
+            }
+
+            // No transaction is held open while the legacy system answers. A claim holds at
+            // most one row per store, so the whole batch can go out in one call.
+            String[] errors = new String[batch.size()];
+            try {
+                List<LegacyStoreChange> changes = batch.stream().map(LegacyStoreOutbox::toChange).toList();
+                for (LegacyStoreTransport.Rejection rejection : legacyStoreManagerGateway.deliver(changes)) {
+                    errors[rejection.index()] = rejection.reason();
+                }
+            } catch (RuntimeException e) {
+                Arrays.fill(errors, errorOf(e));
+            }
+            List<Long> done = new ArrayList<>();
+            List<LegacyStoreOutbox> rejected = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                LegacyStoreOutbox row = batch.get(i);
+                if (errors[i] == null) {
+                    done.add(row.id);
+                } else {
+                    row.lastError = truncate(errors[i]);
+                    rejected.add(row);
+                }
+            }
+
+            QuarkusTransaction.requiringNew().run(() -> {
+                LocalDateTime at = LocalDateTime.now();
+                outbox.markDelivered(done, at);
+                for (LegacyStoreOutbox row : rejected) {
+                    if (row.attempts >= maxAttempts) {
+                        outbox.markFailed(row.id, row.lastError);
+                    } else {
+                        outbox.retryLater(row.id, row.lastError, at.plus(backoffAfter(row.attempts)));
+                    }
+                }
+            });
+
+            for (LegacyStoreOutbox row : rejected) {
+                if (row.attempts >= maxAttempts) {
+                    failed.increment();
+                    LOGGER.errorf("Giving up on legacy sync of store %d (outbox row %d) after %d attempts: %s",
+                            row.storeId, row.id, row.attempts, row.lastError);
+                } else {
+                    retried.increment();
+                }
+            }
+            delivered.increment(done.size());
+            total += done.size();
+        }
+    }
+
+    Duration backoffAfter(int attempts) {
+        Duration next = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return next.compareTo(maxBackoff) > 0 ? maxBackoff : next;
+    }
+
+    private Counter deliveries(String result) {
+        return Counter.builder("legacy.outbox.deliveries")
+                .tag("result", result)
+                .description("Legacy store outbox delivery attempts by result")
+                .register(registry);
+    }
+
+    private static String errorOf(RuntimeException e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static String truncate(String error) {
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
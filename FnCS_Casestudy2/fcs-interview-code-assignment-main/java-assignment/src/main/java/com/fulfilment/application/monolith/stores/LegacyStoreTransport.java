@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// How LegacyStoreManagerGateway reaches the legacy system (legacy.transport). Changes of the
+// same store are never part of one call, so a transport may send a batch in any order.
+public interface LegacyStoreTransport extends Closeable {
+
+    // Returns the changes the legacy system turned down; throws when nothing could be sent
+    List<Rejection> send(List<LegacyStoreChange> changes) throws IOException;
+
+    // index: position of the change in the list handed to send
+    record Rejection(int index, String reason) {
+    }
+}
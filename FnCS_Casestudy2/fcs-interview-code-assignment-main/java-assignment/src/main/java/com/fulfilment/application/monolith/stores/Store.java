@@ -1,14 +1,23 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.api.NamePageQuery;
+import com.fulfilment.application.monolith.api.NamePageRequest;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Entity
 @Cacheable
 public class Store extends PanacheEntity {
 
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+
     @Column(length = 40, unique = true)
     public String name;
 
@@ -20,4 +29,18 @@ public class Store extends PanacheEntity {
     public Store(String name) {
         this.name = name;
     }
+
+    public static List<Store> findPage(NamePageRequest request) {
+        return NamePageQuery.fetch(getEntityManager(), Store.class, "store", request, null, Map.of());
+    }
+
+    // All stores as (id, name, quantityProductsInStock) rows in name order, fetched through a
+    // server-side cursor; must be consumed inside a transaction and closed.
+    public static Stream<Object[]> streamAllRows() {
+        return getEntityManager()
+                .createQuery("select s.id, s.name, s.quantityProductsInStock from Store s order by s.name", Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
 }
@@ -1,14 +1,21 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.api.JsonArrayStream;
+import com.fulfilment.application.monolith.api.NamePageRequest;
 import com.fulfilment.application.monolith.api.exception.StoreIdProvidedOnCreateException;
 import com.fulfilment.application.monolith.api.exception.StoreNameMissingException;
 import com.fulfilment.application.monolith.api.exception.StoreNotFoundException;
+import com.fulfilment.application.monolith.stock.StockDeltaBuffer;
+import com.fulfilment.application.monolith.stock.StockTarget;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.logging.Logger;
 
 import java.util.List;
@@ -19,28 +26,61 @@ import java.util.List;
 @Consumes("application/json")
 public class StoreResource {
 
+    private static final int LEGACY_SYNC_HISTORY = 50;
+
     private static final Logger LOGGER =
             Logger.getLogger(StoreResource.class.getName());
 
+    // Changes reach the legacy system through the outbox, see LegacyStoreSyncDispatcher
+    @Inject
+    LegacyStoreOutboxRepository legacyOutbox;
+
     @Inject
-    LegacyStoreManagerGateway legacyStoreManagerGateway;
+    StockDeltaBuffer stockDeltas;
 
     @Inject
-    AfterCommitExecutor afterCommitExecutor;
+    ObjectMapper objectMapper;
 
     @GET
     public List<Store> get() {
-        return Store.listAll(Sort.by("name"));
+        return stockDeltas.readConsistent(() -> Store.<Store>listAll(Sort.by("name")).stream()
+                .map(this::withPendingStock)
+                .toList());
+    }
+
+    // The full list, written while it is read. With write-behind the buffered deltas are
+    // flushed first, so the export is a snapshot of every movement accepted before it started.
+    @GET
+    @Path("export")
+    public StreamingOutput export() {
+        stockDeltas.flush();
+        return JsonArrayStream.of(objectMapper, Store::streamAllRows, (json, row) -> {
+            json.writeStartObject();
+            json.writeNumberField("id", (Long) row[0]);
+            json.writeStringField("name", (String) row[1]);
+            json.writeNumberField("quantityProductsInStock", (Integer) row[2]);
+            json.writeEndObject();
+        });
+    }
+
+    // Keyset pages in name order
+    @GET
+    @Path("page")
+    public NamePageRequest.NamePage<Store> getPage(
+            @QueryParam("after") String after,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("name") String name) {
+        NamePageRequest request = NamePageRequest.of(after, limit, name);
+        return stockDeltas.readConsistent(() -> request.page(
+                Store.findPage(request).stream().map(this::withPendingStock).toList(),
+                store -> store.name,
+                store -> store.id));
     }
 
     @GET
     @Path("{id}")
     public Store getSingle(Long id) {
-        Store entity = Store.findById(id);
-        if (entity == null) {
-            throw new StoreNotFoundException(id);
-        }
-        return entity;
+        return stockDeltas.readConsistent(() -> withPendingStock(find(id)));
     }
 
     @POST
@@ -52,9 +92,7 @@ public class StoreResource {
 
         store.persist();
 
-        Store snapshot = snapshotOf(store);
-        afterCommitExecutor.runAfterCommit(
-                () -> legacyStoreManagerGateway.createStoreOnLegacySystem(snapshot));
+        legacyOutbox.enqueue(LegacyStoreOutbox.Operation.CREATE, store);
 
         return Response.status(201).entity(store).build();
     }
@@ -67,6 +105,9 @@ public class StoreResource {
             throw new StoreNameMissingException();
         }
 
+        // Buffered deltas belong before this absolute value
+        stockDeltas.flushPendingOf(StockTarget.STORE, id);
+
         Store entity = Store.findById(id);
         if (entity == null) {
             throw new StoreNotFoundException(id);
@@ -75,9 +116,7 @@ public class StoreResource {
         entity.name = updatedStore.name;
         entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
 
-        Store snapshot = snapshotOf(entity);
-        afterCommitExecutor.runAfterCommit(
-                () -> legacyStoreManagerGateway.updateStoreOnLegacySystem(snapshot));
+        legacyOutbox.enqueue(LegacyStoreOutbox.Operation.UPDATE, entity);
 
         return entity;
     }
@@ -90,6 +129,9 @@ public class StoreResource {
             throw new StoreNameMissingException();
         }
 
+        // Buffered deltas belong before this absolute value
+        stockDeltas.flushPendingOf(StockTarget.STORE, id);
+
         Store entity = Store.findById(id);
         if (entity == null) {
             throw new StoreNotFoundException(id);
@@ -102,9 +144,7 @@ public class StoreResource {
                     updatedStore.quantityProductsInStock;
         }
 
-        Store snapshot = snapshotOf(entity);
-        afterCommitExecutor.runAfterCommit(
-                () -> legacyStoreManagerGateway.updateStoreOnLegacySystem(snapshot));
+        legacyOutbox.enqueue(LegacyStoreOutbox.Operation.UPDATE, entity);
 
         return entity;
     }
@@ -118,15 +158,63 @@ public class StoreResource {
             throw new StoreNotFoundException(id);
         }
 
-        Store snapshot = snapshotOf(entity);
+        legacyOutbox.enqueue(LegacyStoreOutbox.Operation.DELETE, entity);
         entity.delete();
 
-        afterCommitExecutor.runAfterCommit(
-                () -> legacyStoreManagerGateway.updateStoreOnLegacySystem(snapshot));
-
         return Response.noContent().build();
     }
 
+    // Scanner traffic: small relative changes, buffered when stock.write-behind.enabled is set
+    @POST
+    @Path("{id}/stock-movements")
+    public Store moveStock(Long id, StockDeltaBuffer.StockMovement movement) {
+        int quantity = StockDeltaBuffer.quantityOf(movement);
+
+        if (!stockDeltas.isEnabled()) {
+            return QuarkusTransaction.requiringNew().call(() -> {
+                if (Store.update("quantityProductsInStock = quantityProductsInStock + ?1 where id = ?2",
+                        quantity, id) == 0) {
+                    throw new StoreNotFoundException(id);
+                }
+                Store entity = find(id);
+                legacyOutbox.enqueue(LegacyStoreOutbox.Operation.UPDATE, entity);
+                return entity;
+            });
+        }
+
+        // The flush queues the legacy update of buffered movements
+        return stockDeltas.readConsistent(() -> {
+            Store entity = find(id);
+            stockDeltas.add(StockTarget.STORE, id, quantity);
+            return withPendingStock(entity);
+        });
+    }
+
+    // Most recent legacy deliveries of the store, newest first
+    @GET
+    @Path("{id}/legacy-sync")
+    public List<LegacyStoreOutboxRepository.DeliveryView> legacySync(Long id) {
+        return legacyOutbox.findByStore(id, LEGACY_SYNC_HISTORY);
+    }
+
+    private Store find(Long id) {
+        Store entity = Store.findById(id);
+        if (entity == null) {
+            throw new StoreNotFoundException(id);
+        }
+        return entity;
+    }
+
+    private Store withPendingStock(Store entity) {
+        long pending = stockDeltas.pendingDelta(StockTarget.STORE, entity.id);
+        if (pending == 0) {
+            return entity;
+        }
+        Store view = snapshotOf(entity);
+        view.quantityProductsInStock += (int) pending;
+        return view;
+    }
+
     private Store snapshotOf(Store source) {
         Store snapshot = new Store();
         snapshot.id = source.id;
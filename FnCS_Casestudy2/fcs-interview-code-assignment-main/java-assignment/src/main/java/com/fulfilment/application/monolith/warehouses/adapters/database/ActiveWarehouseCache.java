@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.stores.AfterCommitExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+// Business unit code -> id of its active warehouse row. Only the id is cached: callers load
+// the row by id, which the entity cache of DbWarehouse serves, and must check that it is
+// still active before trusting it (see WarehouseRepository.findActiveDbByBusinessUnitCode).
+@ApplicationScoped
+public class ActiveWarehouseCache {
+
+    static final String NAME = "warehouse.active";
+
+    @ConfigProperty(name = "warehouse.cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "warehouse.cache.maximum-size", defaultValue = "10000")
+    long maximumSize;
+
+    @ConfigProperty(name = "warehouse.cache.ttl", defaultValue = "5m")
+    Duration ttl;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    AfterCommitExecutor afterCommitExecutor;
+
+    private Cache<String, Long> ids;
+    private Counter stale;
+
+    @PostConstruct
+    void init() {
+        ids = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(registry, ids, NAME);
+        stale = Counter.builder("cache.stale")
+                .tag("cache", NAME)
+                .description("Cached ids whose row was no longer the active one")
+                .register(registry);
+    }
+
+    Long get(String buCode) {
+        return enabled ? ids.getIfPresent(buCode) : null;
+    }
+
+    void put(String buCode, Long id) {
+        if (enabled) {
+            ids.put(buCode, id);
+        }
+    }
+
+    void evictStale(String buCode) {
+        stale.increment();
+        ids.invalidate(buCode);
+    }
+
+    // Also on rollback, as the transaction may have cached ids of rows it created
+    void invalidateAfterCompletion(String buCode) {
+        ids.invalidate(buCode);
+        afterCommitExecutor.runAfterCompletion(() -> ids.invalidate(buCode));
+    }
+
+    public void invalidateAll() {
+        ids.invalidateAll();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+
+// The WarehouseStore the use cases get: the Panache repository unless warehouse.store=jdbc
+// selects the plain JDBC adapter. Both adapters are typed to their own class only, so this
+// is the single bean of the port.
+@ApplicationScoped
+public class ConfiguredWarehouseStore implements WarehouseStore {
+
+    public enum Adapter {
+        HIBERNATE,
+        JDBC
+    }
+
+    @ConfigProperty(name = "warehouse.store", defaultValue = "hibernate")
+    Adapter adapter;
+
+    @Inject
+    WarehouseRepository hibernate;
+
+    @Inject
+    JdbcWarehouseStore jdbc;
+
+    private WarehouseStore delegate;
+
+    @PostConstruct
+    void init() {
+        delegate = switch (adapter) {
+            case HIBERNATE -> hibernate;
+            case JDBC -> jdbc;
+        };
+    }
+
+    @Override
+    public List<Warehouse> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public void create(Warehouse warehouse) {
+        delegate.create(warehouse);
+    }
+
+    @Override
+    public void update(Warehouse warehouse) {
+        delegate.update(warehouse);
+    }
+
+    @Override
+    public void remove(Warehouse warehouse) {
+        delegate.remove(warehouse);
+    }
+
+    @Override
+    public Warehouse findByBusinessUnitCode(String buCode) {
+        return delegate.findByBusinessUnitCode(buCode);
+    }
+
+    @Override
+    public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+        return delegate.findByBusinessUnitCodeForUpdate(buCode);
+    }
+
+    @Override
+    public Warehouse findAnyByBusinessUnitCode(String buCode) {
+        return delegate.findAnyByBusinessUnitCode(buCode);
+    }
+
+    @Override
+    public boolean existsAnyByBusinessUnitCode(String buCode) {
+        return delegate.existsAnyByBusinessUnitCode(buCode);
+    }
+
+    @Override
+    public LocationStats getLocationStats(String location) {
+        return delegate.getLocationStats(location);
+    }
+
+    @Override
+    public boolean tryReserve(Location location, int warehouses, long capacity) {
+        return delegate.tryReserve(location, warehouses, capacity);
+    }
+
+    @Override
+    public void release(String location, int warehouses, long capacity) {
+        delegate.release(location, warehouses, capacity);
+    }
+
+    @Override
+    public Warehouse applyStockDelta(String buCode, int delta) {
+        return delegate.applyStockDelta(buCode, delta);
+    }
+}
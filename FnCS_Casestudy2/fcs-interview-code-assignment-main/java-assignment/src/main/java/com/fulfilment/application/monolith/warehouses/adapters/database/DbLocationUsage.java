@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+// Running total of the active warehouses per location, maintained by the warehouse
+// use cases through conditional upserts (see WarehouseRepository.tryReserve).
+@Entity
+@Table(name = "location_usage")
+public class DbLocationUsage {
+
+    @Id
+    public String location;
+
+    public int warehouses;
+
+    public long capacity;
+
+    @Version
+    public long version;
+
+    public DbLocationUsage() {
+    }
+}
@@ -31,6 +31,7 @@ public class DbWarehouse {
 
     public Warehouse toWarehouse() {
         var warehouse = new Warehouse();
+        warehouse.id = this.id;
         warehouse.businessUnitCode = this.businessUnitCode;
         warehouse.location = this.location;
         warehouse.capacity = this.capacity;
@@ -0,0 +1,321 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.stores.AfterCommitExecutor;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// WarehouseStore on plain JDBC (warehouse.store=jdbc): no session, no entities, rows are
+// mapped by hand. Inside a transaction the datasource hands out the connection Hibernate
+// uses, so writes of both adapters commit together. The SQL strings are constants, so the
+// driver's per-connection statement cache reuses their server-side prepared statements
+// across pool checkouts.
+@ApplicationScoped
+@Typed(JdbcWarehouseStore.class)
+public class JdbcWarehouseStore implements WarehouseStore {
+
+    private static final String SELECT_ACTIVE =
+            "SELECT id, " + WarehouseSql.COLUMNS + " FROM warehouse WHERE archivedAt IS NULL";
+
+    private static final String SELECT_ACTIVE_BY_CODE =
+            SELECT_ACTIVE + " AND businessUnitCode = ?";
+
+    // Read committed re-checks the row once its lock is granted: if a concurrent writer
+    // archived it in the meantime, it no longer matches and nothing is returned
+    private static final String SELECT_ACTIVE_BY_CODE_FOR_UPDATE =
+            SELECT_ACTIVE_BY_CODE + " FOR UPDATE";
+
+    private static final String SELECT_ANY_BY_CODE =
+            "SELECT id, " + WarehouseSql.COLUMNS + " FROM warehouse WHERE businessUnitCode = ? LIMIT 1";
+
+    private static final String EXISTS_ANY_BY_CODE =
+            "SELECT 1 FROM warehouse WHERE businessUnitCode = ? LIMIT 1";
+
+    // Each nextval of the pooled sequence reserves a block of ids for its caller; taking
+    // only the top of a fresh block can never meet an id Hibernate hands out from its own
+    private static final String INSERT =
+            "INSERT INTO warehouse (id, " + WarehouseSql.COLUMNS + ") "
+                    + "VALUES (nextval('warehouse_seq'), ?, ?, ?, ?, ?, ?) RETURNING id";
+
+    private static final String UPDATE_ACTIVE =
+            "UPDATE warehouse SET location = ?, capacity = ?, stock = ?, archivedAt = ?, "
+                    + "createdAt = coalesce(createdAt, ?) "
+                    + "WHERE businessUnitCode = ? AND archivedAt IS NULL RETURNING id";
+
+    private static final String DELETE_ACTIVE =
+            "DELETE FROM warehouse WHERE businessUnitCode = ? AND archivedAt IS NULL RETURNING id";
+
+    private static final String LOCATION_STATS =
+            "SELECT count(*), coalesce(sum(capacity), 0) FROM warehouse "
+                    + "WHERE location = ? AND archivedAt IS NULL";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ActiveWarehouseCache activeWarehouses;
+
+    @Inject
+    AfterCommitExecutor afterCommitExecutor;
+
+    @Inject
+    EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<Warehouse> getAll() {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(SELECT_ACTIVE);
+                ResultSet rows = statement.executeQuery()) {
+            List<Warehouse> warehouses = new ArrayList<>();
+            while (rows.next()) {
+                warehouses.add(toWarehouse(rows));
+            }
+            return warehouses;
+        } catch (SQLException e) {
+            throw failure("read the active warehouses", e);
+        }
+    }
+
+    @Override
+    public void create(Warehouse warehouse) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setString(1, warehouse.businessUnitCode);
+            statement.setString(2, warehouse.location);
+            setInteger(statement, 3, warehouse.capacity);
+            setInteger(statement, 4, warehouse.stock);
+            setTimestamp(statement, 5,
+                    (warehouse.createdAt != null) ? warehouse.createdAt : LocalDateTime.now());
+            setTimestamp(statement, 6, warehouse.archivedAt);
+            warehouse.id = returnedId(statement);
+        } catch (SQLException e) {
+            throw failure("create warehouse " + warehouse.businessUnitCode, e);
+        }
+        activeWarehouses.invalidateAfterCompletion(warehouse.businessUnitCode);
+    }
+
+    @Override
+    public void update(Warehouse warehouse) {
+        Long id;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(UPDATE_ACTIVE)) {
+            statement.setString(1, warehouse.location);
+            setInteger(statement, 2, warehouse.capacity);
+            setInteger(statement, 3, warehouse.stock);
+            setTimestamp(statement, 4, warehouse.archivedAt);
+            setTimestamp(statement, 5,
+                    (warehouse.createdAt != null) ? warehouse.createdAt : LocalDateTime.now());
+            statement.setString(6, warehouse.businessUnitCode);
+            id = returnedId(statement);
+        } catch (SQLException e) {
+            throw failure("update warehouse " + warehouse.businessUnitCode, e);
+        }
+
+        if (id == null) {
+            throw new IllegalStateException(
+                    "Active warehouse not found for businessUnitCode=" + warehouse.businessUnitCode);
+        }
+        evictAfterWrite(id);
+        activeWarehouses.invalidateAfterCompletion(warehouse.businessUnitCode);
+    }
+
+    @Override
+    public void remove(Warehouse warehouse) {
+        Long id;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(DELETE_ACTIVE)) {
+            statement.setString(1, warehouse.businessUnitCode);
+            id = returnedId(statement);
+        } catch (SQLException e) {
+            throw failure("remove warehouse " + warehouse.businessUnitCode, e);
+        }
+
+        if (id != null) {
+            evictAfterWrite(id);
+            activeWarehouses.invalidateAfterCompletion(warehouse.businessUnitCode);
+        }
+    }
+
+    @Override
+    public Warehouse findByBusinessUnitCode(String buCode) {
+        if (buCode == null || buCode.isBlank()) {
+            return null;
+        }
+        return findOne(SELECT_ACTIVE_BY_CODE, buCode.trim());
+    }
+
+    @Override
+    public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+        if (buCode == null || buCode.isBlank()) {
+            return null;
+        }
+        return findOne(SELECT_ACTIVE_BY_CODE_FOR_UPDATE, buCode.trim());
+    }
+
+    @Override
+    public Warehouse findAnyByBusinessUnitCode(String buCode) {
+        if (buCode == null || buCode.isBlank()) {
+            return null;
+        }
+        return findOne(SELECT_ANY_BY_CODE, buCode.trim());
+    }
+
+    @Override
+    public boolean existsAnyByBusinessUnitCode(String buCode) {
+        if (buCode == null || buCode.isBlank()) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(EXISTS_ANY_BY_CODE)) {
+            statement.setString(1, buCode.trim());
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next();
+            }
+        } catch (SQLException e) {
+            throw failure("look up warehouse " + buCode, e);
+        }
+    }
+
+    @Override
+    public LocationStats getLocationStats(String location) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(LOCATION_STATS)) {
+            statement.setString(1, location);
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return new LocationStats(rows.getLong(1), rows.getLong(2));
+            }
+        } catch (SQLException e) {
+            throw failure("read the stats of location " + location, e);
+        }
+    }
+
+    @Override
+    public boolean tryReserve(Location location, int warehouses, long capacity) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = prepare(connection, WarehouseSql.RESERVE,
+                        WarehouseSql.reserveParameters(location, warehouses, capacity))) {
+            return statement.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw failure("reserve room at location " + location.identification, e);
+        }
+    }
+
+    @Override
+    public void release(String location, int warehouses, long capacity) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = prepare(connection, WarehouseSql.RELEASE,
+                        WarehouseSql.releaseParameters(location, warehouses, capacity))) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("release room at location " + location, e);
+        }
+    }
+
+    @Override
+    public Warehouse applyStockDelta(String buCode, int delta) {
+        Warehouse warehouse;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = prepare(connection, WarehouseSql.STOCK_DELTA,
+                        WarehouseSql.stockDeltaParameters(buCode, delta));
+                ResultSet rows = statement.executeQuery()) {
+            if (!rows.next()) {
+                return null;
+            }
+            warehouse = toWarehouse(rows);
+        } catch (SQLException e) {
+            throw failure("move stock of warehouse " + buCode, e);
+        }
+        evictAfterWrite(warehouse.id);
+        return warehouse;
+    }
+
+    private Warehouse findOne(String sql, String buCode) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, buCode);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? toWarehouse(rows) : null;
+            }
+        } catch (SQLException e) {
+            throw failure("look up warehouse " + buCode, e);
+        }
+    }
+
+    // The rows also back DbWarehouse, whose cached copies would otherwise outlive these
+    // writes; drop them now and again once the transaction has ended
+    private void evictAfterWrite(Long id) {
+        entityManagerFactory.getCache().evict(DbWarehouse.class, id);
+        afterCommitExecutor.runAfterCompletion(
+                () -> entityManagerFactory.getCache().evict(DbWarehouse.class, id));
+    }
+
+    // WarehouseSql statements with their positional parameters bound in order
+    private static PreparedStatement prepare(Connection connection, String sql, Object[] parameters)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        return statement;
+    }
+
+    private static Long returnedId(PreparedStatement statement) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            return rows.next() ? rows.getLong(1) : null;
+        }
+    }
+
+    // Reads id followed by WarehouseSql.COLUMNS
+    private static Warehouse toWarehouse(ResultSet row) throws SQLException {
+        var warehouse = new Warehouse();
+        warehouse.id = row.getLong(1);
+        warehouse.businessUnitCode = row.getString(2);
+        warehouse.location = row.getString(3);
+        warehouse.capacity = row.getObject(4, Integer.class);
+        warehouse.stock = row.getObject(5, Integer.class);
+        warehouse.createdAt = row.getObject(6, LocalDateTime.class);
+        warehouse.archivedAt = row.getObject(7, LocalDateTime.class);
+        return warehouse;
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value)
+            throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, LocalDateTime value)
+            throws SQLException {
+        statement.setObject(index, value, Types.TIMESTAMP);
+    }
+
+    // Same exception type the Hibernate adapter surfaces for a failed statement
+    private static PersistenceException failure(String action, SQLException e) {
+        return new PersistenceException("Could not " + action, e);
+    }
+}
@@ -1,20 +1,55 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.stores.AfterCommitExecutor;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+// Typed to its own class: use cases get the port through ConfiguredWarehouseStore
 @ApplicationScoped
+@Typed(WarehouseRepository.class)
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+    static final int HISTORY_FETCH_SIZE = 500;
+    static final int EXPORT_FETCH_SIZE = 1_000;
+
+    @Inject
+    ActiveWarehouseCache activeWarehouses;
+
+    @Inject
+    AfterCommitExecutor afterCommitExecutor;
+
+    // Scalar rows for toWarehouse(Object[]): no managed entities, so nothing to snapshot or dirty-check
+    private static final String VERSION_SELECT =
+            "select w.id, w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt, w.archivedAt "
+                    + "from DbWarehouse w ";
+
     @Override
     public List<Warehouse> getAll() {
         // Active warehouses only
-        return this.list("archivedAt is null").stream().map(DbWarehouse::toWarehouse).toList();
+        return getEntityManager()
+                .createQuery(VERSION_SELECT + "where w.archivedAt is null", Object[].class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList()
+                .stream()
+                .map(WarehouseRepository::toWarehouse)
+                .toList();
     }
 
     @Override
@@ -28,6 +63,8 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
         entity.archivedAt = warehouse.archivedAt; // should be null for active
 
         this.persist(entity);
+        warehouse.id = entity.id;
+        activeWarehouses.invalidateAfterCompletion(entity.businessUnitCode);
     }
 
     @Override
@@ -51,6 +88,13 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
         entity.capacity = warehouse.capacity;
         entity.stock = warehouse.stock;
         entity.archivedAt = warehouse.archivedAt;
+        activeWarehouses.invalidateAfterCompletion(entity.businessUnitCode);
+
+        // Hibernate flushes inserts before updates; write an archive now, or the next
+        // version's insert would meet the unique index on active business units (import.sql)
+        if (entity.archivedAt != null) {
+            flush();
+        }
     }
 
     @Override
@@ -62,6 +106,7 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
 
         if (entity != null) {
             this.delete(entity);
+            activeWarehouses.invalidateAfterCompletion(entity.businessUnitCode);
         }
     }
 
@@ -72,26 +117,278 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
         }
 
         // Return only the ACTIVE warehouse for this BU code
-        DbWarehouse entity =
-                this.find("businessUnitCode = ?1 and archivedAt is null", buCode.trim()).firstResult();
+        DbWarehouse entity = findActiveDbByBusinessUnitCode(buCode);
 
         return entity == null ? null : entity.toWarehouse();
     }
 
+    @Override
+    public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+        DbWarehouse entity = findActiveDbByBusinessUnitCode(buCode);
+        if (entity == null) {
+            return null;
+        }
+        // The entity may come from the cache or be managed since an earlier read; refresh
+        // re-reads the row under FOR UPDATE, after any concurrent writer has committed
+        getEntityManager().refresh(entity, LockModeType.PESSIMISTIC_WRITE);
+        return entity.archivedAt == null ? entity.toWarehouse() : null;
+    }
+
     @Override
     public Warehouse findAnyByBusinessUnitCode(String buCode) {
         if (buCode == null || buCode.isBlank()) {
             return null;
         }
 
-        DbWarehouse entity = this.find("businessUnitCode = ?1", buCode.trim()).firstResult();
-        return entity == null ? null : entity.toWarehouse();
+        List<Object[]> rows = getEntityManager()
+                .createQuery(VERSION_SELECT + "where w.businessUnitCode = ?1", Object[].class)
+                .setParameter(1, buCode.trim())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(1)
+                .getResultList();
+        return rows.isEmpty() ? null : toWarehouse(rows.get(0));
+    }
+
+    @Override
+    public boolean existsAnyByBusinessUnitCode(String buCode) {
+        if (buCode == null || buCode.isBlank()) {
+            return false;
+        }
+        return !getEntityManager()
+                .createQuery("select 1 from DbWarehouse w where w.businessUnitCode = ?1", Integer.class)
+                .setParameter(1, buCode.trim())
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    @Override
+    public LocationStats getLocationStats(String location) {
+        // Served by the partial index on active warehouses per location (import.sql)
+        Object[] row =
+                getEntityManager()
+                        .createQuery(
+                                "select count(w), coalesce(sum(w.capacity), 0) from DbWarehouse w "
+                                        + "where w.location = ?1 and w.archivedAt is null",
+                                Object[].class)
+                        .setParameter(1, location)
+                        .getSingleResult();
+        return new LocationStats(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+
+    @Override
+    public boolean tryReserve(Location location, int warehouses, long capacity) {
+        return nativeQuery(WarehouseSql.RESERVE, WarehouseSql.reserveParameters(location, warehouses, capacity))
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    public void release(String location, int warehouses, long capacity) {
+        nativeQuery(WarehouseSql.RELEASE, WarehouseSql.releaseParameters(location, warehouses, capacity))
+                .executeUpdate();
+    }
+
+    @Override
+    public Warehouse applyStockDelta(String buCode, int delta) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows =
+                nativeQuery(WarehouseSql.STOCK_DELTA, WarehouseSql.stockDeltaParameters(buCode, delta))
+                        .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Long id = ((Number) row[0]).longValue();
+
+        // Native writes bypass the entity cache; drop the row now and again once the
+        // transaction has ended, so that no reader keeps the stock from before the movement
+        evictFromEntityCache(id);
+        afterCommitExecutor.runAfterCompletion(() -> evictFromEntityCache(id));
+
+        var warehouse = new Warehouse();
+        warehouse.id = id;
+        warehouse.businessUnitCode = (String) row[1];
+        warehouse.location = (String) row[2];
+        warehouse.capacity = row[3] == null ? null : ((Number) row[3]).intValue();
+        warehouse.stock = ((Number) row[4]).intValue();
+        warehouse.createdAt = toLocalDateTime(row[5]);
+        warehouse.archivedAt = toLocalDateTime(row[6]);
+        return warehouse;
+    }
+
+    // WarehouseSql statements with their positional parameters bound in order
+    private Query nativeQuery(String sql, Object[] parameters) {
+        Query query = getEntityManager().createNativeQuery(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query;
+    }
+
+    private void evictFromEntityCache(Long id) {
+        getEntityManager().getEntityManagerFactory().getCache().evict(DbWarehouse.class, id);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    // Recomputes the ledger from the active warehouses, e.g. after rows were changed by hand
+    public void rebuildLocationUsage() {
+        var em = getEntityManager();
+        em.createNativeQuery("LOCK TABLE location_usage IN EXCLUSIVE MODE").executeUpdate();
+        em.createNativeQuery("DELETE FROM location_usage").executeUpdate();
+        em.createNativeQuery(
+                        "INSERT INTO location_usage (location, warehouses, capacity, version) "
+                                + "SELECT location, count(*), coalesce(sum(capacity), 0), 0 FROM warehouse "
+                                + "WHERE archivedAt IS NULL GROUP BY location")
+                .executeUpdate();
+    }
+
+    // Every version of the business unit, oldest first, in the order of ix_warehouse_history
+    // (import.sql); must be consumed inside a transaction and closed.
+    public Stream<Warehouse> streamHistory(String buCode) {
+        return streamVersions(
+                VERSION_SELECT
+                        + "where w.businessUnitCode = :bu order by w.createdAt, w.archivedAt",
+                "bu",
+                buCode.trim());
+    }
+
+    // The version of each business unit that was active at the given time, by business unit code
+    public Stream<Warehouse> streamAsOf(LocalDateTime at) {
+        return streamVersions(
+                VERSION_SELECT
+                        + "where w.createdAt <= :at and (w.archivedAt is null or w.archivedAt > :at) "
+                        + "order by w.businessUnitCode, w.createdAt",
+                "at",
+                at);
+    }
+
+    // Active warehouses as (businessUnitCode, location, capacity, stock) rows, fetched through a
+    // server-side cursor; must be consumed inside a transaction and closed.
+    public Stream<Object[]> streamActiveRows() {
+        return getEntityManager()
+                .createQuery(
+                        "select w.businessUnitCode, w.location, w.capacity, w.stock "
+                                + "from DbWarehouse w where w.archivedAt is null",
+                        Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private Stream<Warehouse> streamVersions(String query, String name, Object value) {
+        return getEntityManager()
+                .createQuery(query, Object[].class)
+                .setParameter(name, value)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, HISTORY_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(WarehouseRepository::toWarehouse);
+    }
+
+    private static Warehouse toWarehouse(Object[] row) {
+        var warehouse = new Warehouse();
+        warehouse.id = (Long) row[0];
+        warehouse.businessUnitCode = (String) row[1];
+        warehouse.location = (String) row[2];
+        warehouse.capacity = (Integer) row[3];
+        warehouse.stock = (Integer) row[4];
+        warehouse.createdAt = (LocalDateTime) row[5];
+        warehouse.archivedAt = (LocalDateTime) row[6];
+        return warehouse;
     }
 
     public DbWarehouse findActiveDbByBusinessUnitCode(String buCode) {
+        return findActiveDbByBusinessUnitCode(buCode, LockModeType.NONE);
+    }
+
+    public DbWarehouse findActiveDbByBusinessUnitCode(String buCode, LockModeType lockMode) {
+        if (buCode == null || buCode.isBlank()) {
+            return null;
+        }
+        String code = buCode.trim();
+
+        // A cached id is only a hint: the row may have been archived or deleted since
+        Long cachedId = activeWarehouses.get(code);
+        if (cachedId != null) {
+            DbWarehouse entity = getEntityManager().find(DbWarehouse.class, cachedId, lockMode);
+            if (entity != null && entity.archivedAt == null && code.equals(entity.businessUnitCode)) {
+                return entity;
+            }
+            activeWarehouses.evictStale(code);
+        }
+
+        DbWarehouse entity =
+                find("businessUnitCode = ?1 and archivedAt is null", code).withLock(lockMode).firstResult();
+        if (entity != null) {
+            activeWarehouses.put(code, entity.id);
+        }
+        return entity;
+    }
+
+    // Without touching the database; a hint that may be stale, for checks that run before the
+    // caller takes its locks and confirm what they act on
+    public Long cachedActiveId(String buCode) {
         if (buCode == null || buCode.isBlank()) {
             return null;
         }
-        return find("businessUnitCode = ?1 and archivedAt is null", buCode.trim()).firstResult();
+        return activeWarehouses.get(buCode.trim());
+    }
+
+    // Business unit codes of the given warehouse rows, archived ones included
+    public Map<Long, String> findBusinessUnitCodesByIds(Collection<Long> ids) {
+        Map<Long, String> codes = new HashMap<>();
+        if (ids.isEmpty()) {
+            return codes;
+        }
+        List<Object[]> rows =
+                getEntityManager()
+                        .createQuery(
+                                "select w.id, w.businessUnitCode from DbWarehouse w where w.id in :ids",
+                                Object[].class)
+                        .setParameter("ids", ids)
+                        .getResultList();
+        for (Object[] row : rows) {
+            codes.put((Long) row[0], (String) row[1]);
+        }
+        return codes;
+    }
+
+    // Locks in id order, so that concurrent callers cannot deadlock on each other
+    public void lockByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        getEntityManager()
+                .createQuery("select w.id from DbWarehouse w where w.id in :ids order by w.id", Long.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    public Map<String, Long> findActiveIdsByBusinessUnitCodes(Collection<String> buCodes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (buCodes.isEmpty()) {
+            return ids;
+        }
+
+        List<Object[]> rows =
+                getEntityManager()
+                        .createQuery(
+                                "select w.businessUnitCode, w.id from DbWarehouse w "
+                                        + "where w.businessUnitCode in :codes and w.archivedAt is null",
+                                Object[].class)
+                        .setParameter("codes", buCodes)
+                        .getResultList();
+
+        for (Object[] row : rows) {
+            ids.put((String) row[0], (Long) row[1]);
+        }
+        return ids;
     }
 }
@@ -0,0 +1,67 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+
+// The ledger and stock writes both WarehouseStore adapters issue. One text with JDBC-style
+// positional parameters and one place that lists their values in order: the repository
+// runs it as a native query, JdbcWarehouseStore as a prepared statement.
+final class WarehouseSql {
+
+    static final String COLUMNS =
+            "businessUnitCode, location, capacity, stock, createdAt, archivedAt";
+
+    // One statement per reservation: ON CONFLICT locks the ledger row and re-checks the
+    // limits against its latest committed values, so concurrent writers serialize on the
+    // row of their location only. The SELECT guards the first insert for a location.
+    static final String RESERVE =
+            "INSERT INTO location_usage (location, warehouses, capacity, version) "
+                    + "SELECT ?, ?, ?, 0 "
+                    + "WHERE (? <= 0 OR ? <= ?) "
+                    + "AND (? <= 0 OR ? <= ?) "
+                    + "ON CONFLICT (location) DO UPDATE SET "
+                    + "warehouses = location_usage.warehouses + EXCLUDED.warehouses, "
+                    + "capacity = location_usage.capacity + EXCLUDED.capacity, "
+                    + "version = location_usage.version + 1 "
+                    + "WHERE (EXCLUDED.warehouses <= 0 "
+                    + "OR location_usage.warehouses + EXCLUDED.warehouses <= ?) "
+                    + "AND (EXCLUDED.capacity <= 0 "
+                    + "OR location_usage.capacity + EXCLUDED.capacity <= ?)";
+
+    static final String RELEASE =
+            "UPDATE location_usage SET warehouses = warehouses - ?, "
+                    + "capacity = capacity - ?, version = version + 1 "
+                    + "WHERE location = ?";
+
+    // Single conditional write: no read-modify-write, so concurrent movements on one
+    // warehouse only serialize on its row lock and can never over- or under-run the range.
+    // A warehouse without a capacity has no upper bound.
+    static final String STOCK_DELTA =
+            "UPDATE warehouse SET stock = stock + ? "
+                    + "WHERE businessUnitCode = ? AND archivedAt IS NULL "
+                    + "AND stock + ? >= 0 AND (capacity IS NULL OR stock + ? <= capacity) "
+                    + "RETURNING id, " + COLUMNS;
+
+    private WarehouseSql() {
+    }
+
+    // Parameter values in statement order; warehouses and limits as Integer, capacities
+    // as Long, so both adapters bind the same SQL types
+    static Object[] reserveParameters(Location location, int warehouses, long capacity) {
+        int maxWarehouses = location.maxNumberOfWarehouses;
+        long maxCapacity = location.maxCapacity;
+        return new Object[] {
+            location.identification, warehouses, capacity,
+            warehouses, warehouses, maxWarehouses,
+            capacity, capacity, maxCapacity,
+            maxWarehouses, maxCapacity
+        };
+    }
+
+    static Object[] releaseParameters(String location, int warehouses, long capacity) {
+        return new Object[] {warehouses, capacity, location};
+    }
+
+    static Object[] stockDeltaParameters(String buCode, int delta) {
+        return new Object[] {delta, buCode, delta, delta};
+    }
+}
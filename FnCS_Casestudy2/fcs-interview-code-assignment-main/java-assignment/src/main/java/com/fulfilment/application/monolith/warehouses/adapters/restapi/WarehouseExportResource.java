@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.api.JsonArrayStream;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+
+// Streaming counterpart of GET /warehouse: the same fields, written from the cursor without
+// building a DbWarehouse, domain Warehouse or API bean per row
+@Path("warehouse")
+@ApplicationScoped
+@Produces("application/json")
+public class WarehouseExportResource {
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @GET
+    @Path("export")
+    public StreamingOutput export() {
+        return JsonArrayStream.of(objectMapper, warehouseRepository::streamActiveRows, (json, row) -> {
+            json.writeStartObject();
+            json.writeStringField("businessUnitCode", (String) row[0]);
+            json.writeStringField("location", (String) row[1]);
+            writeInteger(json, "capacity", (Integer) row[2]);
+            writeInteger(json, "stock", (Integer) row[3]);
+            json.writeEndObject();
+        });
+    }
+
+    // Both columns are nullable; unboxing a null would end the stream after the 200 has gone out
+    private static void writeInteger(JsonGenerator json, String name, Integer value) throws IOException {
+        json.writeFieldName(name);
+        if (value == null) {
+            json.writeNull();
+        } else {
+            json.writeNumber(value);
+        }
+    }
+}
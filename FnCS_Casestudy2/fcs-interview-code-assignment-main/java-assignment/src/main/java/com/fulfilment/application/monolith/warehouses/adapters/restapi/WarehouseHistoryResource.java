@@ -0,0 +1,57 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.api.JsonArrayStream;
+import com.fulfilment.application.monolith.api.exception.InvalidInputException;
+import com.fulfilment.application.monolith.api.exception.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Read-only views on the archived versions that replace and archive leave behind.
+// Results are written as they are fetched, so long histories never sit in memory.
+@Path("warehouse")
+@ApplicationScoped
+@Produces("application/json")
+public class WarehouseHistoryResource {
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @GET
+    @Path("{businessUnitCode}/history")
+    public StreamingOutput history(@PathParam("businessUnitCode") String businessUnitCode) {
+        if (businessUnitCode == null || businessUnitCode.isBlank()) {
+            throw new InvalidInputException("Warehouse businessUnitCode was not set.");
+        }
+        if (!warehouseRepository.existsAnyByBusinessUnitCode(businessUnitCode)) {
+            throw new WarehouseNotFoundException(businessUnitCode.trim());
+        }
+        return JsonArrayStream.of(
+                objectMapper, () -> warehouseRepository.streamHistory(businessUnitCode), JsonGenerator::writeObject);
+    }
+
+    @GET
+    @Path("as-of")
+    public StreamingOutput asOf(@QueryParam("timestamp") String timestamp) {
+        if (timestamp == null || timestamp.isBlank()) {
+            throw new InvalidInputException("timestamp was not set.");
+        }
+        LocalDateTime at;
+        try {
+            at = LocalDateTime.parse(timestamp.trim());
+        } catch (DateTimeParseException e) {
+            throw new InvalidInputException("timestamp must be an ISO-8601 local date-time.");
+        }
+        return JsonArrayStream.of(objectMapper, () -> warehouseRepository.streamAsOf(at), JsonGenerator::writeObject);
+    }
+}
@@ -1,10 +1,12 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
-import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.StockMovementUseCase;
 import com.warehouse.api.WarehouseResource;
+import com.warehouse.api.beans.StockMovement;
 import com.warehouse.api.beans.Warehouse;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
@@ -18,7 +20,7 @@ import java.util.List;
 public class WarehouseResourceImpl implements WarehouseResource {
 
     @Inject
-    WarehouseRepository warehouseRepository;
+    WarehouseStore warehouseStore;
 
     @Inject
     CreateWarehouseUseCase createWarehouseUseCase;
@@ -26,10 +28,13 @@ public class WarehouseResourceImpl implements WarehouseResource {
     ReplaceWarehouseUseCase replaceWarehouseUseCase;
     @Inject
     ArchiveWarehouseUseCase archiveWarehouseUseCase;
+    @Inject
+    StockMovementUseCase stockMovementUseCase;
 
     @Override
     public List<Warehouse> listAllWarehousesUnits() {
-        return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+        // Through the port, so the configured adapter serves the list; both read it as a projection
+        return warehouseStore.getAll().stream().map(WarehouseResourceImpl::toWarehouseResponse).toList();
     }
 
     @Override
@@ -47,7 +52,7 @@ public class WarehouseResourceImpl implements WarehouseResource {
     public Warehouse getAWarehouseUnitByID(String id) {
         String code = requireNonBlank(id, "Warehouse id was not set.");
 
-        var warehouse = warehouseRepository.findByBusinessUnitCode(code);
+        var warehouse = warehouseStore.findByBusinessUnitCode(code);
         if (warehouse == null || warehouse.archivedAt != null) {
             throw new WebApplicationException("Warehouse not found: " + id, 404);
         }
@@ -60,7 +65,7 @@ public class WarehouseResourceImpl implements WarehouseResource {
     public void archiveAWarehouseUnitByID(String id) {
         String code = requireNonBlank(id, "Warehouse id was not set.");
 
-        var warehouse = warehouseRepository.findByBusinessUnitCode(code);
+        var warehouse = warehouseStore.findByBusinessUnitCode(code);
         if (warehouse == null || warehouse.archivedAt != null) {
             throw new WebApplicationException("Active warehouse not found: " + id, 404);
         }
@@ -81,7 +86,7 @@ public class WarehouseResourceImpl implements WarehouseResource {
         replaceWarehouseUseCase.replace(domain);
 
         // return updated state from DB (source of truth)
-        var updated = warehouseRepository.findByBusinessUnitCode(domain.businessUnitCode);
+        var updated = warehouseStore.findByBusinessUnitCode(domain.businessUnitCode);
         if (updated == null || updated.archivedAt != null) {
             throw new WebApplicationException("Warehouse not found after replacement.", 500);
         }
@@ -89,7 +94,18 @@ public class WarehouseResourceImpl implements WarehouseResource {
         return toWarehouseResponse(updated);
     }
 
-    private Warehouse toWarehouseResponse(
+    @Override
+    @Transactional
+    public Warehouse moveStockOfTheActiveWarehouse(String businessUnitCode, @NotNull StockMovement data) {
+        String code = requireNonBlank(businessUnitCode, "Warehouse businessUnitCode was not set.");
+        if (data == null) {
+            throw new WebApplicationException("Request body was not set.", 422);
+        }
+
+        return toWarehouseResponse(stockMovementUseCase.move(code, data.getQuantity()));
+    }
+
+    private static Warehouse toWarehouseResponse(
             com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
 
         var response = new Warehouse();
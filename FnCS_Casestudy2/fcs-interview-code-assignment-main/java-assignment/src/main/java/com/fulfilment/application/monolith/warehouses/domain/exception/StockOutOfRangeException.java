@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.warehouses.domain.exception;
+
+import com.fulfilment.application.monolith.api.exception.BusinessException;
+
+public class StockOutOfRangeException extends BusinessException {
+
+    public StockOutOfRangeException(String businessUnitCode, int quantity) {
+        super("Moving " + quantity + " would take the stock of warehouse " + businessUnitCode
+                + " below 0 or above its capacity.");
+    }
+}
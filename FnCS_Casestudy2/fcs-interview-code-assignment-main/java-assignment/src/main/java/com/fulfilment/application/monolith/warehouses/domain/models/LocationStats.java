@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+// Aggregate over the active warehouses of one location
+public class LocationStats {
+
+    public long activeWarehouses;
+
+    public long totalCapacity;
+
+    public LocationStats(long activeWarehouses, long totalCapacity) {
+        this.activeWarehouses = activeWarehouses;
+        this.totalCapacity = totalCapacity;
+    }
+}
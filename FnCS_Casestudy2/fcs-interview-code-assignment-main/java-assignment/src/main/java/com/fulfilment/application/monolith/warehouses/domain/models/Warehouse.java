@@ -1,9 +1,15 @@
 package com.fulfilment.application.monolith.warehouses.domain.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 
 public class Warehouse {
 
+    // Row of this version, set by the store; other rows refer to a version by it
+    @JsonIgnore
+    public Long id;
+
     // unique identifier
     public String businessUnitCode;
 
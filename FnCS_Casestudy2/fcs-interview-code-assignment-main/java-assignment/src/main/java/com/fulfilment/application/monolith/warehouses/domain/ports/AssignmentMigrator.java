@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+// Moves whatever references a warehouse by its row (e.g. fulfilment assignments)
+// from the version a replace archived onto the version it created.
+public interface AssignmentMigrator {
+    void migrateToActive(Long archivedWarehouseId, Long activeWarehouseId);
+}
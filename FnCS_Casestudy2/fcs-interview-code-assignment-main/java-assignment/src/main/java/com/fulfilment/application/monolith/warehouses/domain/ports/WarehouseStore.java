@@ -1,5 +1,7 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 
 import java.util.List;
@@ -16,5 +18,27 @@ public interface WarehouseStore {
 
     Warehouse findByBusinessUnitCode(String buCode);
 
+    // The active warehouse with its row locked until the transaction ends: concurrent archives,
+    // replaces and stock movements of it wait, and the one that comes second finds it archived
+    Warehouse findByBusinessUnitCodeForUpdate(String buCode);
+
     Warehouse findAnyByBusinessUnitCode(String buCode);
+
+    // Whether any version, archived or active, uses the business unit code
+    default boolean existsAnyByBusinessUnitCode(String buCode) {
+        return findAnyByBusinessUnitCode(buCode) != null;
+    }
+
+    LocationStats getLocationStats(String location);
+
+    // Adds the deltas to the usage of the location if the result stays within its limits;
+    // deltas <= 0 are always accepted. Returns false, changing nothing, otherwise.
+    boolean tryReserve(Location location, int warehouses, long capacity);
+
+    void release(String location, int warehouses, long capacity);
+
+    // Adds delta to the stock of the active warehouse if the result stays within 0..capacity,
+    // or is not negative for a warehouse without capacity; returns the updated warehouse, or
+    // null if there is no active warehouse or the stock would leave that range
+    Warehouse applyStockDelta(String buCode, int delta);
 }
@@ -30,8 +30,17 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
             throw new WarehouseAlreadyArchivedException();
         }
 
-        warehouse.archivedAt = LocalDateTime.now();
-        warehouseStore.update(warehouse);
+        // The caller read it without a lock; a concurrent archive or replace may have won since
+        Warehouse current =
+                warehouseStore.findByBusinessUnitCodeForUpdate(warehouse.businessUnitCode);
+        if (current == null) {
+            throw new WarehouseAlreadyArchivedException();
+        }
+
+        current.archivedAt = LocalDateTime.now();
+        warehouseStore.update(current);
+        warehouseStore.release(
+                current.location, 1, current.capacity == null ? 0 : current.capacity);
     }
 
 }
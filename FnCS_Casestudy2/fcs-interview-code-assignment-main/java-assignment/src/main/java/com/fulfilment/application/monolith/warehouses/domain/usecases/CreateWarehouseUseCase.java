@@ -1,7 +1,5 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
-import com.fulfilment.application.monolith.warehouses.domain.exception.LocationCapacityExceededException;
-import com.fulfilment.application.monolith.warehouses.domain.exception.MaxWarehousesReachedException;
 import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseAlreadyExistsException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
@@ -12,7 +10,6 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.WebApplicationException;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @ApplicationScoped
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
@@ -32,9 +29,7 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
         WarehouseUseCaseSupport.normalizeWarehouse(warehouse);
 
         // Business Unit Code must be unique
-        Warehouse existing =
-                warehouseStore.findAnyByBusinessUnitCode(warehouse.businessUnitCode);
-        if (existing != null) {
+        if (warehouseStore.existsAnyByBusinessUnitCode(warehouse.businessUnitCode)) {
             throw new WarehouseAlreadyExistsException(warehouse.businessUnitCode);
         }
 
@@ -44,22 +39,8 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
         WarehouseUseCaseSupport.validateCapacityAndStock(warehouse, location);
 
-        List<Warehouse> activeWarehouses = warehouseStore.getAll();
-        long activeCountAtLocation =
-                WarehouseUseCaseSupport.countActiveAtLocation(
-                        activeWarehouses, warehouse.location);
-
-        if (activeCountAtLocation >= location.maxNumberOfWarehouses) {
-            throw new MaxWarehousesReachedException(warehouse.location);
-        }
-
-        int totalCapacityAtLocation =
-                WarehouseUseCaseSupport.sumCapacityAtLocation(
-                        activeWarehouses, warehouse.location);
-
-        if (totalCapacityAtLocation + warehouse.capacity > location.maxCapacity) {
-            throw new LocationCapacityExceededException(warehouse.location);
-        }
+        WarehouseUseCaseSupport.reserveAtLocation(
+                warehouseStore, location, 1, warehouse.capacity);
 
         warehouse.createdAt = LocalDateTime.now();
         warehouse.archivedAt = null;
@@ -3,23 +3,28 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import com.fulfilment.application.monolith.warehouses.domain.exception.*;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AssignmentMigrator;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @ApplicationScoped
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
     private final WarehouseStore warehouseStore;
     private final LocationResolver locationResolver;
+    private final AssignmentMigrator assignmentMigrator;
 
-    public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+    public ReplaceWarehouseUseCase(
+            WarehouseStore warehouseStore,
+            LocationResolver locationResolver,
+            AssignmentMigrator assignmentMigrator) {
         this.warehouseStore = warehouseStore;
         this.locationResolver = locationResolver;
+        this.assignmentMigrator = assignmentMigrator;
     }
 
     @Override
@@ -28,8 +33,9 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
         WarehouseUseCaseSupport.validateRequiredFields(newWarehouse);
         WarehouseUseCaseSupport.normalizeWarehouse(newWarehouse);
 
+        // Locked, so stock movements and other replaces or archives of it wait for this one
         Warehouse current =
-                warehouseStore.findByBusinessUnitCode(newWarehouse.businessUnitCode);
+                warehouseStore.findByBusinessUnitCodeForUpdate(newWarehouse.businessUnitCode);
 
         if (current == null) {
             throw new ActiveWarehouseNotFoundException(newWarehouse.businessUnitCode);
@@ -53,34 +59,22 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
             throw new StockMismatchOnReplaceException();
         }
 
-        List<Warehouse> activeWarehouses = warehouseStore.getAll();
-        boolean movingLocation =
-                !newWarehouse.location.equals(current.location);
-
-        long countAtTarget =
-                WarehouseUseCaseSupport.countActiveAtLocation(
-                        activeWarehouses, newWarehouse.location);
-
-        if (movingLocation && countAtTarget >= targetLocation.maxNumberOfWarehouses) {
-            throw new MaxWarehousesReachedException(newWarehouse.location);
-        }
-
         // Single warehouse cannot exceed location cap
         WarehouseUseCaseSupport.validateCapacityNotExceedingLocation(
                 newWarehouse, targetLocation);
 
-        int sumCapacityAtTarget =
-                WarehouseUseCaseSupport.sumCapacityAtLocation(
-                        activeWarehouses, newWarehouse.location);
+        boolean movingLocation =
+                !newWarehouse.location.equals(current.location);
 
         int currentCap = current.capacity == null ? 0 : current.capacity;
 
-        int resultingCapacityAtTarget = movingLocation
-                ? sumCapacityAtTarget + newWarehouse.capacity
-                : sumCapacityAtTarget - currentCap + newWarehouse.capacity;
-
-        if (resultingCapacityAtTarget > targetLocation.maxCapacity) {
-            throw new LocationCapacityExceededException(newWarehouse.location);
+        if (movingLocation) {
+            WarehouseUseCaseSupport.reserveAtLocation(
+                    warehouseStore, targetLocation, 1, newWarehouse.capacity);
+            warehouseStore.release(current.location, 1, currentCap);
+        } else {
+            WarehouseUseCaseSupport.reserveAtLocation(
+                    warehouseStore, targetLocation, 0, (long) newWarehouse.capacity - currentCap);
         }
 
         // --- archive + create (history) ---
@@ -99,6 +93,9 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
         created.archivedAt = null;
 
         warehouseStore.create(created);
+
+        // Assignments still point at the archived row; move them in the same transaction
+        assignmentMigrator.migrateToActive(current.id, created.id);
     }
 
 }
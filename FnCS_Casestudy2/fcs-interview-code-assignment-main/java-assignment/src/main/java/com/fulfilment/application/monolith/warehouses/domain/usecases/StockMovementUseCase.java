@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.exception.ActiveWarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.StockOutOfRangeException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockMovementOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class StockMovementUseCase implements StockMovementOperation {
+
+    private final WarehouseStore warehouseStore;
+
+    public StockMovementUseCase(WarehouseStore warehouseStore) {
+        this.warehouseStore = warehouseStore;
+    }
+
+    @Override
+    public Warehouse move(String businessUnitCode, Integer quantity) {
+
+        if (businessUnitCode == null || businessUnitCode.isBlank()) {
+            throw new WarehouseValidationException(
+                    "Warehouse businessUnitCode was not set on request.");
+        }
+        if (quantity == null) {
+            throw new WarehouseValidationException(
+                    "Stock movement quantity was not set on request.");
+        }
+        if (quantity == 0) {
+            throw new WarehouseValidationException(
+                    "Stock movement quantity must not be 0.");
+        }
+
+        // Stock moves in place: no archived version is written per movement
+        String code = businessUnitCode.trim();
+        Warehouse moved = warehouseStore.applyStockDelta(code, quantity);
+        if (moved != null) {
+            return moved;
+        }
+
+        // Only read on a rejected movement, to tell the two causes apart
+        if (warehouseStore.findByBusinessUnitCode(code) == null) {
+            throw new ActiveWarehouseNotFoundException(code);
+        }
+        throw new StockOutOfRangeException(code, quantity);
+    }
+
+}
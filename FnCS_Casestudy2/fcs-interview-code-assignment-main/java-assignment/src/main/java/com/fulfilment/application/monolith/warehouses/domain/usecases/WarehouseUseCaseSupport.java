@@ -3,15 +3,16 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 import com.fulfilment.application.monolith.warehouses.domain.exception.CapacityBelowStockException;
 import com.fulfilment.application.monolith.warehouses.domain.exception.CapacityExceedsLocationLimitException;
 import com.fulfilment.application.monolith.warehouses.domain.exception.InvalidWarehouseLocationException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.LocationCapacityExceededException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.MaxWarehousesReachedException;
 import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseValidationException;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.ws.rs.WebApplicationException;
 
-import java.util.List;
-import java.util.Objects;
-
 final class WarehouseUseCaseSupport {
 
     private WarehouseUseCaseSupport() {
@@ -82,23 +83,19 @@ final class WarehouseUseCaseSupport {
         }
     }
 
-    static long countActiveAtLocation(
-            List<Warehouse> activeWarehouses, String location) {
-
-        return activeWarehouses.stream()
-                .filter(w -> location.equals(w.location))
-                .count();
-    }
-
-    static int sumCapacityAtLocation(
-            List<Warehouse> activeWarehouses, String location) {
+    // Claims room at the location in a single conditional write; the stats are only
+    // read to name the limit that was hit
+    static void reserveAtLocation(
+            WarehouseStore warehouseStore, Location location, int warehouses, long capacity) {
 
-        return activeWarehouses.stream()
-                .filter(w -> location.equals(w.location))
-                .map(w -> w.capacity)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .sum();
+        if (warehouseStore.tryReserve(location, warehouses, capacity)) {
+            return;
+        }
+        LocationStats stats = warehouseStore.getLocationStats(location.identification);
+        if (warehouses > 0
+                && stats.activeWarehouses + warehouses > location.maxNumberOfWarehouses) {
+            throw new MaxWarehousesReachedException(location.identification);
+        }
+        throw new LocationCapacityExceededException(location.identification);
     }
 }
-
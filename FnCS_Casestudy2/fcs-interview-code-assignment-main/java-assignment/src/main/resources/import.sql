@@ -15,3 +15,37 @@ VALUES (2, 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null);
 INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
 VALUES (3, 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null);
 ALTER SEQUENCE warehouse_seq RESTART WITH 4;
+
+-- Which mechanism owns an index: a plain list of columns is declared with @Index on its
+-- entity, so that schema generation creates it with the table (Fulfilment: the three
+-- ix_fulfilment_*_page; LegacyStoreOutbox: ix_legacy_store_outbox_store). Anything JPA cannot
+-- express - a partial index, INCLUDE columns, a collation, a unique index over part of the
+-- rows - is created below, after the seed rows. warehouse-partitioning.sql recreates the
+-- warehouse ones for the partitioned table. No index is defined in both places.
+
+-- Active warehouses per location, for the location count and capacity checks
+CREATE INDEX ix_warehouse_active_location ON warehouse (location) INCLUDE (capacity) WHERE archivedAt IS NULL;
+
+-- At most one active version per business unit, whatever the use cases get wrong
+CREATE UNIQUE INDEX ux_warehouse_active_business_unit ON warehouse (businessUnitCode) WHERE archivedAt IS NULL;
+
+-- Version history per business unit, for the history and as-of queries. stock is left out so
+-- that stock movements stay HOT updates and never have to touch an index
+CREATE INDEX ix_warehouse_history ON warehouse (businessUnitCode, createdAt, archivedAt) INCLUDE (location, capacity);
+
+-- Ledger of active warehouses per location, kept up to date by the warehouse use cases
+INSERT INTO location_usage(location, warehouses, capacity, version)
+SELECT location, count(*), sum(capacity), 0 FROM warehouse WHERE archivedAt IS NULL GROUP BY location;
+
+-- Due legacy store outbox rows, for the dispatcher's claim
+CREATE INDEX ix_legacy_store_outbox_pending ON legacy_store_outbox (nextAttemptAt, id) WHERE status = 'PENDING';
+
+-- Keyset pages of stores and products in (name, id) order. The "C" collation lets the same
+-- index serve the name prefix LIKE; rows without a name are listed after the others by id
+CREATE INDEX ix_store_page ON store (name COLLATE "C", id);
+CREATE INDEX ix_store_page_unnamed ON store (id) WHERE name IS NULL;
+CREATE INDEX ix_product_page ON product (name COLLATE "C", id, price);
+CREATE INDEX ix_product_page_unnamed ON product (id, price) WHERE name IS NULL;
+-- A narrow price range reads its rows from here and sorts them into page order, instead of
+-- walking ix_product_page past every named product outside the range
+CREATE INDEX ix_product_price ON product (price, name COLLATE "C", id);
@@ -0,0 +1,20 @@
+-- Splits warehouse into an active partition (archivedAt IS NULL) and an archived one, so that
+-- queries filtering on active warehouses only ever touch the small active segment. Replace
+-- and archive move a row across by updating archivedAt.
+-- Runs against an existing unpartitioned table and migrates its rows. Enable for dev/test with
+-- quarkus.hibernate-orm.sql-load-script=import.sql,warehouse-partitioning.sql
+-- A partitioned table cannot have a primary key without the partition key, and archivedAt is
+-- nullable, so id keeps a plain index; ids come from warehouse_seq and stay unique.
+ALTER TABLE warehouse RENAME TO warehouse_unpartitioned;
+CREATE TABLE warehouse (LIKE warehouse_unpartitioned INCLUDING DEFAULTS) PARTITION BY LIST (archivedAt);
+CREATE TABLE warehouse_active PARTITION OF warehouse FOR VALUES IN (NULL);
+CREATE TABLE warehouse_archived PARTITION OF warehouse DEFAULT;
+INSERT INTO warehouse SELECT * FROM warehouse_unpartitioned;
+DROP TABLE warehouse_unpartitioned;
+CREATE INDEX ix_warehouse_id ON warehouse (id);
+CREATE INDEX ix_warehouse_history ON warehouse (businessUnitCode, createdAt, archivedAt) INCLUDE (location, capacity);
+CREATE INDEX ix_warehouse_active_location ON warehouse_active (location) INCLUDE (capacity);
+-- A unique index on the parent would have to include archivedAt; on the active partition
+-- it needs no predicate to keep one active version per business unit
+CREATE UNIQUE INDEX ux_warehouse_active_business_unit ON warehouse_active (businessUnitCode);
+ANALYZE warehouse;
@@ -0,0 +1,88 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentTallyTest {
+
+    @Test
+    void recordsAssignmentsOnce() {
+        AssignmentTally tally = new AssignmentTally();
+        tally.record(1, 10, 100);
+        tally.record(1, 10, 100);
+
+        assertEquals(1, tally.size());
+        assertTrue(tally.contains(1, 10, 100));
+        assertEquals(AssignmentVerdict.DUPLICATE, tally.evaluate(1, 10, 100));
+    }
+
+    @Test
+    void removeAfterRepeatedRecordDropsTheAssignment() {
+        AssignmentTally tally = new AssignmentTally();
+        tally.record(1, 10, 100);
+        tally.record(1, 10, 100);
+        tally.remove(1, 10, 100);
+
+        assertFalse(tally.contains(1, 10, 100));
+        assertEquals(0, tally.size());
+        assertEquals(AssignmentVerdict.ALLOWED, tally.evaluate(1, 10, 100));
+        // The shared counts were not raised by the repeat either
+        assertEquals(AssignmentVerdict.ALLOWED, tally.evaluate(2, 11, 100));
+    }
+
+    @Test
+    void rejectsThirdWarehouseForStoreProduct() {
+        AssignmentTally tally = new AssignmentTally();
+        tally.record(1, 10, 100);
+        tally.record(1, 10, 101);
+
+        assertEquals(AssignmentVerdict.MAX_WAREHOUSES_PER_STORE_PRODUCT, tally.evaluate(1, 10, 102));
+        assertEquals(AssignmentVerdict.ALLOWED, tally.evaluate(2, 10, 102));
+    }
+
+    @Test
+    void rejectsFourthWarehouseForStore() {
+        AssignmentTally tally = new AssignmentTally();
+        tally.record(1, 10, 100);
+        tally.record(1, 11, 101);
+        tally.record(1, 12, 102);
+
+        assertEquals(AssignmentVerdict.MAX_WAREHOUSES_PER_STORE, tally.evaluate(1, 13, 103));
+        assertEquals(AssignmentVerdict.ALLOWED, tally.evaluate(1, 13, 102));
+    }
+
+    @Test
+    void rejectsSixthProductForWarehouse() {
+        AssignmentTally tally = new AssignmentTally();
+        for (long product = 10; product < 15; product++) {
+            tally.record(product, product, 100);
+        }
+
+        assertEquals(AssignmentVerdict.MAX_PRODUCTS_PER_WAREHOUSE, tally.evaluate(20, 15, 100));
+        assertEquals(AssignmentVerdict.ALLOWED, tally.evaluate(20, 14, 100));
+    }
+
+    @Test
+    void removeKeepsSharedCountsUntilLastAssignmentGoes() {
+        AssignmentTally tally = new AssignmentTally();
+        tally.record(1, 10, 100);
+        tally.record(1, 11, 100);
+        tally.record(2, 10, 100);
+
+        tally.remove(1, 10, 100);
+        assertFalse(tally.contains(1, 10, 100));
+        assertEquals(2, tally.size());
+        // store 1 still uses warehouse 100 through product 11, and product 10 is still there for store 2
+        assertEquals(AssignmentVerdict.ALLOWED, tally.evaluate(1, 10, 100));
+
+        tally.remove(1, 11, 100);
+        tally.remove(2, 10, 100);
+        tally.remove(2, 10, 100);
+        assertEquals(0, tally.size());
+        for (long product = 20; product < 25; product++) {
+            tally.record(3, product, 100);
+        }
+        assertEquals(AssignmentVerdict.MAX_PRODUCTS_PER_WAREHOUSE, tally.evaluate(1, 10, 100));
+    }
+}
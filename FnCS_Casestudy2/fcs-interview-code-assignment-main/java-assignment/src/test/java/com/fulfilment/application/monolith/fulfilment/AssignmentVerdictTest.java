@@ -0,0 +1,52 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.AssignmentAlreadyExistsException;
+import com.fulfilment.application.monolith.api.exception.MaxProductsPerWarehouseExceededException;
+import com.fulfilment.application.monolith.api.exception.MaxWarehousesPerStoreExceededException;
+import com.fulfilment.application.monolith.api.exception.MaxWarehousesPerStoreProductExceededException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentVerdictTest {
+
+    @Test
+    void allowsAssignmentBelowAllLimits() {
+        assertEquals(AssignmentVerdict.ALLOWED, AssignmentVerdict.of(false, 1, false, 2, false, 4));
+        assertDoesNotThrow(AssignmentVerdict.ALLOWED::enforce);
+    }
+
+    @Test
+    void duplicateWinsOverEveryLimit() {
+        assertEquals(AssignmentVerdict.DUPLICATE, AssignmentVerdict.of(true, 2, true, 3, true, 5));
+        assertThrows(AssignmentAlreadyExistsException.class, AssignmentVerdict.DUPLICATE::enforce);
+    }
+
+    @Test
+    void rejectsThirdWarehouseForStoreProduct() {
+        AssignmentVerdict verdict = AssignmentVerdict.of(false, 2, true, 2, false, 0);
+
+        assertEquals(AssignmentVerdict.MAX_WAREHOUSES_PER_STORE_PRODUCT, verdict);
+        assertThrows(MaxWarehousesPerStoreProductExceededException.class, verdict::enforce);
+    }
+
+    @Test
+    void rejectsFourthWarehouseForStoreOnlyWhenWarehouseIsNew() {
+        AssignmentVerdict newWarehouse = AssignmentVerdict.of(false, 0, false, 3, false, 0);
+        AssignmentVerdict knownWarehouse = AssignmentVerdict.of(false, 0, true, 3, false, 0);
+
+        assertEquals(AssignmentVerdict.MAX_WAREHOUSES_PER_STORE, newWarehouse);
+        assertThrows(MaxWarehousesPerStoreExceededException.class, newWarehouse::enforce);
+        assertEquals(AssignmentVerdict.ALLOWED, knownWarehouse);
+    }
+
+    @Test
+    void rejectsSixthProductForWarehouseOnlyWhenProductIsNew() {
+        AssignmentVerdict newProduct = AssignmentVerdict.of(false, 0, true, 1, false, 5);
+        AssignmentVerdict knownProduct = AssignmentVerdict.of(false, 0, true, 1, true, 5);
+
+        assertEquals(AssignmentVerdict.MAX_PRODUCTS_PER_WAREHOUSE, newProduct);
+        assertThrows(MaxProductsPerWarehouseExceededException.class, newProduct::enforce);
+        assertEquals(AssignmentVerdict.ALLOWED, knownProduct);
+    }
+}
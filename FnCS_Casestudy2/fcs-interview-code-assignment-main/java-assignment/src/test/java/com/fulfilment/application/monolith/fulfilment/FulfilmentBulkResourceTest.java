@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class FulfilmentBulkResourceTest {
+
+    @Inject
+    EntityManager em;
+    @Inject
+    FulfilmentRepository assignmentRepo;
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'").executeUpdate();
+        em.flush();
+    }
+
+    @Test
+    void shouldReportPerItemOutcomeAndEnforceLimitsWithinTheBatch() {
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        createWarehouse("W1");
+        createWarehouse("W2");
+        createWarehouse("W3");
+
+        String body =
+                "["
+                        + item(storeId, productId, "TEST_W1") + ","
+                        + item(storeId, productId, "TEST_W2") + ","
+                        + item(storeId, productId, "TEST_W3") + ","
+                        + item(storeId, productId, "TEST_W1") + ","
+                        + item(999_999L, productId, "TEST_W1") + ","
+                        + item(storeId, productId, "TEST_MISSING") + ","
+                        + item(storeId, 0L, "TEST_W1")
+                        + "]";
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(body)
+                .when()
+                .post("/fulfilment/bulk")
+                .then()
+                .statusCode(200)
+                .body("succeeded", equalTo(2))
+                .body("failed", equalTo(5))
+                .body("results[0].status", equalTo(201))
+                .body("results[0].error", nullValue())
+                .body("results[1].status", equalTo(201))
+                .body("results[2].status", equalTo(409))
+                .body("results[3].status", equalTo(409))
+                .body("results[4].status", equalTo(404))
+                .body("results[5].status", equalTo(404))
+                .body("results[6].status", equalTo(422));
+
+        assertEquals(2, assignmentRepo.count());
+    }
+
+    @Test
+    void shouldAcceptNdjsonLines() {
+        Long storeId = createStore("S1");
+        Long p1 = createProduct("P1");
+        Long p2 = createProduct("P2");
+        createWarehouse("W1");
+
+        String body = item(storeId, p1, "TEST_W1") + "\n" + item(storeId, p2, "TEST_W1") + "\n";
+
+        given()
+                .contentType("application/x-ndjson")
+                .body(body.getBytes(StandardCharsets.UTF_8))
+                .when()
+                .post("/fulfilment/bulk")
+                .then()
+                .statusCode(200)
+                .body("succeeded", equalTo(2))
+                .body("failed", equalTo(0));
+
+        assertEquals(2, assignmentRepo.count());
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("[]")
+                .when()
+                .post("/fulfilment/bulk")
+                .then()
+                .statusCode(422);
+    }
+
+    private static String item(Long storeId, Long productId, String buCode) {
+        return "{\"storeId\":" + storeId
+                + ",\"productId\":" + productId
+                + ",\"warehouseBusinessUnitCode\":\"" + buCode + "\"}";
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        em.flush();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        em.flush();
+        return p.id;
+    }
+
+    @Transactional
+    void createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = "TEST_" + buCode;
+        w.location = "AMSTERDAM-001";
+        w.capacity = 50;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        w.archivedAt = null;
+        em.persist(w);
+        em.flush();
+    }
+}
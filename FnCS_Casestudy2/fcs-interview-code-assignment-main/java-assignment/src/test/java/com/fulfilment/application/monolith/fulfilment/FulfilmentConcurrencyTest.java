@@ -0,0 +1,170 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.BusinessException;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Fires conflicting assignments at the same instant; without row locking the
+// limit checks of concurrent transactions cannot see each other's inserts.
+@QuarkusTest
+class FulfilmentConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 5;
+
+    @Inject
+    FulfilmentService service;
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        em.flush();
+    }
+
+    @Test
+    void concurrentAssignmentsNeverExceedWarehousesPerStore() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long storeId = createStore("S" + round);
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Long productId = createProduct("R" + round + "P" + i);
+                String buCode = createWarehouse("R" + round + "W" + i);
+                tasks.add(() -> service.assign(storeId, productId, buCode));
+            }
+
+            assertEquals(AssignmentVerdict.MAX_WAREHOUSES_PER_STORE_LIMIT, runConcurrently(tasks));
+            assertEquals(
+                    AssignmentVerdict.MAX_WAREHOUSES_PER_STORE_LIMIT,
+                    countWarehousesForStore(storeId));
+        }
+    }
+
+    @Test
+    void concurrentAssignmentsNeverExceedProductsPerWarehouse() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String buCode = createWarehouse("W" + round);
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Long storeId = createStore("R" + round + "S" + i);
+                Long productId = createProduct("R" + round + "P" + i);
+                tasks.add(() -> service.assign(storeId, productId, buCode));
+            }
+
+            assertEquals(AssignmentVerdict.MAX_PRODUCTS_PER_WAREHOUSE_LIMIT, runConcurrently(tasks));
+        }
+    }
+
+    @Test
+    void concurrentAssignmentsNeverExceedWarehousesPerStoreProduct() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long storeId = createStore("S" + round);
+            Long productId = createProduct("P" + round);
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String buCode = createWarehouse("R" + round + "W" + i);
+                tasks.add(() -> service.assign(storeId, productId, buCode));
+            }
+
+            assertEquals(AssignmentVerdict.MAX_WAREHOUSES_PER_STORE_PRODUCT_LIMIT, runConcurrently(tasks));
+        }
+    }
+
+    // Runs every task in its own transaction, all released at once; returns the number that committed
+    private int runConcurrently(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        CyclicBarrier start = new CyclicBarrier(tasks.size());
+        AtomicInteger committed = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        QuarkusTransaction.requiringNew().call(task);
+                        committed.incrementAndGet();
+                    } catch (BusinessException e) {
+                        // rejected by a limit, as expected for all but the winners
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return committed.get();
+    }
+
+    private long countWarehousesForStore(Long storeId) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> em.createQuery(
+                                "select count(distinct f.warehouseId) from Fulfilment f where f.storeId = ?1",
+                                Long.class)
+                        .setParameter(1, storeId)
+                        .getSingleResult());
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        em.flush();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        em.flush();
+        return p.id;
+    }
+
+    @Transactional
+    String createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = "TEST_" + buCode;
+        w.location = "AMSTERDAM-001";
+        w.capacity = 50;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        w.archivedAt = null;
+        em.persist(w);
+        em.flush();
+        return w.businessUnitCode;
+    }
+}
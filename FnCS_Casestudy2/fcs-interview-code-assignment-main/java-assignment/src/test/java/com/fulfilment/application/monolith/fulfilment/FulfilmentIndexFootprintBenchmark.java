@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Pbenchmark -Dtest=FulfilmentIndexFootprintBenchmark
+@Tag("benchmark")
+class FulfilmentIndexFootprintBenchmark {
+
+    private static final int ASSIGNMENTS = 1_000_000;
+
+    @Test
+    void footprintOfOneMillionAssignments() {
+        long before = usedHeapAfterGc();
+
+        // Every store fills its limits: 3 warehouses x 5 products, each warehouse
+        // carrying its own 5 products, so all three maps are fully populated.
+        int stores = ASSIGNMENTS / 15 + 1;
+        AssignmentTally tally = new AssignmentTally(stores, stores * 3);
+        long warehouse = 1;
+        for (long store = 1; tally.size() < ASSIGNMENTS; store++) {
+            for (int w = 0; w < 3 && tally.size() < ASSIGNMENTS; w++, warehouse++) {
+                for (int k = 0; k < 5 && tally.size() < ASSIGNMENTS; k++) {
+                    tally.record(store, warehouse * 5 + k, warehouse);
+                }
+            }
+        }
+
+        long after = usedHeapAfterGc();
+        assertEquals(ASSIGNMENTS, tally.size());
+        System.out.printf(
+                "FulfilmentIndex: %,d assignments use %,d KB (%.1f bytes per assignment)%n",
+                tally.size(), (after - before) / 1024, (after - before) / (double) tally.size());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
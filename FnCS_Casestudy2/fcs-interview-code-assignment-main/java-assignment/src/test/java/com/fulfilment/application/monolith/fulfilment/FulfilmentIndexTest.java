@@ -0,0 +1,170 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.MaxProductsPerWarehouseExceededException;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class FulfilmentIndexTest {
+
+    @Inject
+    FulfilmentService service;
+    @Inject
+    FulfilmentIndex index;
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        deleteTestData();
+        // other tests delete assignments behind the index's back
+        index.rebuild();
+    }
+
+    @Transactional
+    void deleteTestData() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        em.flush();
+    }
+
+    @Test
+    void committedAssignmentsAreIndexed() {
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        createWarehouse("W1");
+
+        assign(storeId, productId, "TEST_W1");
+
+        assertTrue(index.isReady());
+        given()
+                .when()
+                .get("/fulfilment/index/consistency")
+                .then()
+                .statusCode(200)
+                .body("databaseAssignments", equalTo(1))
+                .body("indexedAssignments", equalTo(1))
+                .body("consistent", equalTo(true));
+    }
+
+    @Test
+    void indexRejectsViolationWithoutConstraintQuery() {
+        Long storeId = createStore("S1");
+        createWarehouse("W1");
+        for (int i = 1; i <= 5; i++) {
+            assign(storeId, createProduct("P" + i), "TEST_W1");
+        }
+        Long sixthProduct = createProduct("P6");
+
+        Statistics statistics =
+                em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThrows(
+                MaxProductsPerWarehouseExceededException.class,
+                () -> QuarkusTransaction.requiringNew()
+                        .run(() -> service.assign(storeId, sixthProduct, "TEST_W1")));
+
+        // the warehouse id is cached by the earlier assignments: one unlocked existence check,
+        // no locking lookups and no constraint query
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(1, statements, "rejected assignment issued " + statements + " statements");
+    }
+
+    @Test
+    void rebuildPicksUpAssignmentsWrittenOutsideTheService() {
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        Long warehouseId = createWarehouse("W1");
+        insertDirectly(storeId, productId, warehouseId);
+
+        given()
+                .when()
+                .get("/fulfilment/index/consistency")
+                .then()
+                .statusCode(200)
+                .body("missingFromIndex", equalTo(1))
+                .body("consistent", equalTo(false));
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/fulfilment/index/rebuild")
+                .then()
+                .statusCode(200)
+                .body("indexedAssignments", equalTo(1))
+                .body("consistent", equalTo(true));
+    }
+
+    private void assign(Long storeId, Long productId, String buCode) {
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/fulfilment/stores/" + storeId + "/products/" + productId + "/warehouses/" + buCode)
+                .then()
+                .statusCode(201);
+    }
+
+    @Transactional
+    void insertDirectly(Long storeId, Long productId, Long warehouseId) {
+        assignmentRepo.persist(new Fulfilment(storeId, productId, warehouseId, LocalDateTime.now()));
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        em.flush();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        em.flush();
+        return p.id;
+    }
+
+    @Transactional
+    Long createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = "TEST_" + buCode;
+        w.location = "AMSTERDAM-001";
+        w.capacity = 50;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        w.archivedAt = null;
+        em.persist(w);
+        em.flush();
+        return w.id;
+    }
+}
@@ -0,0 +1,133 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.api.exception.MaxProductsPerWarehouseExceededException;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class FulfilmentQueryCountTest {
+
+    // store + product + warehouse lookups, one constraint verdict, one insert,
+    // one usage counter upsert and, at most, one sequence fetch when the id pool runs out
+    private static final long MAX_STATEMENTS_PER_ASSIGNMENT = 7;
+
+    @Inject
+    FulfilmentService service;
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            assignmentRepo.deleteAll();
+            em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+            Store.delete("name like ?1", "TEST_%");
+            em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                    .executeUpdate();
+        });
+    }
+
+    // Fixtures are committed in their own transactions and every assignment runs in a new one,
+    // as behind the endpoint: no row is already in the persistence context being measured
+    @Test
+    void assignmentCostsFixedNumberOfStatementsRegardlessOfExistingAssignments() {
+        Long storeId = createStore("S1");
+        String warehouseBu = createWarehouse("W1");
+
+        for (int i = 1; i <= 5; i++) {
+            Long productId = createProduct("P" + i);
+
+            long statements = countStatements(() -> service.assign(storeId, productId, warehouseBu));
+
+            assertTrue(
+                    statements <= MAX_STATEMENTS_PER_ASSIGNMENT,
+                    "assignment " + i + " issued " + statements + " statements");
+        }
+    }
+
+    @Test
+    void rejectedAssignmentCostsFixedNumberOfStatements() {
+        Long storeId = createStore("S1");
+        String warehouseBu = createWarehouse("W1");
+        for (int i = 1; i <= 5; i++) {
+            Long productId = createProduct("P" + i);
+            QuarkusTransaction.requiringNew().run(() -> service.assign(storeId, productId, warehouseBu));
+        }
+        Long sixthProduct = createProduct("P6");
+
+        long statements =
+                countStatements(
+                        () ->
+                                assertThrows(
+                                        MaxProductsPerWarehouseExceededException.class,
+                                        () -> service.assign(storeId, sixthProduct, warehouseBu)));
+
+        assertTrue(
+                statements <= MAX_STATEMENTS_PER_ASSIGNMENT,
+                "rejected assignment issued " + statements + " statements");
+    }
+
+    // The action runs in a transaction of its own, commit included
+    private long countStatements(Runnable action) {
+        Statistics statistics =
+                em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        QuarkusTransaction.requiringNew().run(action);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long createStore(String name) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Store s = new Store();
+            s.name = "TEST_" + name;
+            s.quantityProductsInStock = 0;
+            s.persist();
+            return s.id;
+        });
+    }
+
+    private Long createProduct(String name) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Product p = new Product();
+            p.name = "TEST_" + name;
+            p.description = "d";
+            p.price = BigDecimal.TEN;
+            p.stock = 1;
+            em.persist(p);
+            return p.id;
+        });
+    }
+
+    private String createWarehouse(String buCode) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            DbWarehouse w = new DbWarehouse();
+            w.businessUnitCode = "TEST_" + buCode;
+            w.location = "AMSTERDAM-001";
+            w.capacity = 50;
+            w.stock = 10;
+            w.createdAt = LocalDateTime.now();
+            w.archivedAt = null;
+            em.persist(w);
+            return w.businessUnitCode;
+        });
+    }
+}
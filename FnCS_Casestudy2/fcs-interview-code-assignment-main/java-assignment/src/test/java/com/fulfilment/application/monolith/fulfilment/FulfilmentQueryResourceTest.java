@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class FulfilmentQueryResourceTest {
+
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime DAY_2 = DAY_1.plusDays(1);
+    private static final LocalDateTime DAY_3 = DAY_1.plusDays(2);
+
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        em.flush();
+    }
+
+    @Test
+    void pagesThroughStoreAssignmentsInIdOrder() {
+        Long storeId = createStore("S1");
+        Long w1 = createWarehouse("W1");
+        Long w2 = createWarehouse("W2");
+        List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            expected.add(insert(storeId, createProduct("P" + i), i % 2 == 0 ? w1 : w2, DAY_1));
+        }
+        insert(createStore("OTHER"), createProduct("P6"), w1, DAY_1);
+
+        List<Long> seen = new ArrayList<>();
+        Long after = null;
+        int pages = 0;
+        do {
+            JsonPath page = getPage("/fulfilment/stores/" + storeId, after, 2);
+            seen.addAll(page.getList("items.id", Long.class));
+            after = page.getObject("nextAfter", Long.class);
+            pages++;
+        } while (after != null);
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void resolvesWarehouseBusinessUnitCodes() {
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        insert(storeId, productId, createWarehouse("W1"), DAY_1);
+
+        given()
+                .when()
+                .get("/fulfilment/products/" + productId)
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(1))
+                .body("items[0].storeId", equalTo(storeId.intValue()))
+                .body("items[0].warehouseBusinessUnitCode", equalTo("TEST_W1"))
+                .body("nextAfter", nullValue());
+    }
+
+    @Test
+    void filtersWarehouseAssignmentsByCreationTime() {
+        Long w1 = createWarehouse("W1");
+        insert(createStore("S1"), createProduct("P1"), w1, DAY_1);
+        Long inRange = insert(createStore("S2"), createProduct("P2"), w1, DAY_2);
+        insert(createStore("S3"), createProduct("P3"), w1, DAY_3);
+
+        given()
+                .queryParam("from", DAY_2.toString())
+                .queryParam("to", DAY_3.toString())
+                .when()
+                .get("/fulfilment/warehouses/TEST_W1")
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(1))
+                .body("items[0].id", equalTo(inRange.intValue()));
+    }
+
+    @Test
+    void rejectsInvalidPageRequests() {
+        Long storeId = createStore("S1");
+
+        given().queryParam("limit", 0).when().get("/fulfilment/stores/" + storeId).then().statusCode(422);
+        given().queryParam("limit", 501).when().get("/fulfilment/stores/" + storeId).then().statusCode(422);
+        given().queryParam("from", "yesterday").when().get("/fulfilment/stores/" + storeId).then().statusCode(422);
+        given()
+                .queryParam("from", DAY_2.toString())
+                .queryParam("to", DAY_1.toString())
+                .when()
+                .get("/fulfilment/stores/" + storeId)
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    void returns404ForUnknownParents() {
+        given().when().get("/fulfilment/stores/999999").then().statusCode(404);
+        given().when().get("/fulfilment/products/999999").then().statusCode(404);
+        given().when().get("/fulfilment/warehouses/TEST_MISSING").then().statusCode(404);
+    }
+
+    private JsonPath getPage(String path, Long after, int limit) {
+        var request = given().queryParam("limit", limit);
+        if (after != null) {
+            request.queryParam("after", after);
+        }
+        return request.when().get(path).then().statusCode(200).extract().jsonPath();
+    }
+
+    @Transactional
+    Long insert(Long storeId, Long productId, Long warehouseId, LocalDateTime createdAt) {
+        Fulfilment f = new Fulfilment(storeId, productId, warehouseId, createdAt);
+        assignmentRepo.persist(f);
+        return f.id;
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        return p.id;
+    }
+
+    @Transactional
+    Long createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = "TEST_" + buCode;
+        w.location = "AMSTERDAM-001";
+        w.capacity = 50;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        em.persist(w);
+        return w.id;
+    }
+}
@@ -0,0 +1,177 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class FulfilmentRemovalResourceTest {
+
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    FulfilmentUsageRepository usage;
+    @Inject
+    FulfilmentIndex index;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        deleteTestData();
+        index.rebuild();
+    }
+
+    @Transactional
+    void deleteTestData() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        usage.rebuild();
+    }
+
+    @Test
+    void unassignFreesTheLimitItHeld() {
+        Long storeId = createStore("S1");
+        for (int i = 1; i <= 4; i++) {
+            createWarehouse("W" + i);
+        }
+        Long p1 = createProduct("P1");
+        assign(storeId, p1, "TEST_W1", 201);
+        assign(storeId, createProduct("P2"), "TEST_W2", 201);
+        assign(storeId, createProduct("P3"), "TEST_W3", 201);
+        Long p4 = createProduct("P4");
+        assign(storeId, p4, "TEST_W4", 409);
+
+        given()
+                .when()
+                .delete(assignmentPath(storeId, p1, "TEST_W1"))
+                .then()
+                .statusCode(204);
+
+        assign(storeId, p4, "TEST_W4", 201);
+        assertConsistent();
+    }
+
+    @Test
+    void unassignUnknownAssignmentReturns404() {
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        createWarehouse("W1");
+
+        given()
+                .when()
+                .delete(assignmentPath(storeId, productId, "TEST_W1"))
+                .then()
+                .statusCode(404)
+                .body("type", equalTo("AssignmentNotFoundException"));
+    }
+
+    @Test
+    void bulkUnassignRemovesEveryAssignmentOfTheWarehouse() {
+        Long productId = createProduct("P1");
+        createWarehouse("W1");
+        createWarehouse("W2");
+        for (int i = 1; i <= 3; i++) {
+            Long storeId = createStore("S" + i);
+            assign(storeId, productId, "TEST_W1", 201);
+            assign(storeId, productId, "TEST_W2", 201);
+        }
+
+        given()
+                .when()
+                .delete("/fulfilment/warehouses/TEST_W1")
+                .then()
+                .statusCode(200)
+                .body("removed", equalTo(3));
+
+        assertEquals(3, assignmentRepo.count());
+        assertConsistent();
+    }
+
+    @Test
+    void bulkUnassignByStoreAndByProduct() {
+        Long s1 = createStore("S1");
+        Long s2 = createStore("S2");
+        Long p1 = createProduct("P1");
+        Long p2 = createProduct("P2");
+        createWarehouse("W1");
+        assign(s1, p1, "TEST_W1", 201);
+        assign(s1, p2, "TEST_W1", 201);
+        assign(s2, p1, "TEST_W1", 201);
+
+        given().when().delete("/fulfilment/products/" + p1).then().statusCode(200).body("removed", equalTo(2));
+        given().when().delete("/fulfilment/stores/" + s1).then().statusCode(200).body("removed", equalTo(1));
+        given().when().delete("/fulfilment/stores/" + s2).then().statusCode(200).body("removed", equalTo(0));
+
+        assertEquals(0, assignmentRepo.count());
+        assertConsistent();
+    }
+
+    private void assertConsistent() {
+        assertTrue(usage.checkDrift().consistent(), "usage counters drifted");
+        assertTrue(index.checkConsistency().consistent(), "index drifted");
+    }
+
+    private static String assignmentPath(Long storeId, Long productId, String buCode) {
+        return "/fulfilment/stores/" + storeId + "/products/" + productId + "/warehouses/" + buCode;
+    }
+
+    private void assign(Long storeId, Long productId, String buCode, int expectedStatus) {
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .post(assignmentPath(storeId, productId, buCode))
+                .then()
+                .statusCode(expectedStatus);
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        return p.id;
+    }
+
+    @Transactional
+    Long createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = "TEST_" + buCode;
+        w.location = "AMSTERDAM-001";
+        w.capacity = 50;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        em.persist(w);
+        return w.id;
+    }
+}
@@ -0,0 +1,136 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Assignments on disjoint stores and warehouses never wait on each other's row locks,
+// so throughput should grow with the thread count until the connection pool saturates.
+// Run with: mvn test -Pbenchmark -Dtest=FulfilmentThroughputBenchmark
+@Tag("benchmark")
+@QuarkusTest
+class FulfilmentThroughputBenchmark {
+
+    // One store takes 3 warehouses x 5 products before it hits its limits
+    private static final int ASSIGNMENTS_PER_STORE = 15;
+    private static final int STORES_PER_THREAD = 10;
+
+    @Inject
+    FulfilmentService service;
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    EntityManager em;
+
+    private final List<Long> products = new ArrayList<>();
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        products.clear();
+        for (int i = 0; i < ASSIGNMENTS_PER_STORE; i++) {
+            Product p = new Product();
+            p.name = "TEST_P" + i;
+            p.description = "d";
+            p.price = BigDecimal.TEN;
+            p.stock = 1;
+            em.persist(p);
+            products.add(p.id);
+        }
+    }
+
+    @Test
+    void throughputOfNonConflictingAssignments() throws Exception {
+        // warm-up
+        measure(2, "warmup");
+
+        double single = measure(1, "t1");
+        for (int threads : new int[]{2, 4, 8}) {
+            double rate = measure(threads, "t" + threads);
+            System.out.printf(
+                    "Fulfilment assign: %d threads %,.0f/s (%.2fx of 1 thread)%n",
+                    threads, rate, rate / single);
+        }
+        System.out.printf("Fulfilment assign: 1 thread %,.0f/s%n", single);
+    }
+
+    // Returns assignments per second with every thread working on its own stores and warehouses
+    private double measure(int threads, String prefix) throws Exception {
+        List<List<long[]>> work = new ArrayList<>();
+        List<List<String>> buCodes = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            work.add(new ArrayList<>());
+            buCodes.add(createFixture(prefix + "T" + t, work.get(t)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<long[]> assignments = work.get(t);
+            List<String> codes = buCodes.get(t);
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (long[] a : assignments) {
+                    QuarkusTransaction.requiringNew()
+                            .run(() -> service.assign(a[0], a[1], codes.get((int) a[2])));
+                }
+                return null;
+            }));
+        }
+        start.await();
+        long began = System.nanoTime();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+
+        return threads * STORES_PER_THREAD * ASSIGNMENTS_PER_STORE / (elapsed / 1e9);
+    }
+
+    // Fills work with {storeId, productId, index into the returned warehouse codes}
+    @Transactional
+    List<String> createFixture(String prefix, List<long[]> work) {
+        List<String> codes = new ArrayList<>();
+        for (int s = 0; s < STORES_PER_THREAD; s++) {
+            Store store = new Store();
+            store.name = "TEST_" + prefix + "S" + s;
+            store.quantityProductsInStock = 0;
+            store.persist();
+            for (int i = 0; i < ASSIGNMENTS_PER_STORE; i++) {
+                if (i % 5 == 0) {
+                    DbWarehouse w = new DbWarehouse();
+                    w.businessUnitCode = "TEST_" + prefix + "S" + s + "W" + i;
+                    w.location = "AMSTERDAM-001";
+                    w.capacity = 50;
+                    w.stock = 10;
+                    w.createdAt = LocalDateTime.now();
+                    em.persist(w);
+                    codes.add(w.businessUnitCode);
+                }
+                work.add(new long[]{store.id, products.get(i), codes.size() - 1});
+            }
+        }
+        return codes;
+    }
+}
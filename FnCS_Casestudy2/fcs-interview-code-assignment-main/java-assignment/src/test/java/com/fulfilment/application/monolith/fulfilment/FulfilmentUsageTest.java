@@ -0,0 +1,157 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class FulfilmentUsageTest {
+
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    FulfilmentUsageRepository usage;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        // other tests delete assignments without touching the counters
+        usage.rebuild();
+    }
+
+    @Test
+    void assignmentsMaintainCounters() {
+        Long s1 = createStore("S1");
+        Long s2 = createStore("S2");
+        Long p1 = createProduct("P1");
+        Long p2 = createProduct("P2");
+        Long w1 = createWarehouse("W1");
+
+        assign(s1, p1, "TEST_W1");
+        assign(s1, p2, "TEST_W1");
+        given()
+                .contentType(ContentType.JSON)
+                .body("[{\"storeId\":" + s2 + ",\"productId\":" + p1 + ",\"warehouseBusinessUnitCode\":\"TEST_W1\"}]")
+                .when()
+                .post("/fulfilment/bulk")
+                .then()
+                .statusCode(200)
+                .body("succeeded", equalTo(1));
+
+        assertEquals(2, refcount("store_warehouse_usage", "storeId", s1, "warehouseId", w1));
+        assertEquals(1, refcount("store_warehouse_usage", "storeId", s2, "warehouseId", w1));
+        assertEquals(2, refcount("warehouse_product_usage", "warehouseId", w1, "productId", p1));
+        assertEquals(1, refcount("warehouse_product_usage", "warehouseId", w1, "productId", p2));
+        given()
+                .when()
+                .get("/fulfilment/usage/drift")
+                .then()
+                .statusCode(200)
+                .body("consistent", equalTo(true));
+    }
+
+    @Test
+    void driftIsDetectedAndRepairedByRebuild() {
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        Long warehouseId = createWarehouse("W1");
+        insertDirectly(storeId, productId, warehouseId);
+
+        given()
+                .when()
+                .get("/fulfilment/usage/drift")
+                .then()
+                .statusCode(200)
+                .body("storeWarehouseRows", equalTo(1))
+                .body("warehouseProductRows", equalTo(1))
+                .body("consistent", equalTo(false));
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/fulfilment/usage/rebuild")
+                .then()
+                .statusCode(200)
+                .body("consistent", equalTo(true));
+        assertEquals(1, refcount("store_warehouse_usage", "storeId", storeId, "warehouseId", warehouseId));
+    }
+
+    private void assign(Long storeId, Long productId, String buCode) {
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/fulfilment/stores/" + storeId + "/products/" + productId + "/warehouses/" + buCode)
+                .then()
+                .statusCode(201);
+    }
+
+    @Transactional
+    int refcount(String table, String firstColumn, Long first, String secondColumn, Long second) {
+        Object count =
+                em.createNativeQuery(
+                                "select coalesce(sum(refcount), 0) from " + table
+                                        + " where " + firstColumn + " = ?1 and " + secondColumn + " = ?2")
+                        .setParameter(1, first)
+                        .setParameter(2, second)
+                        .getSingleResult();
+        return ((Number) count).intValue();
+    }
+
+    @Transactional
+    void insertDirectly(Long storeId, Long productId, Long warehouseId) {
+        assignmentRepo.persist(new Fulfilment(storeId, productId, warehouseId, LocalDateTime.now()));
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        return p.id;
+    }
+
+    @Transactional
+    Long createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = "TEST_" + buCode;
+        w.location = "AMSTERDAM-001";
+        w.capacity = 50;
+        w.stock = 10;
+        w.createdAt = LocalDateTime.now();
+        em.persist(w);
+        return w.id;
+    }
+}
@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class FulfilmentWarehouseReplacementTest {
+
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    FulfilmentUsageRepository usage;
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    FulfilmentIndex index;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        deleteTestData();
+        index.rebuild();
+    }
+
+    @Transactional
+    void deleteTestData() {
+        assignmentRepo.deleteAll();
+        em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        Store.delete("name like ?1", "TEST_%");
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        usage.rebuild();
+        warehouseRepo.rebuildLocationUsage();
+    }
+
+    @Test
+    void replacementKeepsAssignmentsAndLimits() {
+        createWarehouse("TEST_W1");
+        Long storeId = createStore("S1");
+        for (int i = 1; i <= 5; i++) {
+            assign(storeId, createProduct("P" + i), 201);
+        }
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"location\":\"AMSTERDAM-002\",\"capacity\":30,\"stock\":5}")
+                .when()
+                .post("/warehouse/TEST_W1/replacement")
+                .then()
+                .statusCode(200);
+
+        given()
+                .when()
+                .get("/fulfilment/warehouses/TEST_W1")
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(5));
+        // the replacement still carries five products
+        assign(createStore("S2"), createProduct("P6"), 409);
+
+        assertTrue(usage.checkDrift().consistent(), "usage counters drifted");
+        assertTrue(index.checkConsistency().consistent(), "index drifted");
+    }
+
+    @Test
+    void replacementMovesOnlyTheReplacedVersionsAssignments() {
+        createWarehouse("TEST_W1");
+        Long storeId = createStore("S1");
+        Long productId = createProduct("P1");
+        assign(storeId, productId, 201);
+        replace(30);
+
+        // An assignment that stayed on the oldest version must not follow the next replace
+        Long oldest = versionIds().get(0);
+        Long keptProductId = createProduct("P2");
+        keepOnVersion(storeId, keptProductId, oldest);
+        replace(40);
+
+        List<Long> versions = versionIds();
+        assertEquals(3, versions.size());
+        assertEquals(versions.get(2), warehouseOf(storeId, productId));
+        assertEquals(oldest, warehouseOf(storeId, keptProductId));
+    }
+
+    private void replace(int capacity) {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"location\":\"AMSTERDAM-002\",\"capacity\":" + capacity + ",\"stock\":5}")
+                .when()
+                .post("/warehouse/TEST_W1/replacement")
+                .then()
+                .statusCode(200);
+    }
+
+    @Transactional
+    List<Long> versionIds() {
+        return em.createQuery(
+                        "select w.id from DbWarehouse w where w.businessUnitCode = 'TEST_W1' order by w.id",
+                        Long.class)
+                .getResultList();
+    }
+
+    @Transactional
+    void keepOnVersion(Long storeId, Long productId, Long warehouseId) {
+        em.persist(new Fulfilment(storeId, productId, warehouseId, LocalDateTime.now()));
+    }
+
+    @Transactional
+    Long warehouseOf(Long storeId, Long productId) {
+        return em.createQuery(
+                        "select f.warehouseId from Fulfilment f where f.storeId = ?1 and f.productId = ?2",
+                        Long.class)
+                .setParameter(1, storeId)
+                .setParameter(2, productId)
+                .getSingleResult();
+    }
+
+    private void assign(Long storeId, Long productId, int expectedStatus) {
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .post("/fulfilment/stores/" + storeId + "/products/" + productId + "/warehouses/TEST_W1")
+                .then()
+                .statusCode(expectedStatus);
+    }
+
+    @Transactional
+    Long createStore(String name) {
+        Store s = new Store();
+        s.name = "TEST_" + name;
+        s.quantityProductsInStock = 0;
+        s.persist();
+        return s.id;
+    }
+
+    @Transactional
+    Long createProduct(String name) {
+        Product p = new Product();
+        p.name = "TEST_" + name;
+        p.description = "d";
+        p.price = BigDecimal.TEN;
+        p.stock = 1;
+        em.persist(p);
+        return p.id;
+    }
+
+    @Transactional
+    void createWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = buCode;
+        w.location = "AMSTERDAM-002";
+        w.capacity = 20;
+        w.stock = 5;
+        w.createdAt = LocalDateTime.now();
+        em.persist(w);
+    }
+}
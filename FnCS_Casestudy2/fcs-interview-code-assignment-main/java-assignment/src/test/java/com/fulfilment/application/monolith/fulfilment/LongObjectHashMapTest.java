@@ -0,0 +1,58 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void behavesLikeHashMapAcrossResizesAndRemovals() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            // a small key range forces collisions, removals and re-insertions
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                reference.put(key, value);
+                map.put(key, value);
+            }
+            assertEquals(reference.size(), map.size());
+        }
+
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(reference.get(key), map.get(key));
+        }
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(reference, visited);
+    }
+
+    @Test
+    void computeIfAbsentCreatesOnlyOnce() {
+        LongObjectHashMap<StringBuilder> map = new LongObjectHashMap<>();
+        map.computeIfAbsent(7, k -> new StringBuilder()).append('a');
+        map.computeIfAbsent(7, k -> new StringBuilder()).append('b');
+
+        assertEquals("ab", map.get(7).toString());
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void rejectsNonPositiveKeys() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, "x"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, "x"));
+        assertNull(map.get(0));
+    }
+}
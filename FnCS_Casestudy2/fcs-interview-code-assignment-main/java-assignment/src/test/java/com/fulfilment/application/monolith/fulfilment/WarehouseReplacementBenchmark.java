@@ -0,0 +1,154 @@
+package com.fulfilment.application.monolith.fulfilment;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Pbenchmark -Dtest=WarehouseReplacementBenchmark
+@Tag("benchmark")
+@QuarkusTest
+class WarehouseReplacementBenchmark {
+
+    private static final int RUNS = 7;
+
+    @Inject
+    ReplaceWarehouseUseCase replaceWarehouseUseCase;
+    @Inject
+    FulfilmentRepository assignmentRepo;
+    @Inject
+    FulfilmentUsageRepository usage;
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    FulfilmentIndex index;
+    @Inject
+    EntityManager em;
+
+    @Test
+    void replaceLatencyByAssignmentCount() {
+        for (int assignments : new int[]{0, 1_000, 10_000, 50_000}) {
+            String buCode = "TEST_BENCH_" + assignments;
+            createFixture(buCode, assignments);
+
+            long[] nanos = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                Warehouse replacement = new Warehouse();
+                replacement.businessUnitCode = buCode;
+                replacement.location = "AMSTERDAM-002";
+                replacement.capacity = 20 + run;
+                replacement.stock = 5;
+
+                long began = System.nanoTime();
+                QuarkusTransaction.requiringNew().run(() -> replaceWarehouseUseCase.replace(replacement));
+                nanos[run] = System.nanoTime() - began;
+            }
+            assertEquals(assignments, countOnActive(buCode));
+            Arrays.sort(nanos);
+            System.out.printf(
+                    "Warehouse replace: %,6d assignments median %.1f ms (min %.1f, max %.1f)%n",
+                    assignments, nanos[RUNS / 2] / 1e6, nanos[0] / 1e6, nanos[RUNS - 1] / 1e6);
+            deleteFixture(buCode);
+        }
+    }
+
+    // Baseline: what a per-row migration through the entity manager would cost
+    @Test
+    void rowByRowMigrationForComparison() {
+        for (int assignments : new int[]{1_000, 10_000}) {
+            String buCode = "TEST_ROWS_" + assignments;
+            createFixture(buCode, assignments);
+            Long from = activeId(buCode);
+            Long to = createFixtureWarehouse(buCode + "_NEW");
+
+            long began = System.nanoTime();
+            QuarkusTransaction.requiringNew().run(() -> {
+                int n = 0;
+                for (Fulfilment f : assignmentRepo.list("warehouseId", from)) {
+                    f.warehouseId = to;
+                    if (++n % FulfilmentBulkService.INSERT_BATCH_SIZE == 0) {
+                        em.flush();
+                    }
+                }
+            });
+            System.out.printf(
+                    "Row-by-row migration: %,6d assignments %.1f ms%n",
+                    assignments, (System.nanoTime() - began) / 1e6);
+            deleteFixture(buCode + "_NEW");
+            deleteFixture(buCode);
+        }
+    }
+
+    @Transactional
+    Long activeId(String buCode) {
+        return em.createQuery(
+                        "select w.id from DbWarehouse w where w.businessUnitCode = ?1 and w.archivedAt is null",
+                        Long.class)
+                .setParameter(1, buCode)
+                .getSingleResult();
+    }
+
+    @Transactional
+    Long createFixtureWarehouse(String buCode) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = buCode;
+        w.location = "AMSTERDAM-002";
+        w.capacity = 20;
+        w.stock = 5;
+        w.createdAt = LocalDateTime.now();
+        em.persist(w);
+        return w.id;
+    }
+
+    @Transactional
+    void createFixture(String buCode, int assignments) {
+        Long warehouseId = createFixtureWarehouse(buCode);
+        em.flush();
+        // Synthetic store ids; the fulfilment table has no foreign keys
+        em.createNativeQuery(
+                        "insert into fulfilment(id, storeId, productId, warehouseId, createdAt) "
+                                + "select nextval('fulfilment_seq'), 10000000 + g, 1 + g % 5, :w, now() "
+                                + "from generate_series(1, :n) g")
+                .setParameter("w", warehouseId)
+                .setParameter("n", assignments)
+                .executeUpdate();
+        usage.rebuild();
+        em.createNativeQuery("analyze fulfilment").executeUpdate();
+    }
+
+    @Transactional
+    long countOnActive(String buCode) {
+        return em.createQuery(
+                        "select count(f) from Fulfilment f, DbWarehouse w "
+                                + "where f.warehouseId = w.id and w.businessUnitCode = ?1 and w.archivedAt is null",
+                        Long.class)
+                .setParameter(1, buCode)
+                .getSingleResult();
+    }
+
+    @Transactional
+    void deleteFixture(String buCode) {
+        em.createNativeQuery(
+                        "delete from fulfilment where warehouseId in "
+                                + "(select id from warehouse where businessUnitCode = :bu)")
+                .setParameter("bu", buCode)
+                .executeUpdate();
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode = ?1")
+                .setParameter(1, buCode)
+                .executeUpdate();
+        usage.rebuild();
+        warehouseRepo.rebuildLocationUsage();
+    }
+}
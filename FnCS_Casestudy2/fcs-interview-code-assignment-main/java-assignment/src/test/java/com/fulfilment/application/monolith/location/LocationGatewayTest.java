@@ -2,6 +2,13 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,4 +62,79 @@ public class LocationGatewayTest {
         assertNotNull(location);
         assertEquals("AMSTERDAM-001", location.identification);
     }
+
+    @Test
+    void testWhenLocationFileIsConfiguredShouldResolveFromFile(@TempDir Path dir) throws IOException {
+        // given
+        Path file = dir.resolve("locations.csv");
+        Files.writeString(file, "# comment\nROTTERDAM-001, 4, 120\n\nZWOLLE-001,1,40\n");
+        LocationGateway locationGateway = gatewayFor(file);
+
+        // when
+        locationGateway.init();
+
+        // then
+        assertEquals(2, locationGateway.size());
+        Location location = locationGateway.resolveByIdentifier("ROTTERDAM-001");
+        assertNotNull(location);
+        assertEquals(4, location.maxNumberOfWarehouses);
+        assertEquals(120, location.maxCapacity);
+        assertNull(locationGateway.resolveByIdentifier("AMSTERDAM-001"));
+    }
+
+    @Test
+    void testWhenLocationFileChangesShouldReloadOnPoll(@TempDir Path dir) throws IOException {
+        // given
+        Path file = dir.resolve("locations.csv");
+        Files.writeString(file, "ROTTERDAM-001,4,120\n");
+        LocationGateway locationGateway = gatewayFor(file);
+        locationGateway.init();
+
+        // when
+        Files.writeString(file, "ROTTERDAM-001,4,120\nUTRECHT-001,2,60\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        locationGateway.reloadIfChanged();
+
+        // then
+        assertNotNull(locationGateway.resolveByIdentifier("UTRECHT-001"));
+        assertEquals(2, locationGateway.size());
+    }
+
+    @Test
+    void testWhenLocationFileIsInvalidShouldKeepPreviousLocations(@TempDir Path dir) throws IOException {
+        // given
+        Path file = dir.resolve("locations.csv");
+        Files.writeString(file, "ROTTERDAM-001,4,120\n");
+        LocationGateway locationGateway = gatewayFor(file);
+        locationGateway.init();
+
+        // when
+        Files.writeString(file, "ROTTERDAM-001,4,lots\n");
+        boolean reloaded = locationGateway.reload();
+
+        // then
+        assertFalse(reloaded);
+        assertNotNull(locationGateway.resolveByIdentifier("ROTTERDAM-001"));
+    }
+
+    @Test
+    void testWhenLocationFileHasDuplicateShouldReject(@TempDir Path dir) throws IOException {
+        // given
+        Path file = dir.resolve("locations.csv");
+        Files.writeString(file, "ROTTERDAM-001,4,120\nROTTERDAM-001,1,10\n");
+        LocationGateway locationGateway = gatewayFor(file);
+
+        // when
+        boolean reloaded = locationGateway.reload();
+
+        // then
+        assertFalse(reloaded);
+        assertNotNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+    }
+
+    private static LocationGateway gatewayFor(Path file) {
+        LocationGateway locationGateway = new LocationGateway();
+        locationGateway.file = Optional.of(file.toString());
+        return locationGateway;
+    }
 }
@@ -0,0 +1,94 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Run with: mvn test -Pbenchmark -Dtest=LocationResolverBenchmark
+// Compares the former linear scan with the hash-indexed gateway at 10k locations.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationResolverBenchmark {
+
+    private static final int LOCATIONS = 10_000;
+
+    private List<Location> list;
+    private LocationGateway gateway;
+    private String[] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path file = Files.createTempFile("locations", ".csv");
+        List<String> lines = new ArrayList<>();
+        list = new ArrayList<>();
+        for (int i = 0; i < LOCATIONS; i++) {
+            String id = String.format("CITY-%05d", i);
+            lines.add(id + ",2,100");
+            list.add(new Location(id, 2, 100));
+        }
+        Files.write(file, lines);
+        gateway = new LocationGateway();
+        gateway.file = Optional.of(file.toString());
+        gateway.reload();
+        Files.delete(file);
+
+        // Copies, so the map cannot short-circuit on identity
+        lookups = new String[1024];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = new String(list.get((i * 7919) % LOCATIONS).identification);
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        blackhole.consume(scan(lookups[next++ & 1023]));
+    }
+
+    @Benchmark
+    public void hashIndex(Blackhole blackhole) {
+        blackhole.consume(gateway.resolveByIdentifier(lookups[next++ & 1023]));
+    }
+
+    // The resolver as it was before the index
+    private Location scan(String identifier) {
+        String trimmed = identifier.trim();
+        for (Location location : list) {
+            if (location.identification.equals(trimmed)) {
+                return location;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void compareResolvers() throws RunnerException {
+        Options options =
+                new OptionsBuilder()
+                        .include(LocationResolverBenchmark.class.getName())
+                        .jvmArgsAppend("-Djava.class.path=" + System.getProperty("java.class.path"))
+                        .addProfiler(GCProfiler.class)
+                        .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,48 @@
+package com.fulfilment.application.monolith.products;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class ProductExportTest {
+
+    @Inject
+    EntityManager em;
+
+    @AfterEach
+    void deleteProduct() {
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createQuery("delete from Product p where p.name = 'EXPORTED'").executeUpdate());
+    }
+
+    @Test
+    void exportMatchesTheList() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            Product product = new Product("EXPORTED");
+            product.description = "with \"quotes\" and a price";
+            product.price = new BigDecimal("12.50");
+            product.stock = 7;
+            em.persist(product);
+        });
+
+        List<Map<String, Object>> list = given().when().get("/product").then().statusCode(200)
+                .extract().jsonPath().getList("$");
+        List<Map<String, Object>> export = given().when().get("/product/export").then().statusCode(200)
+                .extract().jsonPath().getList("$");
+
+        assertEquals(list, export);
+        assertTrue(export.stream().anyMatch(p -> "EXPORTED".equals(p.get("name"))));
+    }
+}
@@ -0,0 +1,159 @@
+package com.fulfilment.application.monolith.products;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class ProductPageTest {
+
+    @Inject
+    EntityManager em;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void createProducts() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < 12; i++) {
+                Product product = new Product(String.format("PAGE-%02d", i));
+                product.price = BigDecimal.valueOf(i * 10L);
+                em.persist(product);
+                created.add(product.id);
+            }
+            // LIKE wildcards in the prefix are taken literally
+            em.persist(new Product("PAGE_X"));
+        });
+    }
+
+    @AfterEach
+    void deleteProducts() {
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createQuery("delete from Product p where p.name like 'PAGE%' or p.name is null").executeUpdate());
+        created.clear();
+    }
+
+    @Test
+    void walksAPrefixInNameOrder() {
+        List<String> names = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            JsonPath page = page("name", "PAGE-", "limit", 5, "after", after);
+            names.addAll(page.getList("items.name"));
+            after = page.getString("nextAfter");
+            pages++;
+        } while (after != null);
+
+        assertEquals(3, pages);
+        assertEquals(12, names.size());
+        assertEquals("PAGE-00", names.get(0));
+        assertEquals("PAGE-11", names.get(11));
+    }
+
+    @Test
+    void filtersOnThePriceRange() {
+        JsonPath page = page("name", "PAGE-", "minPrice", 30, "maxPrice", "50.00");
+
+        assertEquals(List.of("PAGE-03", "PAGE-04", "PAGE-05"), page.getList("items.name"));
+        assertEquals(null, page.getString("nextAfter"));
+    }
+
+    @Test
+    void escapesWildcardsInThePrefix() {
+        assertEquals(List.of("PAGE_X"), page("name", "PAGE_").getList("items.name"));
+    }
+
+    @Test
+    void listsProductsWithoutANameAfterTheOthers() {
+        Long unnamed = QuarkusTransaction.requiringNew().call(() -> {
+            Product product = new Product();
+            product.price = BigDecimal.valueOf(35);
+            em.persist(product);
+            return product.id;
+        });
+
+        List<Object> ids = new ArrayList<>();
+        String after = null;
+        do {
+            JsonPath page = page("minPrice", 30, "maxPrice", 40, "limit", 1, "after", after);
+            ids.addAll(page.getList("items.id"));
+            after = page.getString("nextAfter");
+        } while (after != null);
+
+        assertTrue(ids.size() >= 3);
+        assertEquals(unnamed, ((Number) ids.get(ids.size() - 1)).longValue());
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        given().queryParam("limit", 0).when().get("/product/page").then().statusCode(422);
+        given().queryParam("limit", 501).when().get("/product/page").then().statusCode(422);
+        given().queryParam("after", "not a cursor!").when().get("/product/page").then().statusCode(422);
+        given().queryParam("minPrice", 10).queryParam("maxPrice", 5)
+                .when().get("/product/page").then().statusCode(422)
+                .body(containsString("minPrice"));
+    }
+
+    @Test
+    void pagesAreServedFromTheIndex() {
+        String plan = QuarkusTransaction.requiringNew().call(() -> {
+            // The test tables are small enough for a sequential scan to win otherwise
+            em.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+            List<?> lines = em.createNativeQuery(
+                            "EXPLAIN SELECT * FROM product t WHERE t.name IS NOT NULL"
+                                    + " AND (t.name COLLATE \"C\", t.id) > ('PAGE-05', 0)"
+                                    + " AND t.name COLLATE \"C\" LIKE 'PAGE-%'"
+                                    // A range that keeps most rows; a narrow one goes to ix_product_price
+                                    + " AND t.price >= 0"
+                                    + " ORDER BY t.name COLLATE \"C\", t.id LIMIT 6")
+                    .getResultList();
+            return String.join("\n", lines.stream().map(String::valueOf).toList());
+        });
+
+        assertTrue(plan.contains("ix_product_page"), plan);
+        assertTrue(!plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void aNarrowPriceRangeIsReadFromThePriceIndex() {
+        String plan = QuarkusTransaction.requiringNew().call(() -> {
+            em.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+            List<?> lines = em.createNativeQuery(
+                            "EXPLAIN SELECT * FROM product t WHERE t.name IS NOT NULL"
+                                    + " AND t.price >= 20 AND t.price <= 30"
+                                    + " ORDER BY t.name COLLATE \"C\", t.id LIMIT 6")
+                    .getResultList();
+            return String.join("\n", lines.stream().map(String::valueOf).toList());
+        });
+
+        assertTrue(plan.contains("ix_product_price"), plan);
+    }
+
+    private JsonPath page(Object... params) {
+        var request = given();
+        for (int i = 0; i < params.length; i += 2) {
+            if (params[i + 1] != null) {
+                request = request.queryParam((String) params[i], params[i + 1]);
+            }
+        }
+        return request.when().get("/product/page").then()
+                .statusCode(200)
+                .body("items", notNullValue())
+                .extract().jsonPath();
+    }
+}
@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockDeltaJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasAppended() throws IOException {
+        try (StockDeltaJournal journal = new StockDeltaJournal(dir, 1)) {
+            journal.sync(journal.append(StockTarget.STORE, 7, 3));
+            journal.sync(journal.append(StockTarget.PRODUCT, 7, -2));
+        }
+
+        List<String> records = readAll();
+        assertEquals(List.of("STORE 7 3", "PRODUCT 7 -2"), records);
+    }
+
+    @Test
+    void rotationStartsTheNextSegment() throws IOException {
+        try (StockDeltaJournal journal = new StockDeltaJournal(dir, 4)) {
+            journal.append(StockTarget.STORE, 1, 1);
+            assertEquals(4, journal.rotate());
+            journal.sync(journal.append(StockTarget.STORE, 2, 1));
+
+            assertEquals(List.of(4L, 5L), numbers());
+            journal.deleteThrough(4);
+            assertEquals(List.of(5L), numbers());
+        }
+        assertEquals(List.of("STORE 2 1"), readAll());
+    }
+
+    @Test
+    void aRotationSyncsWhatWasAppendedBeforeIt() throws IOException {
+        try (StockDeltaJournal journal = new StockDeltaJournal(dir, 1)) {
+            long first = journal.append(StockTarget.STORE, 1, 1);
+            assertFalse(journal.isSynced(first));
+            journal.sync(first);
+            assertTrue(journal.isSynced(first));
+
+            long second = journal.append(StockTarget.STORE, 2, 1);
+            assertFalse(journal.isSynced(second));
+            journal.rotate();
+            assertTrue(journal.isSynced(second));
+        }
+    }
+
+    @Test
+    void ignoresATornOrCorruptTail() throws IOException {
+        try (StockDeltaJournal journal = new StockDeltaJournal(dir, 1)) {
+            journal.sync(journal.append(StockTarget.STORE, 1, 5));
+            journal.sync(journal.append(StockTarget.STORE, 2, 6));
+        }
+        Path file = StockDeltaJournal.segments(dir).get(0).path();
+
+        // flip a byte of the second record's delta
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[StockDeltaJournal.RECORD_SIZE + 12] ^= 1;
+        Files.write(file, bytes);
+        assertEquals(List.of("STORE 1 5"), readAll());
+
+        // half a record, as left by a crash in the middle of a write
+        Files.write(file, new byte[]{0, 0, 0}, StandardOpenOption.TRUNCATE_EXISTING);
+        assertEquals(List.of(), readAll());
+    }
+
+    @Test
+    void listsNoSegmentsForAMissingDirectory() throws IOException {
+        assertEquals(List.of(), StockDeltaJournal.segments(dir.resolve("missing")));
+    }
+
+    private List<String> readAll() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (StockDeltaJournal.Segment segment : StockDeltaJournal.segments(dir)) {
+            StockDeltaJournal.read(segment.path(),
+                    (target, id, delta) -> records.add(target + " " + id + " " + delta));
+        }
+        return records;
+    }
+
+    private List<Long> numbers() throws IOException {
+        return StockDeltaJournal.segments(dir).stream().map(StockDeltaJournal.Segment::number).toList();
+    }
+}
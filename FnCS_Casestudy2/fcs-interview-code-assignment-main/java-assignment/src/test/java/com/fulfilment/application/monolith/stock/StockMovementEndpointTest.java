@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Write-behind off (the default): every movement is its own UPDATE
+@QuarkusTest
+class StockMovementEndpointTest {
+
+    @Inject
+    StockDeltaBuffer stockDeltas;
+    @Inject
+    EntityManager em;
+
+    @AfterEach
+    void cleanUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("delete from Store s where s.name like 'TEST_%'").executeUpdate();
+            em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+        });
+    }
+
+    @Test
+    void appliesStoreMovementsImmediately() {
+        long id = QuarkusTransaction.requiringNew().call(() -> {
+            Store store = new Store("TEST_DIRECT_STORE");
+            store.quantityProductsInStock = 10;
+            store.persist();
+            return store.id;
+        });
+        assertFalse(stockDeltas.isEnabled());
+
+        given().contentType(ContentType.JSON).body("{\"quantity\":-4}")
+                .when().post("/store/" + id + "/stock-movements")
+                .then().statusCode(200).body("quantityProductsInStock", is(6));
+        given().when().get("/store/" + id)
+                .then().statusCode(200).body("quantityProductsInStock", is(6));
+    }
+
+    @Test
+    void appliesProductMovementsImmediately() {
+        long id = QuarkusTransaction.requiringNew().call(() -> {
+            Product product = new Product("TEST_DIRECT_PRODUCT");
+            product.stock = 5;
+            em.persist(product);
+            return product.id;
+        });
+
+        given().contentType(ContentType.JSON).body("{\"quantity\":3}")
+                .when().post("/product/" + id + "/stock-movements")
+                .then().statusCode(200).body("stock", is(8));
+        given().when().get("/product/" + id)
+                .then().statusCode(200).body("stock", is(8));
+    }
+
+    @Test
+    void rejectsInvalidMovements() {
+        given().contentType(ContentType.JSON).body("{}")
+                .when().post("/product/1/stock-movements")
+                .then().statusCode(422);
+        given().contentType(ContentType.JSON).body("{\"quantity\":2}")
+                .when().post("/store/999999/stock-movements")
+                .then().statusCode(404);
+    }
+}
@@ -0,0 +1,113 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.stores.StoreResource;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Pbenchmark -Dtest=StockWriteBehindBenchmark
+// Movements per second on one store: an UPDATE transaction each (write-behind off) against
+// the journalled buffer with the scheduled flush.
+@Tag("benchmark")
+@QuarkusTest
+@TestProfile(StockWriteBehindBenchmark.ScheduledFlush.class)
+class StockWriteBehindBenchmark {
+
+    public static class ScheduledFlush implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "stock.write-behind.enabled", "true",
+                    "stock.write-behind.flush-every", "1s");
+        }
+    }
+
+    private static final int MOVEMENTS_PER_THREAD = 2_000;
+
+    @Inject
+    StoreResource storeResource;
+    @Inject
+    StockDeltaBuffer stockDeltas;
+    @Inject
+    EntityManager em;
+
+    @Test
+    void movementsPerSecondOnOneStore() throws Exception {
+        long id = QuarkusTransaction.requiringNew().call(() -> {
+            em.createQuery("delete from Store s where s.name like 'TEST_%'").executeUpdate();
+            Store store = new Store("TEST_BENCH_WB");
+            store.quantityProductsInStock = 500_000;
+            store.persist();
+            return store.id;
+        });
+        StockDeltaBuffer.StockMovement up = new StockDeltaBuffer.StockMovement(3);
+        StockDeltaBuffer.StockMovement down = new StockDeltaBuffer.StockMovement(-3);
+
+        for (int threads : new int[]{1, 4, 8}) {
+            run("direct", threads, i -> QuarkusTransaction.requiringNew().run(() -> Store.update(
+                    "quantityProductsInStock = quantityProductsInStock + ?1 where id = ?2",
+                    (i & 1) == 0 ? 3 : -3, id)));
+            // One request context per movement, as for an HTTP request
+            run("write-behind", threads, i -> {
+                ManagedContext request = Arc.container().requestContext();
+                request.activate();
+                try {
+                    storeResource.moveStock(id, (i & 1) == 0 ? up : down);
+                } finally {
+                    request.terminate();
+                }
+            });
+        }
+
+        stockDeltas.flush();
+        assertEquals(500_000, QuarkusTransaction.requiringNew()
+                .call(() -> Store.<Store>findById(id).quantityProductsInStock));
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery(
+                "delete from Store s where s.name like 'TEST_%'").executeUpdate());
+    }
+
+    private void run(String mode, int threads, Movement movement) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                        movement.apply(i);
+                    }
+                    return null;
+                });
+            }
+            long began = System.nanoTime();
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            System.out.printf(
+                    "Store stock movements (%s): %d threads, %,d movements in %.2f s = %,.0f/s%n",
+                    mode, threads, threads * MOVEMENTS_PER_THREAD, seconds,
+                    threads * MOVEMENTS_PER_THREAD / seconds);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface Movement {
+        void apply(int i);
+    }
+}
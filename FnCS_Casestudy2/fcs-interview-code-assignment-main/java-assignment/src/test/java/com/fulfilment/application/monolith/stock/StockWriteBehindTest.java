@@ -0,0 +1,217 @@
+package com.fulfilment.application.monolith.stock;
+
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Flushes are triggered by the tests, the schedule is off
+@QuarkusTest
+@TestProfile(StockWriteBehindTest.WriteBehind.class)
+class StockWriteBehindTest {
+
+    public static class WriteBehind implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "stock.write-behind.enabled", "true",
+                    "stock.write-behind.flush-every", "off");
+        }
+    }
+
+    @Inject
+    StockDeltaBuffer stockDeltas;
+    @Inject
+    EntityManager em;
+
+    private long storeId;
+    private long productId;
+
+    @BeforeEach
+    void createRows() {
+        cleanUp();
+        QuarkusTransaction.requiringNew().run(() -> {
+            Store store = new Store("TEST_WB_STORE");
+            store.quantityProductsInStock = 100;
+            store.persist();
+            storeId = store.id;
+
+            Product product = new Product("TEST_WB_PRODUCT");
+            product.stock = 50;
+            em.persist(product);
+            productId = product.id;
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        stockDeltas.flush();
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("delete from Store s where s.name like 'TEST_%'").executeUpdate();
+            em.createQuery("delete from Product p where p.name like 'TEST_%'").executeUpdate();
+            em.createQuery("delete from StockDeltaQuarantine").executeUpdate();
+        });
+    }
+
+    @Test
+    void movementsAreReadBackBeforeTheyAreFlushed() {
+        move("store", storeId, 5).body("quantityProductsInStock", is(105));
+        move("store", storeId, -2).body("quantityProductsInStock", is(103));
+        move("product", productId, 4).body("stock", is(54));
+
+        assertEquals(100, storedStoreStock());
+        given().when().get("/store/" + storeId).then().statusCode(200)
+                .body("quantityProductsInStock", is(103));
+        given().when().get("/product/" + productId).then().statusCode(200)
+                .body("stock", is(54));
+
+        stockDeltas.flush();
+
+        assertEquals(103, storedStoreStock());
+        assertEquals(0, stockDeltas.pendingDelta(StockTarget.STORE, storeId));
+        // one legacy update for both movements
+        given().when().get("/store/" + storeId + "/legacy-sync").then().statusCode(200)
+                .body("size()", is(1))
+                .body("[0].operation", is("UPDATE"));
+        given().when().get("/store/" + storeId).then().statusCode(200)
+                .body("quantityProductsInStock", is(103));
+        given().when().get("/product/" + productId).then().statusCode(200)
+                .body("stock", is(54));
+    }
+
+    @Test
+    void anAbsoluteWriteIsNotOverwrittenByOlderDeltas() {
+        move("store", storeId, 7);
+
+        given().contentType(ContentType.JSON)
+                .body("{\"name\":\"TEST_WB_STORE\",\"quantityProductsInStock\":20}")
+                .when().put("/store/" + storeId)
+                .then().statusCode(200);
+        stockDeltas.flush();
+
+        assertEquals(20, storedStoreStock());
+    }
+
+    @Test
+    void aDeltaTheDatabaseRefusesIsQuarantinedAndTheRestIsFlushed() {
+        // Past the int column
+        stockDeltas.add(StockTarget.PRODUCT, productId, Integer.MAX_VALUE);
+        move("store", storeId, 5);
+
+        stockDeltas.flush();
+
+        assertEquals(105, storedStoreStock());
+        assertEquals(50, (int) QuarkusTransaction.requiringNew()
+                .call(() -> em.find(Product.class, productId).stock));
+        assertEquals(0, stockDeltas.pendingDelta(StockTarget.PRODUCT, productId));
+        StockDeltaQuarantine quarantined = QuarkusTransaction.requiringNew().call(() -> em
+                .createQuery("from StockDeltaQuarantine", StockDeltaQuarantine.class)
+                .getSingleResult());
+        assertEquals("PRODUCT", quarantined.target);
+        assertEquals(productId, quarantined.targetId);
+        assertEquals(Integer.MAX_VALUE, quarantined.delta);
+        assertNotNull(quarantined.error);
+    }
+
+    @Test
+    void rejectsMovementsOfUnknownRowsAndEmptyQuantities() {
+        given().contentType(ContentType.JSON).body("{\"quantity\":1}")
+                .when().post("/product/999999/stock-movements")
+                .then().statusCode(404);
+        given().contentType(ContentType.JSON).body("{\"quantity\":0}")
+                .when().post("/store/" + storeId + "/stock-movements")
+                .then().statusCode(422);
+
+        assertEquals(0, stockDeltas.pendingDelta(StockTarget.PRODUCT, 999999));
+    }
+
+    @Test
+    void concurrentMovementsAreAllCounted() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        move("store", storeId, 2);
+                        if (i % 10 == 0) {
+                            stockDeltas.flush();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        stockDeltas.flush();
+        assertEquals(100 + threads * perThread * 2, storedStoreStock());
+    }
+
+    @Test
+    void replaysJournalledDeltasExactlyOnce() throws Exception {
+        // Past the segments the running journal has already checkpointed
+        long next = QuarkusTransaction.requiringNew().call(() -> ((Number) em
+                .createNativeQuery("SELECT coalesce(max(segment), 0) FROM stock_journal_checkpoint")
+                .getSingleResult()).longValue()) + 100;
+        Path dir = Files.createTempDirectory("stock-journal");
+        try (StockDeltaJournal crashed = new StockDeltaJournal(dir, next)) {
+            crashed.append(StockTarget.STORE, storeId, 11);
+            crashed.append(StockTarget.STORE, storeId, 1);
+            crashed.sync(crashed.append(StockTarget.PRODUCT, productId, -5));
+        }
+        Path segment = StockDeltaJournal.segments(dir).get(0).path();
+        byte[] copy = Files.readAllBytes(segment);
+
+        stockDeltas.recover(dir, StockDeltaJournal.segments(dir));
+
+        assertEquals(112, storedStoreStock());
+        assertEquals(45, (int) QuarkusTransaction.requiringNew()
+                .call(() -> em.find(Product.class, productId).stock));
+        assertTrue(StockDeltaJournal.segments(dir).isEmpty());
+
+        // Deleting the segment did not happen before a crash: the checkpoint still skips it
+        Files.write(segment, copy);
+        stockDeltas.recover(dir, StockDeltaJournal.segments(dir));
+        assertEquals(112, storedStoreStock());
+    }
+
+    private io.restassured.response.ValidatableResponse move(String resource, long id, int quantity) {
+        return given().contentType(ContentType.JSON)
+                .body("{\"quantity\":" + quantity + "}")
+                .when().post("/" + resource + "/" + id + "/stock-movements")
+                .then().statusCode(200);
+    }
+
+    private int storedStoreStock() {
+        return QuarkusTransaction.requiringNew().call(() -> ((Number) em
+                .createNativeQuery("SELECT quantityProductsInStock FROM store WHERE id = ?1")
+                .setParameter(1, storeId)
+                .getSingleResult()).intValue());
+    }
+}
@@ -42,6 +42,21 @@ class AfterCommitExecutorTest {
         assertFalse(ran.get());
     }
 
+    @Test
+    void runAfterCompletionExecutesOnRollback() {
+        FakeTransactionSynchronizationRegistry registry =
+                new FakeTransactionSynchronizationRegistry(Status.STATUS_ACTIVE);
+        AfterCommitExecutor executor = new AfterCommitExecutor(registry);
+        executor.txSyncRegistry = registry;
+
+        AtomicBoolean ran = new AtomicBoolean(false);
+        executor.runAfterCompletion(() -> ran.set(true));
+
+        assertFalse(ran.get());
+        registry.fireAfterCompletion(Status.STATUS_ROLLEDBACK);
+        assertTrue(ran.get());
+    }
+
     @Test
     void runAfterCommitExecutesImmediatelyWithoutActiveTransaction() {
         FakeTransactionSynchronizationRegistry registry =
@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.api.exception.LegacyStoreWriteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpLegacyStoreTransportTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private LegacyStandInServer standIn;
+
+    @AfterEach
+    void stop() {
+        standIn.stop();
+    }
+
+    @Test
+    void sendsTheChangesInBatches() throws IOException {
+        HttpLegacyStoreTransport transport = transportTo(standIn(0, 0));
+
+        List<LegacyStoreTransport.Rejection> rejected = transport.send(changes(250));
+
+        assertTrue(rejected.isEmpty());
+        assertEquals(250, standIn.accepted());
+        assertEquals(3, standIn.requests());
+    }
+
+    @Test
+    void reportsRejectedChangesByTheirIndexInTheCall() throws IOException {
+        HttpLegacyStoreTransport transport = transportTo(standIn(0, 1));
+
+        List<LegacyStoreTransport.Rejection> rejected = transport.send(changes(150));
+
+        assertEquals(150, rejected.size());
+        assertEquals(149, rejected.get(149).index());
+        assertEquals("Rejected by the legacy stand-in", rejected.get(0).reason());
+    }
+
+    @Test
+    void aFailedRequestRejectsItsWholeChunk() throws IOException {
+        HttpLegacyStoreTransport transport = transportTo(standIn(1, 0));
+
+        List<LegacyStoreTransport.Rejection> rejected = transport.send(changes(120));
+
+        assertEquals(120, rejected.size());
+        assertEquals("Legacy system answered HTTP 503", rejected.get(0).reason());
+        assertEquals(0, standIn.accepted());
+    }
+
+    @Test
+    void gatewayRaisesARejectionOfASingleChange() {
+        LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway(transportTo(standIn(0, 1)));
+
+        LegacyStoreWriteException e = assertThrows(LegacyStoreWriteException.class,
+                () -> gateway.updateStoreOnLegacySystem(new Store("REJECTED")));
+        assertTrue(e.getMessage().contains("REJECTED"));
+    }
+
+    private LegacyStandInServer standIn(double failureRate, double rejectRate) {
+        standIn = new LegacyStandInServer();
+        standIn.port = 0;
+        standIn.threads = 4;
+        standIn.latency = Duration.ZERO;
+        standIn.failureRate = failureRate;
+        standIn.rejectRate = rejectRate;
+        standIn.mapper = mapper;
+        try {
+            standIn.start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return standIn;
+    }
+
+    private HttpLegacyStoreTransport transportTo(LegacyStandInServer server) {
+        return new HttpLegacyStoreTransport(
+                URI.create("http://localhost:" + server.port()), 100, 4, Duration.ofSeconds(5), mapper);
+    }
+
+    private static List<LegacyStoreChange> changes(int count) {
+        List<LegacyStoreChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            changes.add(new LegacyStoreChange((long) i, LegacyStoreOutbox.Operation.UPDATE, "STORE-" + i, i));
+        }
+        return changes;
+    }
+}
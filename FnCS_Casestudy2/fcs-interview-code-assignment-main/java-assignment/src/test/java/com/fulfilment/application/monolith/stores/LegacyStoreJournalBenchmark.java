@@ -0,0 +1,91 @@
+package com.fulfilment.application.monolith.stores;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Run with: mvn test -Pbenchmark -Dtest=LegacyStoreJournalBenchmark
+// Compares the former temp file per store change with the journal, at 1 and 8 threads. The
+// temp files were never forced to disk, every journal write is.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacyStoreJournalBenchmark {
+
+    private final AtomicInteger next = new AtomicInteger();
+    private Path dir;
+    private LegacyStoreManagerGateway gateway;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("legacy-journal");
+        gateway = new LegacyStoreManagerGateway(
+                new FileLegacyStoreTransport(new LegacyStoreJournal(dir, 64 << 20, 2)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        gateway.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void tempFilePerChange() throws IOException {
+        Store store = store();
+        Path tempFile = Files.createTempFile(store.name, ".txt");
+        Files.write(tempFile, content(store).getBytes());
+        Files.readAllBytes(tempFile);
+        Files.delete(tempFile);
+    }
+
+    @Benchmark
+    public void journal() {
+        gateway.updateStoreOnLegacySystem(store());
+    }
+
+    private Store store() {
+        int i = next.incrementAndGet();
+        Store store = new Store("STORE-" + (i & 1023));
+        store.quantityProductsInStock = i;
+        return store;
+    }
+
+    // The gateway as it was before the journal
+    private static String content(Store store) {
+        return "Store data [ name =" + store.name + " ] [ items on stock =" + store.quantityProductsInStock + "]";
+    }
+
+    @Test
+    void compareWriters() throws RunnerException {
+        for (int threads : new int[] {1, 8}) {
+            Options options =
+                    new OptionsBuilder()
+                            .include(LegacyStoreJournalBenchmark.class.getName())
+                            .threads(threads)
+                            .jvmArgsAppend("-Djava.class.path=" + System.getProperty("java.class.path"))
+                            .addProfiler(GCProfiler.class)
+                            .build();
+            new Runner(options).run();
+        }
+    }
+}
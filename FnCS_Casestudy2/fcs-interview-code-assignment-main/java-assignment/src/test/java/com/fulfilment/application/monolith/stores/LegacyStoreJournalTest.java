@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.stores;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LegacyStoreJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsSurviveAReopen() throws IOException {
+        try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 4096, 8)) {
+            journal.sync(journal.append(bytes("first")));
+        }
+        try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 4096, 8)) {
+            journal.sync(journal.append(bytes("second")));
+        }
+
+        assertEquals(2, LegacyStoreJournal.segments(dir).size());
+        assertEquals(List.of("first", "second"), readAll());
+    }
+
+    @Test
+    void rollsToANewSegmentAndDropsTheOldest() throws IOException {
+        // 8 bytes of header plus 24 of payload: three records per segment
+        try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 100, 2)) {
+            for (int i = 0; i < 10; i++) {
+                journal.sync(journal.append(bytes(String.format("record-%017d", i))));
+            }
+        }
+
+        List<Path> segments = LegacyStoreJournal.segments(dir);
+        assertEquals(2, segments.size());
+        assertTrue(segments.get(1).getFileName().toString().contains("-4."));
+        assertEquals(4, readAll().size());
+    }
+
+    @Test
+    void reopeningKeepsOnlyTheRetainedSegments() throws IOException {
+        for (int run = 0; run < 5; run++) {
+            try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 4096, 2)) {
+                journal.sync(journal.append(bytes("run-" + run)));
+            }
+        }
+
+        assertEquals(2, LegacyStoreJournal.segments(dir).size());
+        assertEquals(List.of("run-3", "run-4"), readAll());
+    }
+
+    @Test
+    void rejectsASegmentSizeThatCannotBeMapped() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LegacyStoreJournal(dir, 2L * 1024 * 1024 * 1024, 8));
+        assertThrows(IllegalArgumentException.class, () -> new LegacyStoreJournal(dir, 8, 8));
+    }
+
+    @Test
+    void readingStopsAtACorruptRecord() throws IOException {
+        try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 4096, 8)) {
+            journal.append(bytes("kept"));
+            journal.append(bytes("damaged"));
+            journal.sync(journal.append(bytes("after the damage")));
+        }
+        // Flip a byte in the payload of the second record
+        try (RandomAccessFile file = new RandomAccessFile(LegacyStoreJournal.segments(dir).get(0).toFile(), "rw")) {
+            file.seek(8 + 4 + 8 + 2);
+            file.write('X');
+        }
+
+        assertEquals(List.of("kept"), readAll());
+    }
+
+    @Test
+    void rejectsARecordLargerThanASegment() throws IOException {
+        try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 64, 8)) {
+            assertThrows(IOException.class, () -> journal.append(new byte[64]));
+        }
+    }
+
+    @Test
+    void concurrentWritersAllLandInTheJournal() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (LegacyStoreJournal journal = new LegacyStoreJournal(dir, 4096, 100)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int writer = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        journal.sync(journal.append(bytes("writer-" + writer + "-" + i)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> w : writers) {
+                w.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1000, readAll().size());
+    }
+
+    private List<String> readAll() throws IOException {
+        return LegacyStoreJournal.readAll(dir).stream()
+                .map(payload -> new String(payload, StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
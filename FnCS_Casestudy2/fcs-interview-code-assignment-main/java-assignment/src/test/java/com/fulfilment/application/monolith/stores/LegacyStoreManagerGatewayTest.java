@@ -1,18 +1,38 @@
 package com.fulfilment.application.monolith.stores;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class LegacyStoreManagerGatewayTest {
 
+    @TempDir
+    Path dir;
+
     @Test
-    void createAndUpdateWriteToTemporaryFile() {
-        LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway();
+    void createAndUpdateAppendToTheJournal() throws IOException {
+        LegacyStoreManagerGateway gateway = new LegacyStoreManagerGateway(
+                new FileLegacyStoreTransport(new LegacyStoreJournal(dir, 4096, 8)));
         Store store = new Store("LEGACY-STORE");
         store.quantityProductsInStock = 12;
 
         assertDoesNotThrow(() -> gateway.createStoreOnLegacySystem(store));
+        store.quantityProductsInStock = 13;
         assertDoesNotThrow(() -> gateway.updateStoreOnLegacySystem(store));
+        gateway.close();
+
+        List<String> records = LegacyStoreJournal.readAll(dir).stream()
+                .map(payload -> new String(payload, StandardCharsets.UTF_8))
+                .toList();
+        assertEquals(List.of(
+                "Store data [ name =LEGACY-STORE ] [ items on stock =12]",
+                "Store data [ name =LEGACY-STORE ] [ items on stock =13]"), records);
     }
 }
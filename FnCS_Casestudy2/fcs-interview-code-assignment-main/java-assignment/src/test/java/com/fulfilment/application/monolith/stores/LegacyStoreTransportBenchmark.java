@@ -0,0 +1,118 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Run with: mvn test -Pbenchmark -Dtest=LegacyStoreTransportBenchmark
+// Delivers one dispatcher batch of 100 store changes through each transport; the http ones
+// go to the stand-in at the given latency and failure rate. Scores are changes per second.
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacyStoreTransportBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"0", "5"})
+    public int latencyMillis;
+
+    @Param({"0", "0.2"})
+    public double failureRate;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<LegacyStoreChange> changes = new ArrayList<>();
+    private Path dir;
+    private LegacyStandInServer standIn;
+    private LegacyStoreManagerGateway file;
+    private LegacyStoreManagerGateway httpSingle;
+    private LegacyStoreManagerGateway httpBatched;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (int i = 0; i < BATCH; i++) {
+            changes.add(new LegacyStoreChange((long) i, LegacyStoreOutbox.Operation.UPDATE, "STORE-" + i, i));
+        }
+        dir = Files.createTempDirectory("legacy-journal");
+        file = new LegacyStoreManagerGateway(
+                new FileLegacyStoreTransport(new LegacyStoreJournal(dir, 64 << 20, 2)));
+
+        standIn = new LegacyStandInServer();
+        standIn.port = 0;
+        standIn.threads = 16;
+        standIn.latency = Duration.ofMillis(latencyMillis);
+        standIn.failureRate = failureRate;
+        standIn.rejectRate = 0;
+        standIn.mapper = mapper;
+        standIn.start();
+        URI url = URI.create("http://localhost:" + standIn.port());
+        // One change per request, one request at a time: a blocking call per store change
+        httpSingle = new LegacyStoreManagerGateway(
+                new HttpLegacyStoreTransport(url, 1, 1, Duration.ofSeconds(5), mapper));
+        httpBatched = new LegacyStoreManagerGateway(
+                new HttpLegacyStoreTransport(url, 25, 4, Duration.ofSeconds(5), mapper));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        file.close();
+        standIn.stop();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void fileJournal(Blackhole blackhole) {
+        blackhole.consume(file.deliver(changes));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void httpOneByOne(Blackhole blackhole) {
+        blackhole.consume(httpSingle.deliver(changes));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void httpBatchedAndPooled(Blackhole blackhole) {
+        blackhole.consume(httpBatched.deliver(changes));
+    }
+
+    @Test
+    void compareTransports() throws RunnerException {
+        Options options =
+                new OptionsBuilder()
+                        .include(LegacyStoreTransportBenchmark.class.getName())
+                        .jvmArgsAppend(
+                                "-Djava.class.path=" + System.getProperty("java.class.path"),
+                                // The stand-in answers without waiting for a delayed ACK
+                                "-Dsun.net.httpserver.nodelay=true")
+                        .addProfiler(GCProfiler.class)
+                        .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Pbenchmark -Dtest=StoreExportMemoryBenchmark
+// Heap that survives garbage collection while GET /store/export and GET /store serve 100k and
+// 1M stores. The highest heap use after any collection during a request, over the heap in use
+// before it, approximates what the request keeps alive; for the streaming export it should not
+// grow with the row count.
+@Tag("benchmark")
+@QuarkusTest
+class StoreExportMemoryBenchmark {
+
+    private static final long FIRST_ID = 1_000_000_000L;
+
+    @Inject
+    EntityManager em;
+
+    @TestHTTPResource("store")
+    URI list;
+
+    @TestHTTPResource("store/export")
+    URI export;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void deleteStores() {
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createNativeQuery("DELETE FROM store WHERE id >= " + FIRST_ID).executeUpdate());
+    }
+
+    @Test
+    void retainedHeapByRowCount() throws Exception {
+        int present = 0;
+        for (int rows : new int[] {100_000, 1_000_000}) {
+            int from = present;
+            QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                            "INSERT INTO store(id, name, quantityProductsInStock) "
+                                    + "SELECT " + FIRST_ID + " + g, 'EXPORT-' || lpad(g::text, 7, '0'), g % 100 "
+                                    + "FROM generate_series(" + (from + 1) + ", " + rows + ") g")
+                    .executeUpdate());
+            present = rows;
+
+            for (URI uri : new URI[] {export, list}) {
+                measure(uri, rows);
+            }
+        }
+    }
+
+    private void measure(URI uri, int rows) throws Exception {
+        System.gc();
+        long baseline = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        AtomicLong maxAfterGc = new AtomicLong(baseline);
+        NotificationListener listener = (notification, handback) -> maxAfterGc.accumulateAndGet(heapAfter(notification), Math::max);
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+        }
+
+        long started = System.nanoTime();
+        long bytes = 0;
+        HttpResponse<InputStream> response =
+                client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int n; (n = body.read(buffer)) >= 0; ) {
+                bytes += n;
+            }
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).removeNotificationListener(listener);
+        }
+        assertEquals(200, response.statusCode());
+        System.out.printf("%-14s %,9d rows: %,6d MB response, %,6d MB over the %,d MB baseline, %,6d ms%n",
+                uri.getPath(), rows, bytes >> 20, (maxAfterGc.get() - baseline) >> 20, baseline >> 20, millis);
+    }
+
+    private static long heapAfter(Notification notification) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return 0;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long used = 0;
+        for (MemoryUsage pool : info.getGcInfo().getMemoryUsageAfterGc().values()) {
+            used += pool.getUsed();
+        }
+        return used;
+    }
+}
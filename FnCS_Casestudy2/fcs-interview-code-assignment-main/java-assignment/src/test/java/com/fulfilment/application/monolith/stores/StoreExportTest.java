@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@QuarkusTest
+class StoreExportTest {
+
+    @Test
+    void exportMatchesTheList() {
+        List<Map<String, Object>> list = given().when().get("/store").then().statusCode(200)
+                .extract().jsonPath().getList("$");
+        List<Map<String, Object>> export = given().when().get("/store/export").then().statusCode(200)
+                .extract().jsonPath().getList("$");
+
+        assertFalse(export.isEmpty());
+        assertEquals(list, export);
+    }
+}
@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@QuarkusTest
+class StorePageTest {
+
+    @BeforeEach
+    void createStores() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (String name : List.of("PAGED-B", "PAGED-A", "PAGED-C")) {
+                new Store(name).persist();
+            }
+        });
+    }
+
+    @AfterEach
+    void deleteStores() {
+        QuarkusTransaction.requiringNew().run(() -> Store.delete("name like 'PAGED-%'"));
+    }
+
+    @Test
+    void pagesStoresByNamePrefix() {
+        JsonPath first = page(null);
+        assertEquals(List.of("PAGED-A", "PAGED-B"), first.getList("items.name"));
+
+        JsonPath second = page(first.getString("nextAfter"));
+        assertEquals(List.of("PAGED-C"), second.getList("items.name"));
+        assertNull(second.getString("nextAfter"));
+    }
+
+    private JsonPath page(String after) {
+        var request = given().queryParam("name", "PAGED-").queryParam("limit", 2);
+        if (after != null) {
+            request = request.queryParam("after", after);
+        }
+        return request.when().get("/store/page").then().statusCode(200).extract().jsonPath();
+    }
+}
@@ -1,16 +1,27 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.api.exception.LegacyStoreWriteException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
@@ -25,10 +36,20 @@ class StoreResourceLegacySyncTest {
         QuarkusMock.installMockForType(recorder, LegacyStoreManagerGateway.class);
     }
 
+    @Inject
+    LegacyStoreSyncDispatcher dispatcher;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    MeterRegistry registry;
+
     @BeforeEach
     @Transactional
     void reset() {
         Store.deleteAll();
+        em.createQuery("delete from LegacyStoreOutbox").executeUpdate();
         recorder.reset();
     }
 
@@ -42,6 +63,10 @@ class StoreResourceLegacySyncTest {
                 .then()
                 .statusCode(201);
 
+        // nothing on the request thread
+        assertEquals(0, recorder.createCalls.get());
+        assertEquals(1, dispatcher.dispatchPending());
+
         assertEquals(1, recorder.createCalls.get());
         assertEquals("STORE-A", recorder.lastStore.name);
         assertEquals(10, recorder.lastStore.quantityProductsInStock);
@@ -58,6 +83,7 @@ class StoreResourceLegacySyncTest {
                 .then()
                 .statusCode(201);
 
+        dispatcher.dispatchPending();
         recorder.reset();
 
         // second create violates unique constraint -> commit fails -> legacy must NOT be called
@@ -69,6 +95,7 @@ class StoreResourceLegacySyncTest {
                 .then()
                 .statusCode(500);
 
+        assertEquals(0, dispatcher.dispatchPending());
         assertEquals(0, recorder.createCalls.get());
     }
 
@@ -91,6 +118,7 @@ class StoreResourceLegacySyncTest {
                 .then()
                 .statusCode(204);
 
+        assertEquals(2, dispatcher.dispatchPending());
         assertEquals(1, recorder.updateCalls.get());
         assertEquals("STORE-DELETE", recorder.lastStore.name);
         assertEquals(7, recorder.lastStore.quantityProductsInStock);
@@ -104,29 +132,189 @@ class StoreResourceLegacySyncTest {
                 .then()
                 .statusCode(404);
 
+        dispatcher.dispatchPending();
+        assertEquals(0, recorder.updateCalls.get());
+    }
+
+    @Test
+    void retriesAFailedDeliveryAfterBackoffAndKeepsTheStoreOrder() {
+        Integer storeId = createStore("STORE-RETRY", 3);
+        patchStore(storeId, "STORE-RETRY", 4);
+        recorder.failuresLeft.set(1);
+
+        assertEquals(0, dispatcher.dispatchPending());
+        assertEquals(1, recorder.createCalls.get());
         assertEquals(0, recorder.updateCalls.get());
+        given().when().get("/store/" + storeId + "/legacy-sync").then()
+                .statusCode(200)
+                .body("size()", is(2))
+                .body("[1].operation", is("CREATE"))
+                .body("[1].status", is("PENDING"))
+                .body("[1].attempts", is(1))
+                .body("[1].lastError", containsString("STORE-RETRY"))
+                .body("[0].attempts", is(0));
+
+        // still backing off
+        assertEquals(0, dispatcher.dispatchPending());
+
+        makeDue();
+        assertEquals(2, dispatcher.dispatchPending());
+        assertEquals(2, recorder.createCalls.get());
+        assertEquals(1, recorder.updateCalls.get());
+        assertEquals(4, recorder.lastStore.quantityProductsInStock);
+        given().when().get("/store/" + storeId + "/legacy-sync").then()
+                .statusCode(200)
+                .body("status", everyItem(is("DELIVERED")));
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        Integer storeId = createStore("STORE-GIVE-UP", 1);
+        recorder.failuresLeft.set(Integer.MAX_VALUE);
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createQuery("update LegacyStoreOutbox o set o.attempts = 9").executeUpdate());
+
+        assertEquals(0, dispatcher.dispatchPending());
+        makeDue();
+        assertEquals(0, dispatcher.dispatchPending());
+
+        given().when().get("/store/" + storeId + "/legacy-sync").then()
+                .statusCode(200)
+                .body("[0].status", is("FAILED"))
+                .body("[0].attempts", is(10))
+                .body("[0].nextAttemptAt", nullValue());
+        assertEquals(1, recorder.createCalls.get());
+    }
+
+    @Test
+    void sendsOnlyTheNewestOfRapidUpdates() {
+        Integer storeId = createStore("STORE-BURST", 0);
+        for (int i = 1; i <= 10; i++) {
+            patchStore(storeId, "STORE-BURST", i);
+        }
+        double before = suppressedWrites();
+
+        assertEquals(2, dispatcher.dispatchPending());
+
+        assertEquals(List.of("create STORE-BURST 0", "update STORE-BURST 10"), recorder.calls);
+        assertEquals(9, suppressedWrites() - before);
+        given().when().get("/store/" + storeId + "/legacy-sync").then()
+                .statusCode(200)
+                .body("size()", is(11))
+                .body("[0].status", is("DELIVERED"))
+                .body("[1].status", is("SUPERSEDED"))
+                .body("[10].status", is("DELIVERED"));
+    }
+
+    @Test
+    void keepsCreateBeforeUpdateBeforeDelete() {
+        Integer storeId = createStore("STORE-LIFECYCLE", 1);
+        patchStore(storeId, "STORE-LIFECYCLE", 2);
+        patchStore(storeId, "STORE-LIFECYCLE", 3);
+        given().when().delete("/store/" + storeId).then().statusCode(204);
+
+        assertEquals(2, dispatcher.dispatchPending());
+
+        assertEquals(List.of("create STORE-LIFECYCLE 1", "update STORE-LIFECYCLE 3"), recorder.calls);
+        given().when().get("/store/" + storeId + "/legacy-sync").then()
+                .statusCode(200)
+                .body("operation", contains("DELETE", "UPDATE", "UPDATE", "CREATE"))
+                .body("status", contains("DELIVERED", "SUPERSEDED", "SUPERSEDED", "DELIVERED"));
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoffAfter(1));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoffAfter(4));
+        assertEquals(Duration.ofMinutes(5), dispatcher.backoffAfter(30));
+    }
+
+    private Integer createStore(String name, int stock) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"" + name + "\",\"quantityProductsInStock\":" + stock + "}")
+                .when()
+                .post("/store")
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("id");
+    }
+
+    private void patchStore(Integer id, String name, int stock) {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"" + name + "\",\"quantityProductsInStock\":" + stock + "}")
+                .when()
+                .patch("/store/" + id)
+                .then()
+                .statusCode(200);
+    }
+
+    private double suppressedWrites() {
+        return registry.counter("legacy.outbox.suppressed").count();
+    }
+
+    private void makeDue() {
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery(
+                        "update LegacyStoreOutbox o set o.nextAttemptAt = :now")
+                .setParameter("now", LocalDateTime.now().minusSeconds(1))
+                .executeUpdate());
     }
 
     static class RecordingLegacyStoreManagerGateway extends LegacyStoreManagerGateway {
         final AtomicInteger createCalls = new AtomicInteger();
         final AtomicInteger updateCalls = new AtomicInteger();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final List<String> calls = new CopyOnWriteArrayList<>();
         volatile Store lastStore;
 
         @Override
         public void createStoreOnLegacySystem(Store store) {
             createCalls.incrementAndGet();
+            failIfAsked(store);
+            calls.add("create " + store.name + " " + store.quantityProductsInStock);
             lastStore = store;
         }
 
         @Override
         public void updateStoreOnLegacySystem(Store store) {
             updateCalls.incrementAndGet();
+            failIfAsked(store);
+            calls.add("update " + store.name + " " + store.quantityProductsInStock);
             lastStore = store;
         }
 
+        // One call per change, as the tests count and fail single calls
+        @Override
+        public List<LegacyStoreTransport.Rejection> deliver(List<LegacyStoreChange> changes) {
+            List<LegacyStoreTransport.Rejection> rejected = new ArrayList<>();
+            for (int i = 0; i < changes.size(); i++) {
+                LegacyStoreChange change = changes.get(i);
+                try {
+                    if (change.operation() == LegacyStoreOutbox.Operation.CREATE) {
+                        createStoreOnLegacySystem(change.toStore());
+                    } else {
+                        updateStoreOnLegacySystem(change.toStore());
+                    }
+                } catch (LegacyStoreWriteException e) {
+                    rejected.add(new LegacyStoreTransport.Rejection(i, e.getMessage()));
+                }
+            }
+            return rejected;
+        }
+
+        private void failIfAsked(Store store) {
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new LegacyStoreWriteException(store.name, new IllegalStateException("legacy down"));
+            }
+        }
+
         void reset() {
             createCalls.set(0);
             updateCalls.set(0);
+            failuresLeft.set(0);
+            calls.clear();
             lastStore = null;
         }
     }
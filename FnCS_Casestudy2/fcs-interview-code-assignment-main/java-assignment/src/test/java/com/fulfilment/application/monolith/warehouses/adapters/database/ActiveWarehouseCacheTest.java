@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class ActiveWarehouseCacheTest {
+
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    ActiveWarehouseCache cache;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                    .executeUpdate();
+            warehouseRepo.rebuildLocationUsage();
+        });
+        cache.invalidateAll();
+        createWarehouse("TEST_C1", 20);
+    }
+
+    @Test
+    void repeatedLookupIsServedWithoutStatements() {
+        assertEquals(20, lookup("TEST_C1").capacity);
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(20, lookup("TEST_C1").capacity);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void replacementIsVisibleRightAfterCommit() {
+        assertEquals(20, lookup("TEST_C1").capacity);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"location\":\"VETSBY-001\",\"capacity\":30,\"stock\":5}")
+                .when()
+                .post("/warehouse/TEST_C1/replacement")
+                .then()
+                .statusCode(200);
+
+        given().when().get("/warehouse/TEST_C1").then().statusCode(200).body("capacity", equalTo(30));
+    }
+
+    @Test
+    void archivedWarehouseIsNeverServedAsActive() {
+        given().when().get("/warehouse/TEST_C1").then().statusCode(200);
+
+        given().when().delete("/warehouse/TEST_C1").then().statusCode(204);
+
+        given().when().get("/warehouse/TEST_C1").then().statusCode(404);
+    }
+
+    @Test
+    void rowsChangedBehindTheCacheAreDetected() {
+        assertNotNull(lookup("TEST_C1"));
+
+        // archived without going through the repository, so nothing invalidates the entry
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery(
+                        "update DbWarehouse w set w.archivedAt = current_timestamp "
+                                + "where w.businessUnitCode = 'TEST_C1'")
+                .executeUpdate());
+
+        assertNull(lookup("TEST_C1"));
+    }
+
+    @Test
+    void exposesHitAndMissMetrics() {
+        lookup("TEST_C1");
+        lookup("TEST_C1");
+
+        given()
+                .when()
+                .get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("cache_gets_total{cache=\"warehouse.active\",result=\"hit\"}"))
+                .body(containsString("cache_gets_total{cache=\"warehouse.active\",result=\"miss\"}"));
+    }
+
+    private Warehouse lookup(String buCode) {
+        return QuarkusTransaction.requiringNew().call(() -> warehouseRepo.findByBusinessUnitCode(buCode));
+    }
+
+    @Transactional
+    void createWarehouse(String buCode, int capacity) {
+        Warehouse w = new Warehouse();
+        w.businessUnitCode = buCode;
+        w.location = "VETSBY-001";
+        w.capacity = capacity;
+        w.stock = 5;
+        warehouseRepo.create(w);
+        warehouseRepo.rebuildLocationUsage();
+    }
+}
@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class HibernateWarehouseStoreTest extends WarehouseStoreContractTest {
+
+    @Override
+    WarehouseStore store() {
+        return warehouseRepo;
+    }
+}
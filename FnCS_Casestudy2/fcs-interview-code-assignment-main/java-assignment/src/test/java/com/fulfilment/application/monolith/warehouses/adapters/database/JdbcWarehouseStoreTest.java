@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class JdbcWarehouseStoreTest extends WarehouseStoreContractTest {
+
+    @Inject
+    JdbcWarehouseStore jdbcStore;
+
+    @Override
+    WarehouseStore store() {
+        return jdbcStore;
+    }
+}
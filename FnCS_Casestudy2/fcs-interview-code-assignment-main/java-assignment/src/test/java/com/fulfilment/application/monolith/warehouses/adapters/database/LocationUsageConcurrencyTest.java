@@ -0,0 +1,162 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.api.exception.BusinessException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Creates, archives and replaces warehouses at one location from many transactions at once;
+// the ledger row of the location must let exactly as many through as its limits allow and
+// end up matching the active warehouses.
+@QuarkusTest
+class LocationUsageConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Inject
+    CreateWarehouseUseCase createWarehouseUseCase;
+    @Inject
+    ArchiveWarehouseUseCase archiveWarehouseUseCase;
+    @Inject
+    ReplaceWarehouseUseCase replaceWarehouseUseCase;
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        warehouseRepo.rebuildLocationUsage();
+    }
+
+    @Test
+    void concurrentCreatesNeverExceedMaxWarehouses() throws Exception {
+        // EINDHOVEN-001 allows 2 warehouses and 70 capacity
+        assertEquals(2, createConcurrently("EINDHOVEN-001", 10));
+        assertLedgerMatchesWarehouses("EINDHOVEN-001", 2, 20);
+    }
+
+    @Test
+    void concurrentCreatesNeverExceedLocationCapacity() throws Exception {
+        // AMSTERDAM-001 allows 100 capacity and already holds MWH.012 with 50
+        assertEquals(2, createConcurrently("AMSTERDAM-001", 20));
+        assertLedgerMatchesWarehouses("AMSTERDAM-001", 3, 90);
+    }
+
+    @Test
+    void archivingReleasesRoomAtLocation() {
+        // HELMOND-001 allows a single warehouse
+        QuarkusTransaction.requiringNew().run(() -> createWarehouseUseCase.create(warehouse("TEST_H1", "HELMOND-001", 10)));
+        QuarkusTransaction.requiringNew()
+                .run(() -> archiveWarehouseUseCase.archive(warehouseRepo.findByBusinessUnitCode("TEST_H1")));
+        QuarkusTransaction.requiringNew().run(() -> createWarehouseUseCase.create(warehouse("TEST_H2", "HELMOND-001", 10)));
+
+        assertLedgerMatchesWarehouses("HELMOND-001", 1, 10);
+    }
+
+    @Test
+    void concurrentArchivesReleaseTheLocationOnce() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> createWarehouseUseCase.create(warehouse("TEST_A1", "EINDHOVEN-001", 30)));
+
+        int archived = runConcurrently(i -> () ->
+                archiveWarehouseUseCase.archive(warehouseRepo.findByBusinessUnitCode("TEST_A1")));
+
+        assertEquals(1, archived);
+        assertLedgerMatchesWarehouses("EINDHOVEN-001", 0, 0);
+    }
+
+    @Test
+    void concurrentReplacesKeepOneActiveVersion() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> createWarehouseUseCase.create(warehouse("TEST_R1", "EINDHOVEN-001", 30)));
+
+        int replaced = runConcurrently(i -> () ->
+                replaceWarehouseUseCase.replace(warehouse("TEST_R1", "EINDHOVEN-001", 31 + i)));
+
+        long active = QuarkusTransaction.requiringNew().call(() -> warehouseRepo.count(
+                "businessUnitCode = ?1 and archivedAt is null", "TEST_R1"));
+        long versions = QuarkusTransaction.requiringNew().call(() -> warehouseRepo.count(
+                "businessUnitCode = ?1", "TEST_R1"));
+        int capacity = QuarkusTransaction.requiringNew().call(() ->
+                warehouseRepo.findByBusinessUnitCode("TEST_R1").capacity);
+        assertEquals(1, active);
+        assertEquals(replaced + 1, versions);
+        assertLedgerMatchesWarehouses("EINDHOVEN-001", 1, capacity);
+    }
+
+    // Each create runs in its own transaction, all released at once; returns the number that committed
+    private int createConcurrently(String location, int capacity) throws Exception {
+        return runConcurrently(i -> () -> createWarehouseUseCase.create(warehouse("TEST_C" + i, location, capacity)));
+    }
+
+    // Runs the work for 0..THREADS-1 in a transaction each, all released at once; returns
+    // the number that committed
+    private int runConcurrently(IntFunction<Runnable> work) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        AtomicInteger committed = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Runnable task = work.apply(i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        QuarkusTransaction.requiringNew().run(task);
+                        committed.incrementAndGet();
+                    } catch (BusinessException e) {
+                        // rejected by a location limit or a concurrent winner, as expected
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return committed.get();
+    }
+
+    private void assertLedgerMatchesWarehouses(String location, int warehouses, long capacity) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            DbLocationUsage usage = em.find(DbLocationUsage.class, location);
+            LocationStats stats = warehouseRepo.getLocationStats(location);
+            assertNotNull(usage);
+            assertEquals(warehouses, usage.warehouses);
+            assertEquals(capacity, usage.capacity);
+            assertEquals(warehouses, stats.activeWarehouses);
+            assertEquals(capacity, stats.totalCapacity);
+        });
+    }
+
+    private static Warehouse warehouse(String buCode, String location, int capacity) {
+        Warehouse w = new Warehouse();
+        w.businessUnitCode = buCode;
+        w.location = location;
+        w.capacity = capacity;
+        w.stock = 0;
+        return w;
+    }
+}
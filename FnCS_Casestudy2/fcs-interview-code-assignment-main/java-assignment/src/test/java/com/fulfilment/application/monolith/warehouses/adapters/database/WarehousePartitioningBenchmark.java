@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Run with: mvn test -Pbenchmark -Dtest=WarehousePartitioningBenchmark
+// Measures findByBusinessUnitCode with 1M archived versions present, on the plain table
+// and again after warehouse-partitioning.sql has split it. Leaves the table partitioned.
+@Tag("benchmark")
+@QuarkusTest
+class WarehousePartitioningBenchmark {
+
+    private static final int BUSINESS_UNITS = 1_000;
+    private static final int ARCHIVED_VERSIONS = 1_000;
+    private static final int LOOKUPS = 2_000;
+    private static final int RUNS = 5;
+
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    @Test
+    void findByBusinessUnitCodeWithOneMillionArchivedRows() throws IOException {
+        createFixture();
+        try {
+            report("plain table");
+            String script;
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream("warehouse-partitioning.sql")) {
+                assertNotNull(in);
+                script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            QuarkusTransaction.requiringNew().run(() -> runScript(script));
+            report("partitioned");
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> {
+                em.createNativeQuery("delete from warehouse where businessUnitCode like 'TEST_BENCH_%'")
+                        .executeUpdate();
+                em.createNativeQuery("analyze warehouse").executeUpdate();
+            });
+        }
+    }
+
+    // Every business unit has one active version and ARCHIVED_VERSIONS archived ones
+    private void createFixture() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createNativeQuery(
+                            "insert into warehouse (id, businessUnitCode, location, capacity, stock, createdAt, archivedAt) "
+                                    + "select nextval('warehouse_seq'), 'TEST_BENCH_' || (g % :units), 'ZWOLLE-001', 10, 1, "
+                                    + "timestamp '2020-01-01' + (g / :units) * interval '1 hour', "
+                                    + "case when g / :units = :versions then null "
+                                    + "else timestamp '2020-01-01' + (g / :units + 1) * interval '1 hour' end "
+                                    + "from generate_series(0, :units * (:versions + 1) - 1) g")
+                    .setParameter("units", BUSINESS_UNITS)
+                    .setParameter("versions", ARCHIVED_VERSIONS)
+                    .executeUpdate();
+            em.createNativeQuery("analyze warehouse").executeUpdate();
+        });
+    }
+
+    private void report(String layout) {
+        long[] nanos = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long began = System.nanoTime();
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    String buCode = "TEST_BENCH_" + ThreadLocalRandom.current().nextInt(BUSINESS_UNITS);
+                    assertNotNull(warehouseRepo.findByBusinessUnitCode(buCode));
+                    em.clear();
+                }
+            });
+            nanos[run] = (System.nanoTime() - began) / LOOKUPS;
+        }
+        Arrays.sort(nanos);
+        System.out.printf(
+                "findByBusinessUnitCode (%s): median %.1f us per lookup (min %.1f, max %.1f)%n",
+                layout, nanos[RUNS / 2] / 1e3, nanos[0] / 1e3, nanos[RUNS - 1] / 1e3);
+        System.out.println(String.join("\n", explain()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> explain() {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> em.createNativeQuery(
+                                "explain (analyze, buffers, costs off) select * from warehouse "
+                                        + "where businessUnitCode = 'TEST_BENCH_7' and archivedAt is null")
+                        .getResultList());
+    }
+
+    private void runScript(String script) {
+        StringBuilder statement = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (line.isBlank() || line.startsWith("--")) {
+                continue;
+            }
+            statement.append(line).append('\n');
+            if (line.trim().endsWith(";")) {
+                em.createNativeQuery(statement.toString()).executeUpdate();
+                statement.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the application on the partitioned warehouse table (warehouse-partitioning.sql)
+@QuarkusTest
+@TestProfile(WarehousePartitioningTest.Partitioned.class)
+class WarehousePartitioningTest {
+
+    public static class Partitioned implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.hibernate-orm.sql-load-script", "import.sql,warehouse-partitioning.sql");
+        }
+    }
+
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    @AfterEach
+    @Transactional
+    void clean() {
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        warehouseRepo.rebuildLocationUsage();
+    }
+
+    @Test
+    void seedRowsAreMigratedIntoTheActivePartition() {
+        assertEquals(3L, countIn("warehouse_active"));
+        given()
+                .when()
+                .get("/warehouse")
+                .then()
+                .statusCode(200)
+                .body("businessUnitCode", hasItems("MWH.001", "MWH.012", "MWH.023"));
+    }
+
+    @Test
+    void replaceMovesThePreviousVersionIntoTheArchivedPartition() {
+        long archivedBefore = countIn("warehouse_archived");
+        QuarkusTransaction.requiringNew().run(() -> {
+            Warehouse w = new Warehouse();
+            w.businessUnitCode = "TEST_P1";
+            w.location = "VETSBY-001";
+            w.capacity = 20;
+            w.stock = 5;
+            warehouseRepo.create(w);
+        });
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"location\":\"VETSBY-001\",\"capacity\":30,\"stock\":5}")
+                .when()
+                .post("/warehouse/TEST_P1/replacement")
+                .then()
+                .statusCode(200);
+
+        assertEquals(archivedBefore + 1, countIn("warehouse_archived"));
+        Warehouse active =
+                QuarkusTransaction.requiringNew().call(() -> warehouseRepo.findByBusinessUnitCode("TEST_P1"));
+        assertEquals(30, active.capacity);
+    }
+
+    @Test
+    void activeLookupsArePrunedToTheActivePartition() {
+        String plan = explain(
+                "select * from warehouse where businessUnitCode = 'MWH.001' and archivedAt is null");
+
+        assertTrue(plan.contains("warehouse_active"), plan);
+        assertFalse(plan.contains("warehouse_archived"), plan);
+    }
+
+    private long countIn(String partition) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> ((Number) em.createNativeQuery("select count(*) from " + partition)
+                        .getSingleResult()).longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private String explain(String sql) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> String.join(
+                        "\n", (List<String>) em.createNativeQuery("explain " + sql).getResultList()));
+    }
+}
@@ -0,0 +1,124 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.WarehouseResourceImpl;
+import com.warehouse.api.beans.Warehouse;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Pbenchmark -Dtest=WarehouseReadAllocationBenchmark
+// Bytes allocated per request on the request thread for GET /warehouse over 1,000 active
+// warehouses and for the business unit code check of a create: managed entities mapped to
+// domain objects (and to response beans) as before, against the path the resource takes
+// now, the port's scalar rows mapped to domain objects and then to response beans, with
+// either adapter behind the port.
+@Tag("benchmark")
+@QuarkusTest
+class WarehouseReadAllocationBenchmark {
+
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int WAREHOUSES = 1_000;
+    private static final int WARMUP = 200;
+    private static final int REQUESTS = 500;
+
+    @Inject
+    WarehouseRepository warehouseRepository;
+    @Inject
+    WarehouseResourceImpl warehouseResource;
+    @Inject
+    JdbcWarehouseStore jdbcWarehouseStore;
+    @Inject
+    EntityManager em;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @AfterEach
+    void deleteWarehouses() {
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createNativeQuery("DELETE FROM warehouse WHERE id >= " + FIRST_ID).executeUpdate());
+    }
+
+    @Test
+    void bytesPerRequest() {
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt) "
+                                + "SELECT " + FIRST_ID + " + g, 'ALLOC.' || g, 'ZWOLLE-001', 10, 1, now() "
+                                + "FROM generate_series(1, " + WAREHOUSES + ") g")
+                .executeUpdate());
+        int active = warehouseResource.listAllWarehousesUnits().size();
+
+        report("list, entities", () -> {
+            List<Warehouse> list = em.createQuery("from DbWarehouse w where w.archivedAt is null", DbWarehouse.class)
+                    .getResultList().stream()
+                    .map(DbWarehouse::toWarehouse)
+                    .map(WarehouseReadAllocationBenchmark::toResponse)
+                    .toList();
+            assertEquals(active, list.size());
+            return list;
+        });
+        report("list, port rows", () -> {
+            List<Warehouse> list = warehouseResource.listAllWarehousesUnits();
+            assertEquals(active, list.size());
+            return list;
+        });
+        report("list, jdbc rows", () -> {
+            List<Warehouse> list = jdbcWarehouseStore.getAll().stream()
+                    .map(WarehouseReadAllocationBenchmark::toResponse)
+                    .toList();
+            assertEquals(active, list.size());
+            return list;
+        });
+        report("check, entity", () -> {
+            DbWarehouse entity = warehouseRepository.find("businessUnitCode = ?1", "ALLOC.500").firstResult();
+            return entity == null ? null : entity.toWarehouse();
+        });
+        report("check, exists", () -> warehouseRepository.existsAnyByBusinessUnitCode("ALLOC.500"));
+    }
+
+    private void report(String name, Supplier<Object> request) {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            inRequest(request);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < REQUESTS; i++) {
+            inRequest(request);
+        }
+        long perRequest = (threads.getThreadAllocatedBytes(threadId) - before) / REQUESTS;
+        System.out.printf("%-18s %,10d bytes per request%n", name, perRequest);
+    }
+
+    // A request context per call, so every call gets a fresh persistence context as over HTTP
+    private static void inRequest(Supplier<Object> request) {
+        ManagedContext context = Arc.container().requestContext();
+        context.activate();
+        try {
+            request.get();
+        } finally {
+            context.terminate();
+        }
+    }
+
+    // The resource's response mapping
+    private static Warehouse toResponse(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse w) {
+        var response = new Warehouse();
+        response.setBusinessUnitCode(w.businessUnitCode);
+        response.setLocation(w.location);
+        response.setCapacity(w.capacity);
+        response.setStock(w.stock);
+        return response;
+    }
+}
@@ -0,0 +1,112 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Run with: mvn test -Pbenchmark -Dtest=WarehouseStoreAdapterBenchmark
+// The Panache repository against the plain JDBC adapter for findByBusinessUnitCode, getAll
+// over 1,000 active warehouses and create, each call in its own transaction and request
+// context as behind a REST call: mean time and bytes allocated on the calling thread.
+@Tag("benchmark")
+@QuarkusTest
+class WarehouseStoreAdapterBenchmark {
+
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int WAREHOUSES = 1_000;
+    private static final int WARMUP = 2_000;
+    private static final int CALLS = 5_000;
+
+    @Inject
+    WarehouseRepository hibernate;
+    @Inject
+    JdbcWarehouseStore jdbc;
+    @Inject
+    EntityManager em;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @AfterEach
+    void deleteWarehouses() {
+        deleteCreated();
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createNativeQuery("DELETE FROM warehouse WHERE id >= " + FIRST_ID).executeUpdate());
+    }
+
+    @Test
+    void compareAdapters() {
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt) "
+                                + "SELECT " + FIRST_ID + " + g, 'BENCH.' || g, 'ZWOLLE-001', 10, 1, now() "
+                                + "FROM generate_series(1, " + WAREHOUSES + ") g")
+                .executeUpdate());
+        int active = hibernate.getAll().size();
+
+        for (String adapter : new String[] {"hibernate", "jdbc"}) {
+            WarehouseStore store = adapter.equals("hibernate") ? hibernate : jdbc;
+
+            report(adapter, "findByBusinessUnitCode", i ->
+                    assertNotNull(store.findByBusinessUnitCode("BENCH." + (1 + i % WAREHOUSES))));
+            report(adapter, "getAll", i -> assertEquals(active, store.getAll().size()));
+            report(adapter, "create", i -> store.create(newWarehouse()));
+            deleteCreated();
+        }
+    }
+
+    private void deleteCreated() {
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "DELETE FROM warehouse WHERE businessUnitCode LIKE 'BENCH.NEW.%'")
+                .executeUpdate());
+    }
+
+    private void report(String adapter, String operation, IntConsumer call) {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            inRequest(call, i);
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            inRequest(call, i);
+        }
+        long micros = (System.nanoTime() - started) / 1_000 / CALLS;
+        long perCall = (threads.getThreadAllocatedBytes(threadId) - bytes) / CALLS;
+        System.out.printf("%-9s %-24s %,8d us %,12d bytes per call%n", adapter, operation, micros, perCall);
+    }
+
+    private static void inRequest(IntConsumer call, int i) {
+        ManagedContext context = Arc.container().requestContext();
+        context.activate();
+        try {
+            QuarkusTransaction.requiringNew().run(() -> call.accept(i));
+        } finally {
+            context.terminate();
+        }
+    }
+
+    private Warehouse newWarehouse() {
+        var warehouse = new Warehouse();
+        warehouse.businessUnitCode = "BENCH.NEW." + created.incrementAndGet();
+        warehouse.location = "ZWOLLE-001";
+        warehouse.capacity = 10;
+        warehouse.stock = 1;
+        return warehouse;
+    }
+}
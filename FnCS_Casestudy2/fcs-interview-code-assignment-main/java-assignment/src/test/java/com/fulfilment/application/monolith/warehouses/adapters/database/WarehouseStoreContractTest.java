@@ -0,0 +1,226 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.api.exception.BusinessException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.MaxWarehousesReachedException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.StockOutOfRangeException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseAlreadyExistsException;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AssignmentMigrator;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ArchiveWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.ReplaceWarehouseUseCase;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.StockMovementUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The warehouse use cases against a real WarehouseStore adapter; every adapter has a
+// subclass, so they all have to behave the same on the database.
+abstract class WarehouseStoreContractTest {
+
+    @Inject
+    LocationResolver locationResolver;
+    @Inject
+    AssignmentMigrator assignmentMigrator;
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    private static final int THREADS = 4;
+
+    abstract WarehouseStore store();
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        warehouseRepo.rebuildLocationUsage();
+    }
+
+    @Test
+    void createdWarehouseIsFoundByEveryRead() {
+        inTx(() -> create().create(warehouse("TEST_C1", "AMSTERDAM-002", 30, 5)));
+
+        Warehouse found = inTx(() -> store().findByBusinessUnitCode(" TEST_C1 "));
+        assertEquals("AMSTERDAM-002", found.location);
+        assertEquals(30, found.capacity);
+        assertEquals(5, found.stock);
+        assertNotNull(found.createdAt);
+        assertNull(found.archivedAt);
+
+        List<Warehouse> all = inTx(() -> store().getAll());
+        assertTrue(all.stream().anyMatch(w -> w.businessUnitCode.equals("TEST_C1")));
+        assertTrue(inTx(() -> store().existsAnyByBusinessUnitCode("TEST_C1")));
+        assertNotNull(inTx(() -> store().findAnyByBusinessUnitCode("TEST_C1")));
+        assertStats("AMSTERDAM-002", 1, 30);
+    }
+
+    @Test
+    void rejectsDuplicateBusinessUnitCode() {
+        inTx(() -> create().create(warehouse("TEST_D1", "AMSTERDAM-002", 10, 0)));
+
+        assertThrows(WarehouseAlreadyExistsException.class,
+                () -> inTx(() -> create().create(warehouse("TEST_D1", "ZWOLLE-002", 10, 0))));
+    }
+
+    @Test
+    void reservationStopsAtTheLocationLimit() {
+        // ZWOLLE-002 allows 2 warehouses
+        inTx(() -> create().create(warehouse("TEST_L1", "ZWOLLE-002", 10, 0)));
+        inTx(() -> create().create(warehouse("TEST_L2", "ZWOLLE-002", 10, 0)));
+
+        assertThrows(MaxWarehousesReachedException.class,
+                () -> inTx(() -> create().create(warehouse("TEST_L3", "ZWOLLE-002", 10, 0))));
+        assertStats("ZWOLLE-002", 2, 20);
+    }
+
+    @Test
+    void replaceKeepsThePreviousVersionAsHistory() {
+        inTx(() -> create().create(warehouse("TEST_R1", "AMSTERDAM-002", 30, 5)));
+        inTx(() -> new ReplaceWarehouseUseCase(store(), locationResolver, assignmentMigrator)
+                .replace(warehouse("TEST_R1", "AMSTERDAM-002", 40, 5)));
+
+        assertEquals(40, inTx(() -> store().findByBusinessUnitCode("TEST_R1")).capacity);
+        assertEquals(2, versions("TEST_R1"));
+        assertStats("AMSTERDAM-002", 1, 40);
+    }
+
+    @Test
+    void archiveReleasesTheLocation() {
+        inTx(() -> create().create(warehouse("TEST_A1", "AMSTERDAM-002", 30, 5)));
+        inTx(() -> new ArchiveWarehouseUseCase(store())
+                .archive(store().findByBusinessUnitCode("TEST_A1")));
+
+        assertNull(inTx(() -> store().findByBusinessUnitCode("TEST_A1")));
+        assertTrue(inTx(() -> store().existsAnyByBusinessUnitCode("TEST_A1")));
+        assertNotNull(inTx(() -> store().findAnyByBusinessUnitCode("TEST_A1")).archivedAt);
+        assertStats("AMSTERDAM-002", 0, 0);
+    }
+
+    @Test
+    void concurrentArchivesReleaseTheLocationOnce() throws Exception {
+        inTx(() -> create().create(warehouse("TEST_A2", "AMSTERDAM-002", 30, 5)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        AtomicInteger archived = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        inTx(() -> new ArchiveWarehouseUseCase(store())
+                                .archive(store().findByBusinessUnitCode("TEST_A2")));
+                        archived.incrementAndGet();
+                    } catch (BusinessException e) {
+                        // another transaction archived it first
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, archived.get());
+        assertStats("AMSTERDAM-002", 0, 0);
+    }
+
+    @Test
+    void stockMovesWithinCapacityAndIsSeenByTheRepository() {
+        inTx(() -> create().create(warehouse("TEST_S1", "AMSTERDAM-002", 30, 5)));
+        // Puts the row into the entity cache before the adapter changes it
+        assertEquals(5, inTx(() -> warehouseRepo.findByBusinessUnitCode("TEST_S1")).stock);
+
+        Warehouse moved = inTx(() -> new StockMovementUseCase(store()).move("TEST_S1", 10));
+        assertEquals(15, moved.stock);
+        assertThrows(StockOutOfRangeException.class,
+                () -> inTx(() -> new StockMovementUseCase(store()).move("TEST_S1", -20)));
+
+        assertEquals(15, inTx(() -> warehouseRepo.findByBusinessUnitCode("TEST_S1")).stock);
+    }
+
+    @Test
+    void stockOfWarehouseWithoutCapacityHasNoUpperBound() {
+        inTx(() -> em.createNativeQuery(
+                        "INSERT INTO warehouse (id, businessUnitCode, location, capacity, stock, createdAt) "
+                                + "VALUES (nextval('warehouse_seq'), 'TEST_N1', 'AMSTERDAM-002', NULL, 5, now())")
+                .executeUpdate());
+
+        Warehouse moved = inTx(() -> new StockMovementUseCase(store()).move("TEST_N1", 1_000));
+        assertEquals(1_005, moved.stock);
+        assertNull(moved.capacity);
+        assertThrows(StockOutOfRangeException.class,
+                () -> inTx(() -> new StockMovementUseCase(store()).move("TEST_N1", -1_006)));
+    }
+
+    @Test
+    void updateNeedsAnActiveWarehouse() {
+        assertThrows(IllegalStateException.class,
+                () -> inTx(() -> store().update(warehouse("TEST_U1", "AMSTERDAM-002", 10, 0))));
+        // Removing what is not there is not an error
+        inTx(() -> store().remove(warehouse("TEST_U1", "AMSTERDAM-002", 10, 0)));
+    }
+
+    private CreateWarehouseUseCase create() {
+        return new CreateWarehouseUseCase(store(), locationResolver);
+    }
+
+    // The ledger and the aggregate over the rows must agree
+    private void assertStats(String location, long warehouses, long capacity) {
+        LocationStats stats = inTx(() -> store().getLocationStats(location));
+        assertEquals(warehouses, stats.activeWarehouses);
+        assertEquals(capacity, stats.totalCapacity);
+
+        Object[] usage = inTx(() -> (Object[]) em.createNativeQuery(
+                        "SELECT coalesce(sum(warehouses), 0), coalesce(sum(capacity), 0) "
+                                + "FROM location_usage WHERE location = ?1")
+                .setParameter(1, location)
+                .getSingleResult());
+        assertEquals(warehouses, ((Number) usage[0]).longValue());
+        assertEquals(capacity, ((Number) usage[1]).longValue());
+    }
+
+    private long versions(String buCode) {
+        return inTx(() -> em.createQuery(
+                        "select count(w) from DbWarehouse w where w.businessUnitCode = ?1", Long.class)
+                .setParameter(1, buCode)
+                .getSingleResult());
+    }
+
+    private static <T> T inTx(Callable<T> work) {
+        return QuarkusTransaction.requiringNew().call(work);
+    }
+
+    private static void inTx(Runnable work) {
+        QuarkusTransaction.requiringNew().run(work);
+    }
+
+    private static Warehouse warehouse(String buCode, String location, int capacity, int stock) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = buCode;
+        warehouse.location = location;
+        warehouse.capacity = capacity;
+        warehouse.stock = stock;
+        return warehouse;
+    }
+}
@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+// The warehouse endpoints with warehouse.store=jdbc: reads and writes go through the
+// plain JDBC adapter
+@QuarkusTest
+@TestProfile(JdbcWarehouseResourceTest.JdbcStore.class)
+class JdbcWarehouseResourceTest {
+
+    public static class JdbcStore implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("warehouse.store", "jdbc");
+        }
+    }
+
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                    .executeUpdate();
+            warehouseRepo.rebuildLocationUsage();
+        });
+    }
+
+    @Test
+    void listsTheActiveWarehouses() {
+        given().when().get("/warehouse").then().statusCode(200)
+                .body("businessUnitCode", hasItem("MWH.001"))
+                .body("find { it.businessUnitCode == 'MWH.001' }.capacity", equalTo(100))
+                .body("find { it.businessUnitCode == 'MWH.001' }.stock", equalTo(10));
+    }
+
+    @Test
+    void createReadAndArchive() {
+        given().contentType(ContentType.JSON)
+                .body(Map.of("businessUnitCode", "TEST_J1", "location", "AMSTERDAM-002", "capacity", 30, "stock", 5))
+                .when().post("/warehouse")
+                .then().statusCode(200);
+
+        given().when().get("/warehouse/TEST_J1").then().statusCode(200)
+                .body("location", equalTo("AMSTERDAM-002"))
+                .body("capacity", equalTo(30));
+        given().when().get("/warehouse").then().statusCode(200)
+                .body("businessUnitCode", hasItem("TEST_J1"));
+
+        given().when().delete("/warehouse/TEST_J1").then().statusCode(204);
+
+        given().when().get("/warehouse/TEST_J1").then().statusCode(404);
+        given().when().get("/warehouse").then().statusCode(200)
+                .body("businessUnitCode", not(hasItem("TEST_J1")));
+    }
+}
@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.StockMovementUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Pbenchmark -Dtest=StockMovementBenchmark
+// Committed movements per second on a single warehouse, each in its own transaction.
+@Tag("benchmark")
+@QuarkusTest
+class StockMovementBenchmark {
+
+    private static final int MOVEMENTS_PER_THREAD = 2_500;
+
+    @Inject
+    StockMovementUseCase stockMovementUseCase;
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    @Test
+    void movementsPerSecondOnOneWarehouse() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                    .executeUpdate();
+            Warehouse w = new Warehouse();
+            w.businessUnitCode = "TEST_BENCH_STOCK";
+            w.location = "VETSBY-001";
+            w.capacity = 1_000_000;
+            w.stock = 500_000;
+            warehouseRepo.create(w);
+        });
+
+        for (int threads : new int[]{1, 4, 8}) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    tasks.add(() -> {
+                        for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                            int delta = (i & 1) == 0 ? 3 : -3;
+                            QuarkusTransaction.requiringNew()
+                                    .run(() -> stockMovementUseCase.move("TEST_BENCH_STOCK", delta));
+                        }
+                        return null;
+                    });
+                }
+                long began = System.nanoTime();
+                for (Future<Void> future : pool.invokeAll(tasks)) {
+                    future.get();
+                }
+                double seconds = (System.nanoTime() - began) / 1e9;
+                System.out.printf(
+                        "Stock movements: %d threads, %,d movements in %.2f s = %,.0f/s%n",
+                        threads, threads * MOVEMENTS_PER_THREAD, seconds, threads * MOVEMENTS_PER_THREAD / seconds);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        assertEquals(500_000, QuarkusTransaction.requiringNew()
+                .call(() -> warehouseRepo.findByBusinessUnitCode("TEST_BENCH_STOCK").stock));
+        QuarkusTransaction.requiringNew().run(() -> em.createQuery(
+                        "delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate());
+    }
+}
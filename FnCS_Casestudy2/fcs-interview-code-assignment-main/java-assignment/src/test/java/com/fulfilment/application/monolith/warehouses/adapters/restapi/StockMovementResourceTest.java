@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.api.exception.BusinessException;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.usecases.StockMovementUseCase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class StockMovementResourceTest {
+
+    private static final int THREADS = 8;
+
+    @Inject
+    StockMovementUseCase stockMovementUseCase;
+    @Inject
+    WarehouseRepository warehouseRepo;
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void clean() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                    .executeUpdate();
+            Warehouse w = new Warehouse();
+            w.businessUnitCode = "TEST_S1";
+            w.location = "VETSBY-001";
+            w.capacity = 200;
+            w.stock = 100;
+            warehouseRepo.create(w);
+            warehouseRepo.rebuildLocationUsage();
+        });
+    }
+
+    @Test
+    void movesStockInPlace() {
+        // warm the caches, the movement must still be visible right after
+        given().when().get("/warehouse/TEST_S1").then().statusCode(200).body("stock", equalTo(100));
+
+        move("TEST_S1", 40).then().statusCode(200).body("stock", equalTo(140)).body("capacity", equalTo(200));
+        move("TEST_S1", -140).then().statusCode(200).body("stock", equalTo(0));
+
+        given().when().get("/warehouse/TEST_S1").then().statusCode(200).body("stock", equalTo(0));
+        assertEquals(1L, versionCount("TEST_S1"));
+    }
+
+    @Test
+    void rejectsMovementsOutsideTheStockRange() {
+        move("TEST_S1", -101).then().statusCode(409);
+        move("TEST_S1", 101).then().statusCode(409);
+        move("TEST_S1", 0).then().statusCode(422);
+        move("TEST_NOPE", 1).then().statusCode(409);
+
+        given().when().get("/warehouse/TEST_S1").then().statusCode(200).body("stock", equalTo(100));
+    }
+
+    @Test
+    void concurrentMovementsNeverTakeStockBelowZero() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        AtomicInteger applied = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20; i++) {
+                        try {
+                            QuarkusTransaction.requiringNew().run(() -> stockMovementUseCase.move("TEST_S1", -1));
+                            applied.incrementAndGet();
+                        } catch (BusinessException e) {
+                            // out of stock, as expected once 100 have gone out
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(100, applied.get());
+        given().when().get("/warehouse/TEST_S1").then().statusCode(200).body("stock", equalTo(0));
+    }
+
+    private io.restassured.response.Response move(String buCode, int quantity) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body("{\"quantity\":" + quantity + "}")
+                .when()
+                .post("/warehouse/" + buCode + "/stock-movements");
+    }
+
+    private long versionCount(String buCode) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> em.createQuery(
+                                "select count(w) from DbWarehouse w where w.businessUnitCode = ?1", Long.class)
+                        .setParameter(1, buCode)
+                        .getSingleResult());
+    }
+}
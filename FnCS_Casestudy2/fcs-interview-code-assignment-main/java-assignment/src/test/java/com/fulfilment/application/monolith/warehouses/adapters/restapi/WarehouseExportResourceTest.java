@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class WarehouseExportResourceTest {
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    void exportHasTheFieldsOfTheList() {
+        List<Map<String, Object>> list = sorted(given().when().get("/warehouse").then().statusCode(200)
+                .extract().jsonPath().getList("$"));
+        List<Map<String, Object>> export = sorted(given().when().get("/warehouse/export").then().statusCode(200)
+                .extract().jsonPath().getList("$"));
+
+        assertFalse(export.isEmpty());
+        assertEquals(list.size(), export.size());
+        for (int i = 0; i < list.size(); i++) {
+            for (String field : List.of("businessUnitCode", "location", "capacity", "stock")) {
+                assertEquals(list.get(i).get(field), export.get(i).get(field), field);
+            }
+        }
+    }
+
+    @Test
+    void exportWritesNullColumnsAsNull() {
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "INSERT INTO warehouse(id, businessUnitCode, location, capacity, stock, createdAt) "
+                                + "VALUES (900000001, 'EXPORT.NULLS', 'ZWOLLE-001', null, null, now())")
+                .executeUpdate());
+        try {
+            List<Map<String, Object>> export = given().when().get("/warehouse/export").then().statusCode(200)
+                    .extract().jsonPath().getList("$");
+
+            Map<String, Object> row = export.stream()
+                    .filter(w -> "EXPORT.NULLS".equals(w.get("businessUnitCode")))
+                    .findFirst()
+                    .orElseThrow();
+            assertTrue(row.containsKey("stock"));
+            assertNull(row.get("capacity"));
+            assertNull(row.get("stock"));
+        } finally {
+            QuarkusTransaction.requiringNew().run(() ->
+                    em.createNativeQuery("DELETE FROM warehouse WHERE id = 900000001").executeUpdate());
+        }
+    }
+
+    private static List<Map<String, Object>> sorted(List<Map<String, Object>> warehouses) {
+        return warehouses.stream()
+                .sorted(Comparator.comparing(w -> (String) w.get("businessUnitCode")))
+                .toList();
+    }
+}
@@ -0,0 +1,109 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+class WarehouseHistoryResourceTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FEB = LocalDateTime.of(2024, 2, 1, 0, 0);
+    private static final LocalDateTime MAR = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void clean() {
+        em.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'TEST_%'")
+                .executeUpdate();
+        // inserted out of order, the history must still come back oldest first
+        persist("TEST_H1", "AMSTERDAM-002", 30, MAR, null);
+        persist("TEST_H1", "AMSTERDAM-002", 20, FEB, MAR);
+        persist("TEST_H1", "ZWOLLE-002", 10, JAN, FEB);
+    }
+
+    @Test
+    void historyListsEveryVersionOldestFirst() {
+        given()
+                .when()
+                .get("/warehouse/TEST_H1/history")
+                .then()
+                .statusCode(200)
+                .body("capacity", equalTo(List.of(10, 20, 30)))
+                .body("location", equalTo(List.of("ZWOLLE-002", "AMSTERDAM-002", "AMSTERDAM-002")))
+                .body("[0].createdAt", startsWith("2024-01-01T00:00"))
+                .body("[0].archivedAt", startsWith("2024-02-01T00:00"))
+                .body("[2].archivedAt", nullValue());
+    }
+
+    @Test
+    void historyOfUnknownBusinessUnitIsNotFound() {
+        given()
+                .when()
+                .get("/warehouse/TEST_NOPE/history")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void asOfReturnsTheVersionActiveAtThatTime() {
+        assertCapacityAsOf("2024-01-15T12:00:00", 10);
+        // archivedAt is exclusive, createdAt inclusive
+        assertCapacityAsOf("2024-02-01T00:00:00", 20);
+        assertCapacityAsOf("2024-04-01T00:00:00", 30);
+
+        given()
+                .queryParam("timestamp", "2023-12-31T23:59:59")
+                .when()
+                .get("/warehouse/as-of")
+                .then()
+                .statusCode(200)
+                .body("businessUnitCode", not(hasItem("TEST_H1")));
+    }
+
+    @Test
+    void asOfRejectsMissingOrMalformedTimestamp() {
+        given().when().get("/warehouse/as-of").then().statusCode(422);
+        given()
+                .queryParam("timestamp", "yesterday")
+                .when()
+                .get("/warehouse/as-of")
+                .then()
+                .statusCode(422);
+    }
+
+    private void assertCapacityAsOf(String timestamp, int capacity) {
+        given()
+                .queryParam("timestamp", timestamp)
+                .when()
+                .get("/warehouse/as-of")
+                .then()
+                .statusCode(200)
+                .body("findAll { it.businessUnitCode == 'TEST_H1' }.capacity", equalTo(List.of(capacity)));
+    }
+
+    private void persist(
+            String buCode, String location, int capacity, LocalDateTime createdAt, LocalDateTime archivedAt) {
+        DbWarehouse w = new DbWarehouse();
+        w.businessUnitCode = buCode;
+        w.location = location;
+        w.capacity = capacity;
+        w.stock = 5;
+        w.createdAt = createdAt;
+        w.archivedAt = archivedAt;
+        em.persist(w);
+    }
+}
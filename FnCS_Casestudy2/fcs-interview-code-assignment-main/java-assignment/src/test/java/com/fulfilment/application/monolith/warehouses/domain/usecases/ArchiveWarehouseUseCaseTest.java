@@ -2,6 +2,8 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseAlreadyArchivedException;
 import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseNotProvidedException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.ws.rs.WebApplicationException;
@@ -9,7 +11,9 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 class ArchiveWarehouseUseCaseTest {
@@ -21,11 +25,15 @@ class ArchiveWarehouseUseCaseTest {
 
         Warehouse warehouse = new Warehouse();
         warehouse.businessUnitCode = "BU1";
+        warehouse.location = "LOC1";
+        warehouse.capacity = 100;
+        store.active.put("BU1", warehouse);
 
         useCase.archive(warehouse);
 
         assertEquals(1, store.updated.size());
         assertNotNull(store.updated.get(0).archivedAt);
+        assertEquals(List.of("LOC1"), store.released);
     }
 
     @Test
@@ -46,6 +54,21 @@ class ArchiveWarehouseUseCaseTest {
         assertEquals("Warehouse is already archived.", ex.getMessage());
     }
 
+    @Test
+    void rejectsWarehouseArchivedSinceItWasRead() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        ArchiveWarehouseUseCase useCase = new ArchiveWarehouseUseCase(store);
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.businessUnitCode = "BU1";
+        warehouse.location = "LOC1";
+        warehouse.capacity = 100;
+
+        assertThrows(WarehouseAlreadyArchivedException.class, () -> useCase.archive(warehouse));
+        assertTrue(store.updated.isEmpty());
+        assertTrue(store.released.isEmpty());
+    }
+
     @Test
     void rejectsMissingWarehouse() {
         InMemoryWarehouseStore store = new InMemoryWarehouseStore();
@@ -64,7 +87,9 @@ class ArchiveWarehouseUseCaseTest {
 
     private static final class InMemoryWarehouseStore implements WarehouseStore {
 
+        private final Map<String, Warehouse> active = new HashMap<>();
         private final List<Warehouse> updated = new ArrayList<>();
+        private final List<String> released = new ArrayList<>();
 
         @Override
         public List<Warehouse> getAll() {
@@ -91,10 +116,35 @@ class ArchiveWarehouseUseCaseTest {
             return null;
         }
 
+        @Override
+        public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+            return active.get(buCode);
+        }
+
         @Override
         public Warehouse findAnyByBusinessUnitCode(String buCode) {
             return null;
         }
+
+        @Override
+        public LocationStats getLocationStats(String location) {
+            return new LocationStats(0, 0);
+        }
+
+        @Override
+        public boolean tryReserve(Location location, int warehouses, long capacity) {
+            return true;
+        }
+
+        @Override
+        public void release(String location, int warehouses, long capacity) {
+            released.add(location);
+        }
+
+        @Override
+        public Warehouse applyStockDelta(String buCode, int delta) {
+            return null;
+        }
     }
 }
 
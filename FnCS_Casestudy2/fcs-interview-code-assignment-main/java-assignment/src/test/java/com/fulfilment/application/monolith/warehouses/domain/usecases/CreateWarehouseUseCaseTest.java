@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.exception.*;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
@@ -237,6 +238,7 @@ class CreateWarehouseUseCaseTest {
 
         private final List<Warehouse> warehouses = new ArrayList<>();
         private final List<Warehouse> created = new ArrayList<>();
+        private final List<String> released = new ArrayList<>();
 
         @Override
         public List<Warehouse> getAll() {
@@ -267,10 +269,42 @@ class CreateWarehouseUseCaseTest {
                     .orElse(null);
         }
 
+        @Override
+        public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+            return findByBusinessUnitCode(buCode);
+        }
+
         @Override
         public Warehouse findAnyByBusinessUnitCode(String buCode) {
             return findByBusinessUnitCode(buCode);
         }
+
+        @Override
+        public LocationStats getLocationStats(String location) {
+            List<Warehouse> active = warehouses.stream()
+                    .filter(w -> w.archivedAt == null && location.equals(w.location))
+                    .toList();
+            return new LocationStats(
+                    active.size(), active.stream().mapToLong(w -> w.capacity == null ? 0 : w.capacity).sum());
+        }
+
+        @Override
+        public boolean tryReserve(Location location, int warehouses, long capacity) {
+            LocationStats stats = getLocationStats(location.identification);
+            return (warehouses <= 0
+                    || stats.activeWarehouses + warehouses <= location.maxNumberOfWarehouses)
+                    && (capacity <= 0 || stats.totalCapacity + capacity <= location.maxCapacity);
+        }
+
+        @Override
+        public void release(String location, int warehouses, long capacity) {
+            released.add(location);
+        }
+
+        @Override
+        public Warehouse applyStockDelta(String buCode, int delta) {
+            return null;
+        }
     }
 
     private Warehouse validWarehouse(String bu) {
@@ -2,12 +2,15 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.exception.*;
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AssignmentMigrator;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +22,7 @@ class ReplaceWarehouseUseCaseTest {
     void replacesWarehouseInSameLocation() {
         InMemoryWarehouseStore store = new InMemoryWarehouseStore();
         Warehouse current = new Warehouse();
+        current.id = 1L;
         current.businessUnitCode = "BU1";
         current.location = "LOC1";
         current.capacity = 100;
@@ -36,7 +40,8 @@ class ReplaceWarehouseUseCaseTest {
                 Map.of("LOC1", new Location("LOC1", 5, 500))
         );
 
-        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver);
+        RecordingAssignmentMigrator migrator = new RecordingAssignmentMigrator();
+        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver, migrator);
 
         Warehouse replacement = new Warehouse();
         replacement.businessUnitCode = "BU1";
@@ -51,6 +56,8 @@ class ReplaceWarehouseUseCaseTest {
         assertEquals(1, store.created.size());
         assertEquals("BU1", store.created.get(0).businessUnitCode);
         assertEquals("LOC1", store.created.get(0).location);
+        // Only the replaced version's assignments move, onto the created version
+        assertEquals(List.of(List.of(1L, store.created.get(0).id)), migrator.migrated);
     }
 
     @Test
@@ -60,7 +67,8 @@ class ReplaceWarehouseUseCaseTest {
                         new InMemoryWarehouseStore(),
                         new MapLocationResolver(
                                 Map.of("LOC1", new Location("LOC1", 5, 500))
-                        )
+                        ),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = new Warehouse();
@@ -100,7 +108,7 @@ class ReplaceWarehouseUseCaseTest {
                 )
         );
 
-        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver);
+        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver, new RecordingAssignmentMigrator());
 
         Warehouse replacement = new Warehouse();
         replacement.businessUnitCode = "BU1";
@@ -113,6 +121,7 @@ class ReplaceWarehouseUseCaseTest {
         assertEquals(1, store.updated.size());
         assertEquals(1, store.created.size());
         assertEquals("LOC2", store.created.get(0).location);
+        assertEquals(List.of("LOC1"), store.released);
     }
 
     @Test
@@ -136,7 +145,7 @@ class ReplaceWarehouseUseCaseTest {
                 Map.of("LOC1", new Location("LOC1", 5, 100))
         );
 
-        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver);
+        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver, new RecordingAssignmentMigrator());
 
         Warehouse replacement = new Warehouse();
         replacement.businessUnitCode = "BU1";
@@ -164,7 +173,8 @@ class ReplaceWarehouseUseCaseTest {
                                         "LOC1", new Location("LOC1", 5, 500),
                                         "LOC2", new Location("LOC2", 1, 500)
                                 )
-                        )
+                        ),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = warehouse("BU1", "LOC2", 120, 10);
@@ -192,7 +202,7 @@ class ReplaceWarehouseUseCaseTest {
                 );
 
         ReplaceWarehouseUseCase useCase =
-                new ReplaceWarehouseUseCase(store, resolver);
+                new ReplaceWarehouseUseCase(store, resolver, new RecordingAssignmentMigrator());
 
         Warehouse replacement = new Warehouse();
         replacement.businessUnitCode = "BU1";
@@ -223,7 +233,8 @@ class ReplaceWarehouseUseCaseTest {
                         store,
                         new MapLocationResolver(
                                 Map.of("LOC1", new Location("LOC1", 5, 500))
-                        )
+                        ),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = warehouse("BU1", "LOC1", 120, 9);
@@ -241,7 +252,7 @@ class ReplaceWarehouseUseCaseTest {
         store.warehouses.add(warehouse("BU1", "LOC1", 100, 10));
 
         ReplaceWarehouseUseCase useCase =
-                new ReplaceWarehouseUseCase(store, new MapLocationResolver(Map.of()));
+                new ReplaceWarehouseUseCase(store, new MapLocationResolver(Map.of()), new RecordingAssignmentMigrator());
 
         Warehouse replacement = warehouse("BU1", "MISSING", 120, 10);
 
@@ -262,7 +273,8 @@ class ReplaceWarehouseUseCaseTest {
                         store,
                         new MapLocationResolver(
                                 Map.of("LOC1", new Location("LOC1", 5, 500))
-                        )
+                        ),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = warehouse("BU1", "LOC1", 20, 25);
@@ -283,7 +295,8 @@ class ReplaceWarehouseUseCaseTest {
                         store,
                         new MapLocationResolver(
                                 Map.of("LOC1", new Location("LOC1", 5, 150))
-                        )
+                        ),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = warehouse("BU1", "LOC1", 200, 10);
@@ -305,7 +318,8 @@ class ReplaceWarehouseUseCaseTest {
                         store,
                         new MapLocationResolver(
                                 Map.of("LOC1", new Location("LOC1", 5, 400))
-                        )
+                        ),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = warehouse("BU1", "LOC1", 150, 10);
@@ -321,7 +335,8 @@ class ReplaceWarehouseUseCaseTest {
         ReplaceWarehouseUseCase useCase =
                 new ReplaceWarehouseUseCase(
                         new InMemoryWarehouseStore(),
-                        new MapLocationResolver(Map.of())
+                        new MapLocationResolver(Map.of()),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse invalidCapacity = warehouse("BU1", "LOC1", 0, 10);
@@ -342,7 +357,8 @@ class ReplaceWarehouseUseCaseTest {
         ReplaceWarehouseUseCase useCase =
                 new ReplaceWarehouseUseCase(
                         new InMemoryWarehouseStore(),
-                        new MapLocationResolver(Map.of())
+                        new MapLocationResolver(Map.of()),
+                        new RecordingAssignmentMigrator()
                 );
 
         Warehouse replacement = warehouse(" ", "LOC1", 120, 10);
@@ -358,7 +374,8 @@ class ReplaceWarehouseUseCaseTest {
     void rejectsMissingLocation() {
         ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(
                 new InMemoryWarehouseStore(),
-                new MapLocationResolver(Map.of())
+                new MapLocationResolver(Map.of()),
+                new RecordingAssignmentMigrator()
         );
 
         Warehouse replacement = new Warehouse();
@@ -384,7 +401,8 @@ class ReplaceWarehouseUseCaseTest {
     void rejectsMissingCapacityOrStock() {
         ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(
                 new InMemoryWarehouseStore(),
-                new MapLocationResolver(Map.of())
+                new MapLocationResolver(Map.of()),
+                new RecordingAssignmentMigrator()
         );
 
         Warehouse missingCapacity = new Warehouse();
@@ -437,7 +455,7 @@ class ReplaceWarehouseUseCaseTest {
                 Map.of("LOC1", new Location("LOC1", 5, 500))
         );
 
-        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver);
+        ReplaceWarehouseUseCase useCase = new ReplaceWarehouseUseCase(store, resolver, new RecordingAssignmentMigrator());
 
         Warehouse replacement = new Warehouse();
         replacement.businessUnitCode = " BU1 ";
@@ -453,6 +471,16 @@ class ReplaceWarehouseUseCaseTest {
         assertEquals("BU1", store.created.get(0).businessUnitCode);
     }
 
+    private static final class RecordingAssignmentMigrator implements AssignmentMigrator {
+
+        private final List<List<Long>> migrated = new ArrayList<>();
+
+        @Override
+        public void migrateToActive(Long archivedWarehouseId, Long activeWarehouseId) {
+            migrated.add(Arrays.asList(archivedWarehouseId, activeWarehouseId));
+        }
+    }
+
     private static final class MapLocationResolver implements LocationResolver {
 
         private final Map<String, Location> locations;
@@ -471,7 +499,9 @@ class ReplaceWarehouseUseCaseTest {
 
         private final List<Warehouse> warehouses = new ArrayList<>();
         private final List<Warehouse> created = new ArrayList<>();
+        private final List<String> released = new ArrayList<>();
         private final List<Warehouse> updated = new ArrayList<>();
+        private long nextId = 100;
 
         @Override
         public List<Warehouse> getAll() {
@@ -480,6 +510,7 @@ class ReplaceWarehouseUseCaseTest {
 
         @Override
         public void create(Warehouse warehouse) {
+            warehouse.id = nextId++;
             warehouses.add(warehouse);
             created.add(warehouse);
         }
@@ -502,10 +533,42 @@ class ReplaceWarehouseUseCaseTest {
                     .orElse(null);
         }
 
+        @Override
+        public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+            return findByBusinessUnitCode(buCode);
+        }
+
         @Override
         public Warehouse findAnyByBusinessUnitCode(String buCode) {
             return findByBusinessUnitCode(buCode);
         }
+
+        @Override
+        public LocationStats getLocationStats(String location) {
+            List<Warehouse> active = warehouses.stream()
+                    .filter(w -> w.archivedAt == null && location.equals(w.location))
+                    .toList();
+            return new LocationStats(
+                    active.size(), active.stream().mapToLong(w -> w.capacity == null ? 0 : w.capacity).sum());
+        }
+
+        @Override
+        public boolean tryReserve(Location location, int warehouses, long capacity) {
+            LocationStats stats = getLocationStats(location.identification);
+            return (warehouses <= 0
+                    || stats.activeWarehouses + warehouses <= location.maxNumberOfWarehouses)
+                    && (capacity <= 0 || stats.totalCapacity + capacity <= location.maxCapacity);
+        }
+
+        @Override
+        public void release(String location, int warehouses, long capacity) {
+            released.add(location);
+        }
+
+        @Override
+        public Warehouse applyStockDelta(String buCode, int delta) {
+            return null;
+        }
     }
 
     private Warehouse warehouse(
@@ -0,0 +1,139 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.exception.ActiveWarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.StockOutOfRangeException;
+import com.fulfilment.application.monolith.warehouses.domain.exception.WarehouseValidationException;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationStats;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockMovementUseCaseTest {
+
+    @Test
+    void appliesInboundAndOutboundMovements() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        store.warehouses.add(warehouse("BU1", 100, 10));
+        StockMovementUseCase useCase = new StockMovementUseCase(store);
+
+        assertEquals(25, useCase.move("BU1", 15).stock);
+        assertEquals(5, useCase.move(" BU1 ", -20).stock);
+        assertEquals(List.of(15, -20), store.deltas);
+    }
+
+    @Test
+    void rejectsMovementLeavingTheStockRange() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        store.warehouses.add(warehouse("BU1", 100, 10));
+        StockMovementUseCase useCase = new StockMovementUseCase(store);
+
+        assertThrows(StockOutOfRangeException.class, () -> useCase.move("BU1", -11));
+        assertThrows(StockOutOfRangeException.class, () -> useCase.move("BU1", 91));
+        assertEquals(10, store.warehouses.get(0).stock);
+    }
+
+    @Test
+    void rejectsMovementOnUnknownWarehouse() {
+        StockMovementUseCase useCase = new StockMovementUseCase(new InMemoryWarehouseStore());
+
+        assertThrows(ActiveWarehouseNotFoundException.class, () -> useCase.move("BU1", 1));
+    }
+
+    @Test
+    void rejectsMissingOrZeroQuantity() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        StockMovementUseCase useCase = new StockMovementUseCase(store);
+
+        assertThrows(WarehouseValidationException.class, () -> useCase.move("BU1", null));
+        assertThrows(WarehouseValidationException.class, () -> useCase.move("BU1", 0));
+        assertThrows(WarehouseValidationException.class, () -> useCase.move(" ", 1));
+        assertTrue(store.deltas.isEmpty());
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static final class InMemoryWarehouseStore implements WarehouseStore {
+
+        private final List<Warehouse> warehouses = new ArrayList<>();
+        private final List<Integer> deltas = new ArrayList<>();
+
+        @Override
+        public List<Warehouse> getAll() {
+            return new ArrayList<>(warehouses);
+        }
+
+        @Override
+        public void create(Warehouse warehouse) {
+            warehouses.add(warehouse);
+        }
+
+        @Override
+        public void update(Warehouse warehouse) {
+            // no-op for tests
+        }
+
+        @Override
+        public void remove(Warehouse warehouse) {
+            warehouses.remove(warehouse);
+        }
+
+        @Override
+        public Warehouse findByBusinessUnitCode(String buCode) {
+            return warehouses.stream()
+                    .filter(warehouse -> warehouse.businessUnitCode.equals(buCode))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+            return findByBusinessUnitCode(buCode);
+        }
+
+        @Override
+        public Warehouse findAnyByBusinessUnitCode(String buCode) {
+            return findByBusinessUnitCode(buCode);
+        }
+
+        @Override
+        public LocationStats getLocationStats(String location) {
+            return new LocationStats(0, 0);
+        }
+
+        @Override
+        public boolean tryReserve(Location location, int warehouses, long capacity) {
+            return true;
+        }
+
+        @Override
+        public void release(String location, int warehouses, long capacity) {
+            // no-op for tests
+        }
+
+        @Override
+        public Warehouse applyStockDelta(String buCode, int delta) {
+            Warehouse warehouse = findByBusinessUnitCode(buCode);
+            if (warehouse == null || warehouse.stock + delta < 0 || (warehouse.capacity != null && warehouse.stock + delta > warehouse.capacity)) {
+                return null;
+            }
+            deltas.add(delta);
+            warehouse.stock += delta;
+            return warehouse;
+        }
+    }
+
+    private static Warehouse warehouse(String businessUnitCode, int capacity, int stock) {
+        Warehouse w = new Warehouse();
+        w.businessUnitCode = businessUnitCode;
+        w.location = "LOC1";
+        w.capacity = capacity;
+        w.stock = stock;
+        return w;
+    }
+}